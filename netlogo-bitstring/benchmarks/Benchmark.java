@@ -0,0 +1,191 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.nlogo.headless.HeadlessWorkspace;
+
+/**
+ * Benchmark.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Benchmark -->
+ * 
+ * Run NetLogo models using the bitstring extension headless, and report, as
+ * CSV on standard output, the ticks per second, the peak heap use, the time
+ * spent in garbage collection and the number of bitstrings made per tick. The
+ * models must have <code>setup</code> and <code>go</code> procedures, with
+ * <code>go</code> running one tick.
+ * 
+ * <pre>
+ * java -cp NetLogo.jar:. Benchmark [-ticks T] [-warmup W] [-seed S] model.nlogo...
+ * </pre>
+ * 
+ * @author Gary Polhill
+ */
+public class Benchmark {
+
+	public static final int DEFAULT_TICKS = 1000;
+
+	public static final int DEFAULT_WARMUP = 200;
+
+	public static final long DEFAULT_SEED = 0L;
+
+	private final int ticks;
+
+	private final int warmup;
+
+	private final long seed;
+
+	public Benchmark(int ticks, int warmup, long seed) {
+		this.ticks = ticks;
+		this.warmup = warmup;
+		this.seed = seed;
+	}
+
+	/**
+	 * <!-- run -->
+	 * 
+	 * Run one model: set it up, run it for the warm-up ticks to let the JIT
+	 * compiler settle, and then measure it over the timed ticks.
+	 * 
+	 * @param model
+	 *          Path to the <code>.nlogo</code> file
+	 * @return A line of CSV with the results
+	 * @throws Exception
+	 *           if NetLogo cannot open or run the model
+	 */
+	public String run(String model) throws Exception {
+		HeadlessWorkspace workspace = HeadlessWorkspace.newInstance();
+
+		try {
+			workspace.open(model);
+			workspace.command("random-seed " + seed);
+			workspace.command("setup");
+			if(warmup > 0) {
+				workspace.command("repeat " + warmup + " [ go ]");
+			}
+
+			System.gc();
+			List<MemoryPoolMXBean> heap = new LinkedList<MemoryPoolMXBean>();
+			for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+				if(pool.getType() == MemoryType.HEAP) {
+					pool.resetPeakUsage();
+					heap.add(pool);
+				}
+			}
+			long gc0 = gcTime();
+			double made0 = (Double)workspace.report("bitstring:made");
+			long t0 = System.nanoTime();
+
+			workspace.command("repeat " + ticks + " [ go ]");
+
+			long t1 = System.nanoTime();
+			double made1 = (Double)workspace.report("bitstring:made");
+			long gc1 = gcTime();
+
+			// The sum of the pools' peaks is an upper bound: they need not all peak
+			// at the same time
+
+			long peak = 0L;
+			for(MemoryPoolMXBean pool: heap) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+
+			double seconds = (t1 - t0) / 1.0e9;
+			return model + "," + ticks + "," + seconds + "," + (ticks / seconds) + "," + (peak / (1024.0 * 1024.0)) + ","
+					+ (gc1 - gc0) + "," + ((made1 - made0) / ticks);
+		}
+		finally {
+			workspace.dispose();
+		}
+	}
+
+	/**
+	 * <!-- gcTime -->
+	 * 
+	 * @return The total time in milliseconds spent by all the garbage collectors
+	 *         so far
+	 */
+	private static long gcTime() {
+		long total = 0L;
+		for(GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans()) {
+			long time = gc.getCollectionTime();
+			if(time > 0L) {
+				total += time;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * <!-- main -->
+	 * 
+	 * @param args
+	 *          Options followed by the models to run
+	 */
+	public static void main(String[] args) {
+		int ticks = DEFAULT_TICKS;
+		int warmup = DEFAULT_WARMUP;
+		long seed = DEFAULT_SEED;
+		List<String> models = new LinkedList<String>();
+
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("-ticks") && i + 1 < args.length) {
+				ticks = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-warmup") && i + 1 < args.length) {
+				warmup = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-seed") && i + 1 < args.length) {
+				seed = Long.parseLong(args[++i]);
+			}
+			else if(args[i].startsWith("-")) {
+				System.err.println("Usage: Benchmark [-ticks T] [-warmup W] [-seed S] model.nlogo...");
+				System.exit(1);
+			}
+			else {
+				models.add(args[i]);
+			}
+		}
+
+		if(ticks <= 0) {
+			System.err.println("Number of ticks (" + ticks + ") must be positive");
+			System.exit(1);
+		}
+
+		Benchmark benchmark = new Benchmark(ticks, warmup, seed);
+		System.out.println("model,ticks,seconds,ticks-per-second,peak-heap-mb,gc-ms,bitstrings-per-tick");
+		int failures = 0;
+		for(String model: models) {
+			try {
+				System.out.println(benchmark.run(model));
+			}
+			catch(Exception e) {
+				System.err.println("Could not benchmark " + model + ": " + e.getMessage());
+				failures++;
+			}
+		}
+		System.exit(failures == 0 ? 0 : 2);
+	}
+
+}
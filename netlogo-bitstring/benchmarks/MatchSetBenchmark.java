@@ -0,0 +1,150 @@
+import java.util.SplittableRandom;
+
+import uk.ac.hutton.bitstring.Bitstring;
+import uk.ac.hutton.bitstring.Ternary;
+import uk.ac.hutton.bitstring.TernaryIndex;
+
+/**
+ * MatchSetBenchmark.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- MatchSetBenchmark -->
+ * 
+ * Measure how the time taken to find a match set with a {@link TernaryIndex}
+ * grows with the number of patterns indexed, compared with matching each
+ * pattern in turn. The patterns are random, caring about each position with
+ * the given probability, as in a classifier system; the defaults are those of
+ * the 11-bit multiplexer in <code>models/classifier-system.nlogo</code>. Prints
+ * CSV on standard output, including whether the index chose to search a tree
+ * or to match each pattern in turn.
+ * 
+ * <pre>
+ * java -cp bitstring.jar:. MatchSetBenchmark [-length L] [-care C] [-inputs I] [-seed S] [N...]
+ * </pre>
+ * 
+ * @author Gary Polhill
+ */
+public class MatchSetBenchmark {
+
+	public static final int DEFAULT_LENGTH = 11;
+
+	public static final double DEFAULT_CARE = 0.5;
+
+	public static final int DEFAULT_INPUTS = 1000;
+
+	public static final long DEFAULT_SEED = 0L;
+
+	public static final int DEFAULT_SIZES[] = { 1000, 10000, 100000 };
+
+	/**
+	 * Number of times each way of finding match sets is timed, taking the
+	 * fastest, so that the first runs can warm up the JIT compiler
+	 */
+	public static final int REPEATS = 5;
+
+	/**
+	 * <!-- main -->
+	 * 
+	 * @param args
+	 *          Options followed by the numbers of patterns to index
+	 */
+	public static void main(String[] args) {
+		int length = DEFAULT_LENGTH;
+		double care = DEFAULT_CARE;
+		int inputs = DEFAULT_INPUTS;
+		long seed = DEFAULT_SEED;
+		int sizes[] = new int[args.length];
+		int nSizes = 0;
+
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("-length") && i + 1 < args.length) {
+				length = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-care") && i + 1 < args.length) {
+				care = Double.parseDouble(args[++i]);
+			}
+			else if(args[i].equals("-inputs") && i + 1 < args.length) {
+				inputs = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-seed") && i + 1 < args.length) {
+				seed = Long.parseLong(args[++i]);
+			}
+			else if(args[i].startsWith("-")) {
+				System.err.println("Usage: MatchSetBenchmark [-length L] [-care C] [-inputs I] [-seed S] [N...]");
+				System.exit(1);
+			}
+			else {
+				sizes[nSizes++] = Integer.parseInt(args[i]);
+			}
+		}
+		if(nSizes == 0) {
+			sizes = DEFAULT_SIZES;
+			nSizes = sizes.length;
+		}
+
+		SplittableRandom rng = new SplittableRandom(seed);
+		Bitstring input[] = new Bitstring[inputs];
+		for(int i = 0; i < inputs; i++) {
+			input[i] = new Bitstring(length, 0.5, rng);
+		}
+
+		System.out.println("patterns,index,build-ms,index-us-per-match-set,scan-us-per-match-set,mean-matches");
+		for(int s = 0; s < nSizes; s++) {
+			Ternary patterns[] = new Ternary[sizes[s]];
+			for(int p = 0; p < patterns.length; p++) {
+				patterns[p] = new Ternary(new Bitstring(length, 0.5, rng), new Bitstring(length, care, rng));
+			}
+
+			long t0 = System.nanoTime();
+			TernaryIndex index = new TernaryIndex(patterns);
+			long t1 = System.nanoTime();
+
+			long matches = 0L;
+			long indexed = Long.MAX_VALUE;
+			for(int rep = 0; rep < REPEATS; rep++) {
+				matches = 0L;
+				long start = System.nanoTime();
+				for(Bitstring in: input) {
+					matches += index.matchSet(in).length;
+				}
+				indexed = Math.min(indexed, System.nanoTime() - start);
+			}
+
+			long scanned = Long.MAX_VALUE;
+			for(int rep = 0; rep < REPEATS; rep++) {
+				long scanMatches = 0L;
+				long start = System.nanoTime();
+				for(Bitstring in: input) {
+					for(Ternary pattern: patterns) {
+						if(pattern.matches(in)) scanMatches++;
+					}
+				}
+				scanned = Math.min(scanned, System.nanoTime() - start);
+				if(scanMatches != matches) {
+					throw new RuntimeException("PANIC!");
+				}
+			}
+
+			System.out.println(patterns.length + "," + (index.isTree() ? "tree" : "scan") + "," + ((t1 - t0) / 1.0e6) + "," + (indexed / (1.0e3 * inputs)) + ","
+					+ (scanned / (1.0e3 * inputs)) + "," + ((double)matches / inputs));
+		}
+	}
+
+}
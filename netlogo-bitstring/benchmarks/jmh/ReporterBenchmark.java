@@ -0,0 +1,146 @@
+package jmh;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.DefaultClassManager;
+import org.nlogo.api.Primitive;
+import org.nlogo.api.PrimitiveManager;
+import org.nlogo.api.Reporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ReporterBenchmark.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- ReporterBenchmark -->
+ * 
+ * JMH benchmark of calls to the extension's reporters that return a boolean
+ * or a number, to be run with the GC profiler to check that they allocate
+ * nothing when calls are not being recorded by Java Flight Recorder:
+ * 
+ * <pre>
+ * java -cp ... org.openjdk.jmh.Main -prof gc jmh.ReporterBenchmark
+ * </pre>
+ * 
+ * <code>gc.alloc.rate.norm</code> should be close to 0 B/op for each
+ * reporter. The reporters are those the extension gives NetLogo when it is
+ * loaded, so the wrappers that record calls are included. JMH does not allow
+ * benchmarks in the default package, where the extension's classes are, so
+ * the extension is loaded by name and its bitstrings made with
+ * <code>from-string</code>.
+ * 
+ * @author Gary Polhill
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReporterBenchmark {
+
+	public static final int LENGTH = 1000;
+
+	@Param({ "get?", "count0", "count1", "all1?", "any1?", "match", "contains?" })
+	public String reporter;
+
+	private Reporter primitive;
+
+	private Argument args[];
+
+	/**
+	 * <!-- setup -->
+	 * 
+	 * Load the extension, and make the arguments for the reporter
+	 * 
+	 * @throws Exception
+	 *           if the extension cannot be loaded
+	 */
+	@Setup
+	public void setup() throws Exception {
+		Map<String, Primitive> primitives = new HashMap<String, Primitive>();
+		PrimitiveManager manager = (PrimitiveManager)Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { PrimitiveManager.class }, (proxy, method, margs) -> {
+					if(method.getName().equals("addPrimitive")) {
+						primitives.put((String)margs[0], (Primitive)margs[1]);
+					}
+					return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+				});
+		DefaultClassManager extension = (DefaultClassManager)Class.forName("BitstringExtension").getDeclaredConstructor()
+				.newInstance();
+		extension.load(manager);
+
+		StringBuilder buff = new StringBuilder();
+		for(int i = 0; i < LENGTH; i++) {
+			buff.append((i * 7) % 3 == 0 ? '1' : '0');
+		}
+		Reporter fromString = (Reporter)primitives.get("from-string");
+		Object bitstring = fromString.report(new Argument[] { argument(buff.toString()) }, null);
+		Object sub = fromString.report(new Argument[] { argument(buff.substring(100, 140)) }, null);
+
+		primitive = (Reporter)primitives.get(reporter);
+		switch(reporter) {
+		case "get?":
+			args = new Argument[] { argument(bitstring), argument(Integer.valueOf(42)) };
+			break;
+		case "match":
+			args = new Argument[] { argument(bitstring), argument(bitstring) };
+			break;
+		case "contains?":
+			args = new Argument[] { argument(bitstring), argument(sub) };
+			break;
+		default:
+			args = new Argument[] { argument(bitstring) };
+			break;
+		}
+	}
+
+	/**
+	 * <!-- argument -->
+	 * 
+	 * @param value
+	 * @return An argument giving <code>value</code> however it is asked for,
+	 *         without allocating
+	 */
+	private static Argument argument(Object value) {
+		return (Argument)Proxy.newProxyInstance(ReporterBenchmark.class.getClassLoader(),
+				new Class<?>[] { Argument.class }, (proxy, method, margs) -> value);
+	}
+
+	@Benchmark
+	public Object report() throws Exception {
+		return primitive.report(args, null);
+	}
+
+}
@@ -0,0 +1,165 @@
+import org.nlogo.api.Agent;
+import org.nlogo.api.AgentException;
+import org.nlogo.api.AgentSet;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.Patch;
+import org.nlogo.api.Turtle;
+import org.nlogo.api.World;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+/**
+ * AgentVariable.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- AgentVariable -->
+ * 
+ * A turtle, breed or patch variable named in a call to one of the
+ * <code>...-all</code> primitives, which read and write the bitstrings in that
+ * variable of every agent in an agentset directly.
+ * 
+ * @author Gary Polhill
+ */
+class AgentVariable {
+
+	private final World world;
+
+	private final String name;
+
+	/**
+	 * The name as NetLogo stores it
+	 */
+	private final String key;
+
+	private final int turtleVar;
+
+	private final int patchVar;
+
+	/**
+	 * The breed whose variables were last looked up, and the index of the
+	 * variable among them
+	 */
+	private AgentSet breed = null;
+
+	private int breedVar = -1;
+
+	/**
+	 * <!-- AgentVariable constructor -->
+	 * 
+	 * @param world
+	 * @param name
+	 */
+	AgentVariable(World world, String name) {
+		this.world = world;
+		this.name = name;
+		this.key = name.toUpperCase();
+		this.turtleVar = world.turtlesOwnIndexOf(key);
+		this.patchVar = world.patchesOwnIndexOf(key);
+	}
+
+	/**
+	 * <!-- indexOf -->
+	 * 
+	 * @param agent
+	 * @return The index of the variable in <code>agent</code>
+	 * @throws ExtensionException
+	 */
+	private int indexOf(Agent agent) throws ExtensionException {
+		int var;
+
+		if(agent instanceof Patch) {
+			var = patchVar;
+		}
+		else if(agent instanceof Turtle) {
+			var = turtleVar;
+			if(var < 0) {
+				AgentSet agentBreed = ((Turtle)agent).getBreed();
+				if(agentBreed != breed) {
+					breed = agentBreed;
+					breedVar = world.breedsOwnIndexOf(agentBreed, key);
+				}
+				var = breedVar;
+			}
+		}
+		else {
+			throw new ExtensionException("Can only use turtle and patch variables, not those of " + agent);
+		}
+		if(var < 0) {
+			throw new ExtensionException(agent + " has no variable called " + name);
+		}
+		return var;
+	}
+
+	/**
+	 * <!-- agents -->
+	 * 
+	 * @param agentset
+	 * @return The agents in <code>agentset</code>, in the order it lists them
+	 */
+	static Agent[] agents(AgentSet agentset) {
+		Agent agents[] = new Agent[agentset.count()];
+		int n = 0;
+
+		for(Agent agent: agentset.agents()) {
+			agents[n++] = agent;
+		}
+		return agents;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param agents
+	 * @return The bitstring in the variable of each agent
+	 * @throws ExtensionException
+	 */
+	NetLogoBitstring[] get(Agent agents[]) throws ExtensionException {
+		NetLogoBitstring bs[] = new NetLogoBitstring[agents.length];
+
+		for(int i = 0; i < agents.length; i++) {
+			Object obj = agents[i].getVariable(indexOf(agents[i]));
+			if(!(obj instanceof NetLogoBitstring)) {
+				throw new ExtensionException("Expected a bitstring in variable " + name + " of " + agents[i]
+						+ " but got a " + obj.getClass().getSimpleName());
+			}
+			bs[i] = BitstringExtension.checkReleased((NetLogoBitstring)obj);
+		}
+		return bs;
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * @param agents
+	 * @param bs
+	 *          The bitstring to put in the variable of each agent
+	 * @throws ExtensionException
+	 */
+	void set(Agent agents[], Bitstring bs[]) throws ExtensionException {
+		try {
+			for(int i = 0; i < agents.length; i++) {
+				agents[i].setVariable(indexOf(agents[i]), new NetLogoBitstring(bs[i]));
+			}
+		}
+		catch(AgentException e) {
+			throw new ExtensionException(e);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Agent;
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+import uk.ac.hutton.bitstring.Population;
+
+/**
+ * AllAgents.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- AllAgents -->
+ * 
+ * Reporters computing something of the bitstring in a named variable of every
+ * agent in an agentset in one call, giving a list in the order the agentset
+ * lists the agents, which is that of <code>sort</code>.
+ * 
+ * @author Gary Polhill
+ */
+public class AllAgents implements Reporter {
+
+	protected enum Mode {
+		COUNT1, MATCH
+	};
+
+	private final Mode mode;
+
+	public AllAgents(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case COUNT1:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.AgentsetType(), Syntax.StringType() }, Syntax.ListType());
+		case MATCH:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.AgentsetType(), Syntax.StringType(), Syntax.WildcardType() },
+																		Syntax.ListType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		Agent agents[] = AgentVariable.agents(args[0].getAgentSet());
+		Population population = new Population(new AgentVariable(context.world(), args[1].getString()).get(agents));
+		int results[];
+
+		switch(mode) {
+		case COUNT1:
+			results = population.count1();
+			break;
+		case MATCH:
+			NetLogoBitstring target = BitstringExtension.getNetLogoBitstring(args, 2);
+			for(Bitstring bitstring: population) {
+				if(bitstring.size() != target.size()) {
+					throw new ExtensionException("Cannot match bitstrings of different sizes (" + bitstring.size() + " and "
+							+ target.size() + ")");
+				}
+			}
+			results = population.match(target);
+			break;
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+
+		List<Double> list = new ArrayList<Double>(results.length);
+		for(int i = 0; i < results.length; i++) {
+			list.add(BitstringExtension.number(results[i]));
+		}
+		return LogoList.fromJava(list);
+	}
+
+}
@@ -52,17 +52,17 @@ public class AllAny implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 
 		switch(mode) {
 		case ALL_ZERO:
-			return new Boolean(bs[0].all0());
+			return Boolean.valueOf(bitstring.all0());
 		case ALL_ONE:
-			return new Boolean(bs[0].all1());
+			return Boolean.valueOf(bitstring.all1());
 		case ANY_ZERO:
-			return new Boolean(!bs[0].all1());
+			return Boolean.valueOf(!bitstring.all1());
 		case ANY_ONE:
-			return new Boolean(!bs[0].all0());
+			return Boolean.valueOf(!bitstring.all0());
 		default:
 			throw new RuntimeException("PANIC!");
 		}
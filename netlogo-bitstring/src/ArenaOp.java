@@ -0,0 +1,110 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+/**
+ * ArenaOp.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- ArenaOp -->
+ * 
+ * Reporters creating {@link NetLogoArena}s and putting bitstrings in them.
+ * 
+ * @author Gary Polhill
+ */
+public class ArenaOp implements Reporter {
+
+	protected enum Mode {
+		NEW, PUT, BYTES
+	};
+
+	private final Mode mode;
+
+	public ArenaOp(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case NEW:
+			return SyntaxJ.reporterSyntax(new int[] {}, Syntax.WildcardType());
+		case PUT:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType() },
+																		Syntax.WildcardType());
+		case BYTES:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.NumberType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		if(mode == Mode.NEW) {
+			return new NetLogoArena();
+		}
+		NetLogoArena arena = getNetLogoArena(args, 0);
+
+		try {
+			switch(mode) {
+			case PUT:
+				return new NetLogoBitstring(arena.put(BitstringExtension.getNetLogoBitstring(args, 1)));
+			case BYTES:
+				return Double.valueOf(arena.bytes());
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IllegalArgumentException | IllegalStateException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- getNetLogoArena -->
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The arena at argument <code>pos</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static NetLogoArena getNetLogoArena(Argument args[], int pos) throws ExtensionException, LogoException {
+		Object obj = args[pos].get();
+
+		if(obj instanceof NetLogoArena) {
+			return (NetLogoArena)obj;
+		}
+		throw new ExtensionException("Expected an arena as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
+
+}
@@ -76,31 +76,32 @@ public class BitWise implements Reporter {
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
 		if(op.unary()) {
-			NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+			NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 			switch(op) {
 			case NOT:
-				return new NetLogoBitstring(bs[0].not());
+				return new NetLogoBitstring(bitstring.not());
 			case RSH:
-				return new NetLogoBitstring(bs[0].rightShift());
+				return new NetLogoBitstring(bitstring.rightShift());
 			case GRAY:
-				return new NetLogoBitstring(bs[0].grayCode());
+				return new NetLogoBitstring(bitstring.grayCode());
 			case INVGRAY:
-				return new NetLogoBitstring(bs[0].inverseGrayCode());
+				return new NetLogoBitstring(bitstring.inverseGrayCode());
 			default:
 				throw new RuntimeException("PANIC!");
 			}
 		}
 		else {
-			NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0, 1);
+			NetLogoBitstring bitstring1 = BitstringExtension.getNetLogoBitstring(args, 0);
+			NetLogoBitstring bitstring2 = BitstringExtension.getNetLogoBitstring(args, 1);
 			switch(op) {
 			case AND:
-				return new NetLogoBitstring(bs[0].and(bs[1]));
+				return new NetLogoBitstring(bitstring1.and(bitstring2));
 			case OR:
-				return new NetLogoBitstring(bs[0].or(bs[1]));
+				return new NetLogoBitstring(bitstring1.or(bitstring2));
 			case XOR:
-				return new NetLogoBitstring(bs[0].xor(bs[1]));
+				return new NetLogoBitstring(bitstring1.xor(bitstring2));
 			case PARITY:
-				return new NetLogoBitstring(bs[0].parity(bs[1]));
+				return new NetLogoBitstring(bitstring1.parity(bitstring2));
 			default:
 				throw new RuntimeException("PANIC!");
 			}
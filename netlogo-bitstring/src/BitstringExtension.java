@@ -1,15 +1,21 @@
 import java.util.List;
+import java.util.SplittableRandom;
 
 import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
 import org.nlogo.api.DefaultClassManager;
 import org.nlogo.api.Dump;
 import org.nlogo.api.ExtensionException;
 import org.nlogo.api.ExtensionManager;
 import org.nlogo.api.ImportErrorHandler;
 import org.nlogo.api.LogoException;
+import org.nlogo.api.Primitive;
 import org.nlogo.api.PrimitiveManager;
 import org.nlogo.core.CompilerException;
 import org.nlogo.core.ExtensionObject;
+import org.nlogo.core.LogoList;
+
+import uk.ac.hutton.bitstring.Ternary;
 
 
 /**
@@ -39,6 +45,19 @@ import org.nlogo.core.ExtensionObject;
  */
 public class BitstringExtension extends DefaultClassManager {
 
+	/**
+	 * Integers below this are reported without allocating a new number
+	 */
+	public static final int NUMBERS = 1 << 12;
+
+	private static final Double numbers[] = new Double[NUMBERS + 1];
+
+	static {
+		for(int i = 0; i < numbers.length; i++) {
+			numbers[i] = Double.valueOf(i - 1);
+		}
+	}
+
 	/**
 	 * <!-- load -->
 	 * 
@@ -46,69 +65,191 @@ public class BitstringExtension extends DefaultClassManager {
 	 */
 	@Override
 	public void load(PrimitiveManager manager) throws ExtensionException {
-		manager.addPrimitive("make", new Make());
-		manager.addPrimitive("from-list", new FromList());
-		manager.addPrimitive("random", new Random());
-		manager.addPrimitive("from-string", new FromString());
-
-		manager.addPrimitive("get?", new GetBit(GetBit.Mode.RANDOM_ACCESS));
-		manager.addPrimitive("first?", new GetBit(GetBit.Mode.FIRST));
-		manager.addPrimitive("last?", new GetBit(GetBit.Mode.LAST));
-		manager.addPrimitive("set", new SetBit());
-		manager.addPrimitive("fput", new FLPut(FLPut.Mode.FIRST));
-		manager.addPrimitive("lput", new FLPut(FLPut.Mode.LAST));
-
-		manager.addPrimitive("not", new BitWise(BitWise.Op.NOT));
-		manager.addPrimitive("and", new BitWise(BitWise.Op.AND));
-		manager.addPrimitive("or", new BitWise(BitWise.Op.OR));
-		manager.addPrimitive("xor", new BitWise(BitWise.Op.XOR));
-		manager.addPrimitive("parity", new BitWise(BitWise.Op.PARITY));
-		manager.addPrimitive("right-shift", new BitWise(BitWise.Op.RSH));
-		manager.addPrimitive("gray-code", new BitWise(BitWise.Op.GRAY));
-		manager.addPrimitive("inverse-gray-code", new BitWise(BitWise.Op.INVGRAY));
-
-		manager.addPrimitive("match", new Match());
-		manager.addPrimitive("contains?", new Contains());
-		manager.addPrimitive("cat", new Cat());
-		manager.addPrimitive("sub", new SubBitstring(SubBitstring.Mode.RANDOM_ACCESS));
-		manager.addPrimitive("but-first", new SubBitstring(SubBitstring.Mode.BUT_FIRST));
-		manager.addPrimitive("but-last", new SubBitstring(SubBitstring.Mode.BUT_LAST));
-		manager.addPrimitive("count0", new Count(Count.Mode.ZERO));
-		manager.addPrimitive("count1", new Count(Count.Mode.ONE));
-		manager.addPrimitive("all0?", new AllAny(AllAny.Mode.ALL_ZERO));
-		manager.addPrimitive("any0?", new AllAny(AllAny.Mode.ANY_ZERO));
-		manager.addPrimitive("all1?", new AllAny(AllAny.Mode.ALL_ONE));
-		manager.addPrimitive("any1?", new AllAny(AllAny.Mode.ANY_ONE));
-		manager.addPrimitive("empty?", new Empty());
-		manager.addPrimitive("toggle", new Toggle());
-		manager.addPrimitive("jitter", new Jitter());
-		manager.addPrimitive("crossover", new Crossover());
-		manager.addPrimitive("mutate", new Mutate());
-
-		manager.addPrimitive("to-list", new ToList());
-		manager.addPrimitive("to-string", new ToString());
-		manager.addPrimitive("length", new Length());
+		RegistryEvent.start();
+		addPrimitive(manager, "make", new Make());
+		addPrimitive(manager, "from-list", new FromList());
+		addPrimitive(manager, "random", new Random());
+		addPrimitive(manager, "from-string", new FromString());
+
+		addPrimitive(manager, "get?", new GetBit(GetBit.Mode.RANDOM_ACCESS));
+		addPrimitive(manager, "first?", new GetBit(GetBit.Mode.FIRST));
+		addPrimitive(manager, "last?", new GetBit(GetBit.Mode.LAST));
+		addPrimitive(manager, "set", new SetBit());
+		addPrimitive(manager, "fput", new FLPut(FLPut.Mode.FIRST));
+		addPrimitive(manager, "lput", new FLPut(FLPut.Mode.LAST));
+
+		addPrimitive(manager, "not", new BitWise(BitWise.Op.NOT));
+		addPrimitive(manager, "and", new BitWise(BitWise.Op.AND));
+		addPrimitive(manager, "or", new BitWise(BitWise.Op.OR));
+		addPrimitive(manager, "xor", new BitWise(BitWise.Op.XOR));
+		addPrimitive(manager, "parity", new BitWise(BitWise.Op.PARITY));
+		addPrimitive(manager, "and-all", new Reduce(Reduce.Op.AND));
+		addPrimitive(manager, "or-all", new Reduce(Reduce.Op.OR));
+		addPrimitive(manager, "xor-all", new Reduce(Reduce.Op.XOR));
+		addPrimitive(manager, "majority", new Reduce(Reduce.Op.MAJORITY));
+		addPrimitive(manager, "locus-counts", new Statistics(Statistics.Mode.COUNTS));
+		addPrimitive(manager, "locus-frequencies", new Statistics(Statistics.Mode.FREQUENCIES));
+		addPrimitive(manager, "entropy", new Statistics(Statistics.Mode.ENTROPY));
+		addPrimitive(manager, "diversity", new Statistics(Statistics.Mode.DIVERSITY));
+		addPrimitive(manager, "right-shift", new BitWise(BitWise.Op.RSH));
+		addPrimitive(manager, "shift", new Shift(Shift.Mode.SHIFT));
+		addPrimitive(manager, "rotate", new Shift(Shift.Mode.ROTATE));
+		addPrimitive(manager, "reverse", new Shift(Shift.Mode.REVERSE));
+		addPrimitive(manager, "ca-step", new CellularAutomaton(CellularAutomaton.Mode.STEP));
+		addPrimitive(manager, "ca-run", new CellularAutomaton(CellularAutomaton.Mode.RUN));
+		addPrimitive(manager, "builder", new BuilderReporter(BuilderReporter.Mode.NEW));
+		addPrimitive(manager, "build", new BuilderReporter(BuilderReporter.Mode.BUILD));
+		addPrimitive(manager, "builder-length", new BuilderReporter(BuilderReporter.Mode.LENGTH));
+		addPrimitive(manager, "builder-get", new BuilderReporter(BuilderReporter.Mode.GET));
+		addPrimitive(manager, "builder-append", new BuilderCommand(BuilderCommand.Mode.APPEND));
+		addPrimitive(manager, "builder-set", new BuilderCommand(BuilderCommand.Mode.SET));
+		addPrimitive(manager, "builder-clear", new BuilderCommand(BuilderCommand.Mode.CLEAR));
+		addPrimitive(manager, "builder-toggle", new BuilderCommand(BuilderCommand.Mode.TOGGLE));
+		addPrimitive(manager, "board-from-patches", new BoardFromPatches());
+		addPrimitive(manager, "board-to-patches", new BoardToPatches());
+		addPrimitive(manager, "board-count", new BoardOp(BoardOp.Mode.COUNT));
+		addPrimitive(manager, "board-get", new BoardOp(BoardOp.Mode.GET));
+		addPrimitive(manager, "board-row", new BoardOp(BoardOp.Mode.ROW));
+		addPrimitive(manager, "board-not", new BoardOp(BoardOp.Mode.NOT));
+		addPrimitive(manager, "board-and", new BoardOp(BoardOp.Mode.AND));
+		addPrimitive(manager, "board-or", new BoardOp(BoardOp.Mode.OR));
+		addPrimitive(manager, "board-xor", new BoardOp(BoardOp.Mode.XOR));
+		addPrimitive(manager, "board-neighbours", new BoardOp(BoardOp.Mode.NEIGHBOURS));
+		addPrimitive(manager, "board-life", new BoardOp(BoardOp.Mode.LIFE));
+		addPrimitive(manager, "board-dilate", new BoardOp(BoardOp.Mode.DILATE));
+		addPrimitive(manager, "board-erode", new BoardOp(BoardOp.Mode.ERODE));
+		addPrimitive(manager, "matrix-from-rows", new MatrixOp(MatrixOp.Mode.FROM_ROWS));
+		addPrimitive(manager, "matrix-to-rows", new MatrixOp(MatrixOp.Mode.TO_ROWS));
+		addPrimitive(manager, "matrix-get", new MatrixOp(MatrixOp.Mode.GET));
+		addPrimitive(manager, "matrix-row", new MatrixOp(MatrixOp.Mode.ROW));
+		addPrimitive(manager, "matrix-transpose", new MatrixOp(MatrixOp.Mode.TRANSPOSE));
+		addPrimitive(manager, "matrix-product", new MatrixOp(MatrixOp.Mode.PRODUCT));
+		addPrimitive(manager, "matrix-gf2-product", new MatrixOp(MatrixOp.Mode.GF2_PRODUCT));
+		addPrimitive(manager, "matrix-closure", new MatrixOp(MatrixOp.Mode.CLOSURE));
+		addPrimitive(manager, "matrix-row-counts", new MatrixOp(MatrixOp.Mode.ROW_COUNTS));
+		addPrimitive(manager, "matrix-column-counts", new MatrixOp(MatrixOp.Mode.COLUMN_COUNTS));
+		addPrimitive(manager, "matrix-rank", new MatrixOp(MatrixOp.Mode.RANK));
+		addPrimitive(manager, "matrix-solve", new MatrixOp(MatrixOp.Mode.SOLVE));
+		addPrimitive(manager, "large-create", new LargeOp(LargeOp.Mode.CREATE));
+		addPrimitive(manager, "large-save", new LargeOp(LargeOp.Mode.SAVE));
+		addPrimitive(manager, "large-open", new LargeOp(LargeOp.Mode.OPEN));
+		addPrimitive(manager, "large-length", new LargeOp(LargeOp.Mode.LENGTH));
+		addPrimitive(manager, "large-get?", new LargeOp(LargeOp.Mode.GET));
+		addPrimitive(manager, "large-count1", new LargeOp(LargeOp.Mode.COUNT1));
+		addPrimitive(manager, "large-count1-range", new LargeOp(LargeOp.Mode.COUNT1_RANGE));
+		addPrimitive(manager, "large-sub", new LargeOp(LargeOp.Mode.SUB));
+		addPrimitive(manager, "large-and", new LargeOp(LargeOp.Mode.AND));
+		addPrimitive(manager, "large-or", new LargeOp(LargeOp.Mode.OR));
+		addPrimitive(manager, "large-set", new LargeCommand(LargeCommand.Mode.SET));
+		addPrimitive(manager, "large-flush", new LargeCommand(LargeCommand.Mode.FLUSH));
+		addPrimitive(manager, "arena", new ArenaOp(ArenaOp.Mode.NEW));
+		addPrimitive(manager, "arena-put", new ArenaOp(ArenaOp.Mode.PUT));
+		addPrimitive(manager, "arena-bytes", new ArenaOp(ArenaOp.Mode.BYTES));
+		addPrimitive(manager, "arena-release", new ReleaseArena());
+		addPrimitive(manager, "gray-code", new BitWise(BitWise.Op.GRAY));
+		addPrimitive(manager, "inverse-gray-code", new BitWise(BitWise.Op.INVGRAY));
+
+		addPrimitive(manager, "match", new Match());
+		addPrimitive(manager, "ternary", new MakeTernary(MakeTernary.Mode.PATTERN));
+		addPrimitive(manager, "ternary-index", new MakeTernary(MakeTernary.Mode.INDEX));
+		addPrimitive(manager, "matches?", new TernaryMatch(TernaryMatch.Mode.MATCHES));
+		addPrimitive(manager, "match-set", new TernaryMatch(TernaryMatch.Mode.MATCH_SET));
+		addPrimitive(manager, "contains?", new Contains());
+		addPrimitive(manager, "cat", new Cat());
+		addPrimitive(manager, "sub", new SubBitstring(SubBitstring.Mode.RANDOM_ACCESS));
+		addPrimitive(manager, "but-first", new SubBitstring(SubBitstring.Mode.BUT_FIRST));
+		addPrimitive(manager, "but-last", new SubBitstring(SubBitstring.Mode.BUT_LAST));
+		addPrimitive(manager, "count0", new Count(Count.Mode.ZERO));
+		addPrimitive(manager, "count1", new Count(Count.Mode.ONE));
+		addPrimitive(manager, "all0?", new AllAny(AllAny.Mode.ALL_ZERO));
+		addPrimitive(manager, "any0?", new AllAny(AllAny.Mode.ANY_ZERO));
+		addPrimitive(manager, "all1?", new AllAny(AllAny.Mode.ALL_ONE));
+		addPrimitive(manager, "any1?", new AllAny(AllAny.Mode.ANY_ONE));
+		addPrimitive(manager, "ones", new Positions(Positions.Mode.ONES));
+		addPrimitive(manager, "zeros", new Positions(Positions.Mode.ZEROS));
+		addPrimitive(manager, "next-one", new Seek(Seek.Mode.NEXT_ONE));
+		addPrimitive(manager, "prev-one", new Seek(Seek.Mode.PREV_ONE));
+		addPrimitive(manager, "rank", new RankSelect(RankSelect.Mode.RANK));
+		addPrimitive(manager, "select", new RankSelect(RankSelect.Mode.SELECT));
+		addPrimitive(manager, "empty?", new Empty());
+		addPrimitive(manager, "toggle", new Toggle());
+		addPrimitive(manager, "jitter", new Jitter());
+		addPrimitive(manager, "jitter-all", new JitterAll());
+		addPrimitive(manager, "count1-all", new AllAgents(AllAgents.Mode.COUNT1));
+		addPrimitive(manager, "match-all", new AllAgents(AllAgents.Mode.MATCH));
+		addPrimitive(manager, "crossover", new Crossover(Crossover.Mode.POINT));
+		addPrimitive(manager, "crossover-points", new Crossover(Crossover.Mode.POINTS));
+		addPrimitive(manager, "crossover-uniform", new Crossover(Crossover.Mode.UNIFORM));
+		addPrimitive(manager, "crossover-mask", new Crossover(Crossover.Mode.MASK));
+		addPrimitive(manager, "ga-step", new GAStep());
+		addPrimitive(manager, "islands", new IslandsOp(IslandsOp.Mode.NEW));
+		addPrimitive(manager, "islands-evolve", new IslandsEvolve());
+		addPrimitive(manager, "islands-populations", new IslandsOp(IslandsOp.Mode.POPULATIONS));
+		addPrimitive(manager, "islands-generation", new IslandsOp(IslandsOp.Mode.GENERATION));
+		addPrimitive(manager, "mutate", new Mutate());
+
+		addPrimitive(manager, "parallelism", new Parallelism());
+		addPrimitive(manager, "set-parallelism", new SetParallelism());
+		addPrimitive(manager, "made", new Registry(Registry.Mode.MADE));
+		addPrimitive(manager, "registered", new Registry(Registry.Mode.REGISTERED));
+
+		addPrimitive(manager, "to-list", new ToList());
+		addPrimitive(manager, "to-string", new ToString());
+		addPrimitive(manager, "length", new Length());
+	}
+
+	/**
+	 * <!-- addPrimitive -->
+	 * 
+	 * Add a primitive, recording its calls as {@link PrimitiveEvent}s when Java
+	 * Flight Recorder is running.
+	 * 
+	 * @param manager
+	 * @param name
+	 * @param primitive
+	 */
+	private static void addPrimitive(PrimitiveManager manager, String name, Primitive primitive) {
+		manager.addPrimitive(name, PrimitiveEvent.record(name, primitive));
+	}
+
+	@Override
+	public void unload(ExtensionManager manager) throws ExtensionException {
+		RegistryEvent.stop();
 	}
 
 	@Override
 	public void clearAll() {
 		NetLogoBitstring.reset();
+		NetLogoArena.releaseAll();
 	}
 
 	@Override
 	public StringBuilder exportWorld() {
+		WorldEvent event = new WorldEvent(WorldEvent.EXPORT);
+		event.begin();
 		StringBuilder buff = new StringBuilder();
 
+		int n = 0;
 		for(NetLogoBitstring bitstring: NetLogoBitstring.bitstrings()) {
+			if(bitstring.isReleased()) {
+				continue;
+			}
 			buff.append(Dump.csv().encode(Dump.extensionObject(bitstring, true, true, false)) + "\n");
+			n++;
 		}
+		event.commit(n, buff.length());
 		return buff;
 	}
 
 	@Override
 	public void importWorld(List<String[]> lines, ExtensionManager manager, ImportErrorHandler handler)
 			throws ExtensionException {
+		WorldEvent event = new WorldEvent(WorldEvent.IMPORT);
+		event.begin();
+		long characters = 0L;
+
 		for(String line[]: lines) {
+			characters += line[0].length();
 			try {
 				manager.readFromString(line[0]);
 			}
@@ -117,30 +258,125 @@ public class BitstringExtension extends DefaultClassManager {
 													"This bitstring will be ignored");
 			}
 		}
+		event.commit(lines.size(), characters);
 	}
 
 	@Override
 	public ExtensionObject readExtensionObject(ExtensionManager manager, String typeName, String value)
 			throws ExtensionException, CompilerException {
+		if(NetLogoTernary.TYPE_NAME.equals(typeName)) {
+			if(!Ternary.is10Hash(value)) {
+				throw new ExtensionException("Cannot construct a ternary pattern from string " + value);
+			}
+			return new NetLogoTernary(value);
+		}
+		else if(NetLogoTernaryIndex.TYPE_NAME.equals(typeName)) {
+			return NetLogoTernaryIndex.manifest(value);
+		}
+		else if(NetLogoBitboard.TYPE_NAME.equals(typeName)) {
+			return NetLogoBitboard.manifest(value);
+		}
+		else if(NetLogoBitMatrix.TYPE_NAME.equals(typeName)) {
+			return NetLogoBitMatrix.manifest(value);
+		}
+		else if(NetLogoBitstringBuilder.TYPE_NAME.equals(typeName)) {
+			return NetLogoBitstringBuilder.manifest(value);
+		}
+		else if(NetLogoLargeBitstring.TYPE_NAME.equals(typeName)) {
+			return NetLogoLargeBitstring.manifest(value);
+		}
+		else if(NetLogoArena.TYPE_NAME.equals(typeName)) {
+			return new NetLogoArena();
+		}
+		else if(NetLogoIslands.TYPE_NAME.equals(typeName)) {
+			return NetLogoIslands.manifest(value);
+		}
 		return NetLogoBitstring.manifest(value);
 	}
 
-	protected static NetLogoBitstring[] getNetLogoBitstringArgs(Argument args[], int... pos) throws ExtensionException,
+	/**
+	 * <!-- getNetLogoBitstring -->
+	 * 
+	 * Nothing is allocated unless the argument is missing or the wrong type, so
+	 * that fetching arguments adds no garbage to each call of a primitive.
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The bitstring at position <code>pos</code> in <code>args</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	protected static NetLogoBitstring getNetLogoBitstring(Argument args[], int pos) throws ExtensionException,
 			LogoException {
-		NetLogoBitstring bs[] = new NetLogoBitstring[pos.length];
+		if(pos >= args.length) {
+			throw new ExtensionException("Command expects a " + (pos + 1) + " argument, but only has " + args.length);
+		}
+		Object obj = args[pos].get();
+		if(obj instanceof NetLogoBitstring) {
+			return checkReleased((NetLogoBitstring)obj);
+		}
+		throw new ExtensionException("Command expects a bitstring as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
 
-		for(int i = 0; i < pos.length; i++) {
-			if(pos[i] >= args.length) {
-				throw new ExtensionException("Command expects a " + (pos[i] + 1) + " argument, but only has " + args.length);
-			}
-			Object obj = args[pos[i]].get();
+	/**
+	 * <!-- checkReleased -->
+	 * 
+	 * @param bitstring
+	 * @return <code>bitstring</code>
+	 * @throws ExtensionException
+	 *           if its words are in an arena that has been released
+	 */
+	protected static NetLogoBitstring checkReleased(NetLogoBitstring bitstring) throws ExtensionException {
+		if(bitstring.isReleased()) {
+			throw new ExtensionException("Cannot use a bitstring in an arena that has been released");
+		}
+		return bitstring;
+	}
+
+	/**
+	 * <!-- number -->
+	 * 
+	 * NetLogo numbers are <code>Double</code>s; counts, positions and lengths
+	 * from -1 up to {@link #NUMBERS} are reported using boxes made once here
+	 * rather than one per call.
+	 * 
+	 * @param n
+	 * @return <code>n</code> as a NetLogo number
+	 */
+	protected static Double number(int n) {
+		return n >= -1 && n < NUMBERS ? numbers[n + 1] : Double.valueOf(n);
+	}
+
+	/**
+	 * <!-- getRandom -->
+	 * 
+	 * @param context
+	 * @return A random number generator seeded from that of the model, so that
+	 *         results can be reproduced with <code>random-seed</code>
+	 */
+	protected static SplittableRandom getRandom(Context context) {
+		return new SplittableRandom(context.getRNG().nextLong());
+	}
+
+	protected static NetLogoBitstring[] getNetLogoBitstringList(Argument args[], int pos) throws ExtensionException,
+			LogoException {
+		if(pos >= args.length) {
+			throw new ExtensionException("Command expects a " + (pos + 1) + " argument, but only has " + args.length);
+		}
+		LogoList list = args[pos].getList();
+		NetLogoBitstring bs[] = new NetLogoBitstring[list.size()];
+
+		int i = 0;
+		for(Object obj: list.javaIterable()) {
 			if(obj instanceof NetLogoBitstring) {
-				bs[i] = (NetLogoBitstring)obj;
+				bs[i] = checkReleased((NetLogoBitstring)obj);
 			}
 			else {
-				throw new ExtensionException("Command expects a bitstring as argument " + (pos[i] + 1) + " but got a "
-						+ obj.getClass().getSimpleName());
+				throw new ExtensionException("Command expects a list of bitstrings as argument " + (pos + 1)
+						+ " but element " + (i + 1) + " is a " + obj.getClass().getSimpleName());
 			}
+			i++;
 		}
 
 		return bs;
@@ -0,0 +1,93 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.World;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitboard;
+
+
+/**
+ * BoardFromPatches.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- BoardFromPatches -->
+ * 
+ * Make a bitboard the size of the world from a patch variable, with a
+ * <code>1</code> for each patch where the variable is <code>true</code>. Cell
+ * (0, 0) is the patch at (<code>min-pxcor</code>, <code>min-pycor</code>), and
+ * the bitboard wraps as the world does.
+ * 
+ * @author Gary Polhill
+ */
+public class BoardFromPatches implements Reporter {
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.reporterSyntax(new int[] { Syntax.StringType() }, Syntax.WildcardType());
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		World world = context.world();
+		int var = getPatchVariable(world, args[0].getString());
+		int width = world.worldWidth();
+		int height = world.worldHeight();
+		int minx = world.minPxcor();
+		int miny = world.minPycor();
+		long words[] = Bitboard.wordsFor(width, height);
+
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				if(Boolean.TRUE.equals(world.fastGetPatchAt(minx + x, miny + y).getVariable(var))) {
+					words[Bitboard.index(width, x, y)] |= 1L << x;
+				}
+			}
+		}
+		return new NetLogoBitboard(width, height, world.wrappingAllowedInX(), world.wrappingAllowedInY(), words);
+	}
+
+	/**
+	 * <!-- getPatchVariable -->
+	 * 
+	 * @param world
+	 * @param name
+	 * @return The index of the patch variable called <code>name</code>
+	 * @throws ExtensionException
+	 */
+	static int getPatchVariable(World world, String name) throws ExtensionException {
+		int var = world.patchesOwnIndexOf(name.toUpperCase());
+
+		if(var < 0) {
+			throw new ExtensionException("There is no patch variable called " + name);
+		}
+		return var;
+	}
+
+}
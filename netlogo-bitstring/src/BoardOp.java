@@ -0,0 +1,228 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitboard;
+
+
+/**
+ * BoardOp.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- BoardOp -->
+ * 
+ * Reporters operating on {@link NetLogoBitboard}s.
+ * 
+ * @author Gary Polhill
+ */
+public class BoardOp implements Reporter {
+
+	protected enum Mode {
+		COUNT, GET, ROW, NOT, AND, OR, XOR, NEIGHBOURS, LIFE, DILATE, ERODE
+	};
+
+	private final Mode mode;
+
+	public BoardOp(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case COUNT:
+		case NOT:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.WildcardType());
+		case GET:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.NumberType() },
+																		Syntax.BooleanType());
+		case ROW:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() }, Syntax.WildcardType());
+		case AND:
+		case OR:
+		case XOR:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType() },
+																		Syntax.WildcardType());
+		case NEIGHBOURS:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.StringType(), Syntax.ListType() },
+																		Syntax.WildcardType());
+		case LIFE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.StringType() }, Syntax.WildcardType());
+		case DILATE:
+		case ERODE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.RepeatableType() | Syntax.StringType() },
+																		Syntax.WildcardType(), 1);
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitboard board = getNetLogoBitboard(args, 0);
+
+		try {
+			switch(mode) {
+			case COUNT:
+				return BitstringExtension.number(board.count1());
+			case GET:
+				return Boolean.valueOf(board.get(args[1].getIntValue(), args[2].getIntValue()));
+			case ROW:
+				return new NetLogoBitstring(board.row(args[1].getIntValue()));
+			case NOT:
+				return new NetLogoBitboard(board.not());
+			case AND:
+				return new NetLogoBitboard(board.and(getNetLogoBitboard(args, 1)));
+			case OR:
+				return new NetLogoBitboard(board.or(getNetLogoBitboard(args, 1)));
+			case XOR:
+				return new NetLogoBitboard(board.xor(getNetLogoBitboard(args, 1)));
+			case NEIGHBOURS:
+				return new NetLogoBitboard(board.neighbours(getNeighbourhood(args[1]), getCounts(args[2].getList())));
+			case LIFE:
+				return life(board, args[1].getString());
+			case DILATE:
+				return new NetLogoBitboard(board.dilate(args.length > 1 ? getNeighbourhood(args[1])
+						: Bitboard.Neighbourhood.MOORE));
+			case ERODE:
+				return new NetLogoBitboard(board.erode(args.length > 1 ? getNeighbourhood(args[1])
+						: Bitboard.Neighbourhood.MOORE));
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- life -->
+	 * 
+	 * @param board
+	 * @param rule
+	 *          A Life-like rule in B/S notation, e.g. <code>"B3/S23"</code> for
+	 *          Conway's Game of Life
+	 * @return The next generation of <code>board</code> under <code>rule</code>
+	 * @throws ExtensionException
+	 */
+	private static NetLogoBitboard life(NetLogoBitboard board, String rule) throws ExtensionException {
+		int born = -1;
+		int survive = -1;
+
+		for(String part: rule.trim().toUpperCase().split("/")) {
+			int counts = 0;
+			for(int i = 1; i < part.length(); i++) {
+				char chr = part.charAt(i);
+				if(chr < '0' || chr > '8') {
+					throw new ExtensionException("Invalid neighbour count '" + chr + "' in Life rule " + rule);
+				}
+				counts |= 1 << (chr - '0');
+			}
+			if(part.startsWith("B") && born == -1) {
+				born = counts;
+			}
+			else if(part.startsWith("S") && survive == -1) {
+				survive = counts;
+			}
+			else {
+				throw new ExtensionException("Life rule " + rule + " should be in the form \"B3/S23\"");
+			}
+		}
+		if(born == -1 || survive == -1) {
+			throw new ExtensionException("Life rule " + rule + " should be in the form \"B3/S23\"");
+		}
+		return new NetLogoBitboard(board.life(born, survive));
+	}
+
+	/**
+	 * <!-- getNeighbourhood -->
+	 * 
+	 * @param arg
+	 * @return The neighbourhood: <code>"moore"</code> or
+	 *         <code>"von-neumann"</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	private static Bitboard.Neighbourhood getNeighbourhood(Argument arg) throws ExtensionException, LogoException {
+		String neighbourhood = arg.getString();
+
+		if("moore".equalsIgnoreCase(neighbourhood)) {
+			return Bitboard.Neighbourhood.MOORE;
+		}
+		else if("von-neumann".equalsIgnoreCase(neighbourhood)) {
+			return Bitboard.Neighbourhood.VON_NEUMANN;
+		}
+		else {
+			throw new ExtensionException("Neighbourhood must be \"moore\" or \"von-neumann\", not " + neighbourhood);
+		}
+	}
+
+	/**
+	 * <!-- getCounts -->
+	 * 
+	 * @param list
+	 * @return A mask with bit <code>k</code> set for each number <code>k</code>
+	 *         in <code>list</code>
+	 * @throws ExtensionException
+	 */
+	private static int getCounts(LogoList list) throws ExtensionException {
+		int counts = 0;
+
+		for(Object obj: list.javaIterable()) {
+			if(!(obj instanceof Double) || (Double)obj < 0.0 || (Double)obj > 8.0) {
+				throw new ExtensionException("Neighbour counts must be numbers in the range [0, 8], not " + obj);
+			}
+			counts |= 1 << ((Double)obj).intValue();
+		}
+		return counts;
+	}
+
+	/**
+	 * <!-- getNetLogoBitboard -->
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The bitboard at argument <code>pos</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static NetLogoBitboard getNetLogoBitboard(Argument args[], int pos) throws ExtensionException, LogoException {
+		Object obj = args[pos].get();
+
+		if(obj instanceof NetLogoBitboard) {
+			return (NetLogoBitboard)obj;
+		}
+		throw new ExtensionException("Expected a bitboard as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
+
+}
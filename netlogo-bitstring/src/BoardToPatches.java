@@ -0,0 +1,85 @@
+import org.nlogo.api.AgentException;
+import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.World;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitboard;
+
+
+/**
+ * BoardToPatches.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- BoardToPatches -->
+ * 
+ * Set a patch variable to <code>true</code> or <code>false</code> from the
+ * cells of a bitboard the size of the world, as made by
+ * {@link BoardFromPatches}.
+ * 
+ * @author Gary Polhill
+ */
+public class BoardToPatches implements Command {
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType(), Syntax.StringType() });
+	}
+
+	/**
+	 * <!-- perform -->
+	 * 
+	 * @see org.nlogo.api.Command#perform(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public void perform(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitboard board = BoardOp.getNetLogoBitboard(args, 0);
+		World world = context.world();
+		int var = BoardFromPatches.getPatchVariable(world, args[1].getString());
+		int width = world.worldWidth();
+		int height = world.worldHeight();
+
+		if(board.width() != width || board.height() != height) {
+			throw new ExtensionException("Bitboard size (" + board.width() + "x" + board.height()
+					+ ") does not match the world (" + width + "x" + height + ")");
+		}
+
+		long words[] = board.words();
+		int minx = world.minPxcor();
+		int miny = world.minPycor();
+		try {
+			for(int y = 0; y < height; y++) {
+				for(int x = 0; x < width; x++) {
+					boolean value = (words[Bitboard.index(width, x, y)] & (1L << x)) != 0L;
+					world.fastGetPatchAt(minx + x, miny + y).setVariable(var, Boolean.valueOf(value));
+				}
+			}
+		}
+		catch(AgentException e) {
+			throw new ExtensionException(e);
+		}
+	}
+
+}
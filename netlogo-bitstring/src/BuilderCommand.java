@@ -0,0 +1,109 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+
+/**
+ * BuilderCommand.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- BuilderCommand -->
+ * 
+ * Commands changing a {@link NetLogoBitstringBuilder} in place.
+ * 
+ * @author Gary Polhill
+ */
+public class BuilderCommand implements Command {
+
+	protected enum Mode {
+		APPEND, SET, CLEAR, TOGGLE
+	};
+
+	private final Mode mode;
+
+	public BuilderCommand(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case APPEND:
+			return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType() });
+		case SET:
+			return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.BooleanType() });
+		case CLEAR:
+		case TOGGLE:
+			return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() });
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- perform -->
+	 * 
+	 * @see org.nlogo.api.Command#perform(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public void perform(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstringBuilder builder = BuilderReporter.getNetLogoBitstringBuilder(args, 0);
+
+		try {
+			switch(mode) {
+			case APPEND:
+				Object value = args[1].get();
+				if(value instanceof Boolean) {
+					builder.append(((Boolean)value).booleanValue());
+				}
+				else if(value instanceof Bitstring) {
+					builder.append((Bitstring)value);
+				}
+				else {
+					throw new ExtensionException("Can only append true, false or a bitstring to a bitstring builder, not "
+							+ value);
+				}
+				break;
+			case SET:
+				builder.set(args[1].getIntValue(), args[2].getBooleanValue());
+				break;
+			case CLEAR:
+				builder.clear(args[1].getIntValue());
+				break;
+			case TOGGLE:
+				builder.toggle(args[1].getIntValue());
+				break;
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+}
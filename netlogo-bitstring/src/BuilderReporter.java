@@ -0,0 +1,122 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+
+/**
+ * BuilderReporter.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- BuilderReporter -->
+ * 
+ * Reporters making {@link NetLogoBitstringBuilder}s, querying them, and building
+ * bitstrings from them.
+ * 
+ * @author Gary Polhill
+ */
+public class BuilderReporter implements Reporter {
+
+	protected enum Mode {
+		NEW, BUILD, LENGTH, GET
+	};
+
+	private final Mode mode;
+
+	public BuilderReporter(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case NEW:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.RepeatableType() | Syntax.WildcardType() },
+																		Syntax.WildcardType(), 0);
+		case BUILD:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.WildcardType());
+		case LENGTH:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.NumberType());
+		case GET:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() },
+																		Syntax.BooleanType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		if(mode == Mode.NEW) {
+			if(args.length == 0) {
+				return new NetLogoBitstringBuilder();
+			}
+			return new NetLogoBitstringBuilder(BitstringExtension.getNetLogoBitstring(args, 0));
+		}
+
+		NetLogoBitstringBuilder builder = getNetLogoBitstringBuilder(args, 0);
+
+		try {
+			switch(mode) {
+			case BUILD:
+				return new NetLogoBitstring(builder.build());
+			case LENGTH:
+				return BitstringExtension.number(builder.size());
+			case GET:
+				return Boolean.valueOf(builder.get(args[1].getIntValue()));
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- getNetLogoBitstringBuilder -->
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The bitstring builder at argument <code>pos</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static NetLogoBitstringBuilder getNetLogoBitstringBuilder(Argument args[], int pos) throws ExtensionException,
+			LogoException {
+		Object obj = args[pos].get();
+
+		if(obj instanceof NetLogoBitstringBuilder) {
+			return (NetLogoBitstringBuilder)obj;
+		}
+		throw new ExtensionException("Expected a bitstring builder as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
+
+}
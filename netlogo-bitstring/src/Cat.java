@@ -1,11 +1,18 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.nlogo.api.Argument;
 import org.nlogo.api.Context;
 import org.nlogo.api.Reporter;
 import org.nlogo.api.ExtensionException;
 import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
 import org.nlogo.core.Syntax;
 import org.nlogo.core.SyntaxJ;
 
+import uk.ac.hutton.bitstring.Bitstring;
+
 
 /**
  * Cat.java, 
@@ -30,14 +37,16 @@ import org.nlogo.core.SyntaxJ;
 /**
  * <!-- Cat -->
  *
+ * Concatenate any number of bitstrings, or lists of bitstrings, into one.
+ *
  * @author Gary Polhill
  */
 public class Cat implements Reporter {
 
 	@Override
 	public Syntax getSyntax() {
-		return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType() },
-																	Syntax.NumberType());
+		return SyntaxJ.reporterSyntax(new int[] { Syntax.RepeatableType() | Syntax.WildcardType() },
+																	Syntax.WildcardType(), 2);
 	}
 
 	/** 
@@ -47,12 +56,23 @@ public class Cat implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring cat[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		for(int i = 1; i < args.length; i++) {
-			NetLogoBitstring arg[] = BitstringExtension.getNetLogoBitstringArgs(args, i);
-			cat[0] = new NetLogoBitstring(cat[0].append(arg[0]));
+		List<Bitstring> pieces = new ArrayList<Bitstring>(args.length);
+
+		for(int i = 0; i < args.length; i++) {
+			Object obj = args[i].get();
+			if(obj instanceof LogoList) {
+				pieces.addAll(Arrays.asList(BitstringExtension.getNetLogoBitstringList(args, i)));
+			}
+			else {
+				pieces.add(BitstringExtension.getNetLogoBitstring(args, i));
+			}
+		}
+		try {
+			return new NetLogoBitstring(Bitstring.concat(pieces.toArray(new Bitstring[pieces.size()])));
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
 		}
-		return cat[0];
 	}
 
 }
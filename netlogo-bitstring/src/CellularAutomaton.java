@@ -0,0 +1,118 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+
+/**
+ * CellularAutomaton.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- CellularAutomaton -->
+ * 
+ * @author Gary Polhill
+ */
+public class CellularAutomaton implements Reporter {
+
+	protected enum Mode {
+		STEP, RUN
+	};
+
+	private final Mode mode;
+
+	public CellularAutomaton(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case STEP:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.WildcardType() },
+																		Syntax.WildcardType());
+		case RUN:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.WildcardType(),
+																								Syntax.NumberType() }, Syntax.WildcardType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+		int rule = args[1].getIntValue();
+		Bitstring.Boundary boundary = getBoundary(args[2]);
+
+		if(rule < 0 || rule > 255) {
+			throw new ExtensionException("Rule " + rule + " is outside the range [0, 255]");
+		}
+
+		switch(mode) {
+		case STEP:
+			return new NetLogoBitstring(bitstring.caStep(rule, boundary));
+		case RUN:
+			int steps = args[3].getIntValue();
+			if(steps < 0) {
+				throw new ExtensionException("Number of steps (" + steps + ") must not be negative");
+			}
+			return new NetLogoBitstring(bitstring.caRun(rule, boundary, steps));
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- getBoundary -->
+	 * 
+	 * @param arg
+	 * @return The boundary condition: <code>"periodic"</code> to wrap round, or
+	 *         <code>false</code> or <code>true</code> to fix the cells beyond
+	 *         each end at that value
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	private static Bitstring.Boundary getBoundary(Argument arg) throws ExtensionException, LogoException {
+		Object boundary = arg.get();
+
+		if(boundary instanceof Boolean) {
+			return (Boolean)boundary ? Bitstring.Boundary.ONE : Bitstring.Boundary.ZERO;
+		}
+		else if("periodic".equalsIgnoreCase(boundary.toString())) {
+			return Bitstring.Boundary.PERIODIC;
+		}
+		else {
+			throw new ExtensionException("Cellular automaton boundary must be true, false or \"periodic\", not "
+					+ boundary);
+		}
+	}
+
+}
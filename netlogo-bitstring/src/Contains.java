@@ -47,8 +47,9 @@ public class Contains implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0, 1);
-		return new Boolean(bs[0].contains(bs[1]));
+		NetLogoBitstring bitstring1 = BitstringExtension.getNetLogoBitstring(args, 0);
+		NetLogoBitstring bitstring2 = BitstringExtension.getNetLogoBitstring(args, 1);
+		return Boolean.valueOf(bitstring1.contains(bitstring2));
 	}
 
 
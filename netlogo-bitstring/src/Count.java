@@ -57,13 +57,13 @@ public class Count implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 
 		switch(mode) {
 		case ONE:
-			return new Double(bs[0].count1());
+			return BitstringExtension.number(bitstring.count1());
 		case ZERO:
-			return new Double(bs[0].count0());
+			return BitstringExtension.number(bitstring.count0());
 		default:
 			throw new RuntimeException("PANIC!");
 		}
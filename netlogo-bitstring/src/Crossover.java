@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -10,6 +11,8 @@ import org.nlogo.core.LogoList;
 import org.nlogo.core.Syntax;
 import org.nlogo.core.SyntaxJ;
 
+import uk.ac.hutton.bitstring.Bitstring;
+
 
 /**
  * <!-- Crossover -->
@@ -18,43 +21,105 @@ import org.nlogo.core.SyntaxJ;
  */
 public class Crossover implements Reporter {
 
+	public enum Mode {
+		POINT, POINTS, UNIFORM, MASK
+	};
+
+	private final Mode mode;
+
+	public Crossover(Mode mode) {
+		this.mode = mode;
+	}
+
 	@Override
 	public Syntax getSyntax() {
-		return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType(), Syntax.NumberType(), },
-																	Syntax.ListType());
+		switch(mode) {
+		case POINT:
+		case UNIFORM:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType(), Syntax.NumberType(), },
+																		Syntax.ListType());
+		case POINTS:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType(), Syntax.ListType(), },
+																		Syntax.ListType());
+		case MASK:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType(),
+																								Syntax.WildcardType(), }, Syntax.ListType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
 	}
 
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0, 1);
-		int bit = args[2].getIntValue();
+		NetLogoBitstring bitstring1 = BitstringExtension.getNetLogoBitstring(args, 0);
+		NetLogoBitstring bitstring2 = BitstringExtension.getNetLogoBitstring(args, 1);
 
-		if(bs[0].size() != bs[1].size()) {
-			throw new ExtensionException("Cannot crossover bitstrings of different sizes (" + bs[0].size() + " and "
-					+ bs[1].size() + ")");
+		if(bitstring1.size() != bitstring2.size()) {
+			throw new ExtensionException("Cannot crossover bitstrings of different sizes (" + bitstring1.size() + " and "
+					+ bitstring2.size() + ")");
 		}
-		
-		if(bit < 0 || bit > bs[0].size()) {
-			throw new ExtensionException("Crossover point outside the range [0, " + bs[0].size() + "]");
+
+		Bitstring xover[];
+
+		switch(mode) {
+		case POINT:
+			int bit = args[2].getIntValue();
+			if(bit < 0 || bit > bitstring1.size()) {
+				throw new ExtensionException("Crossover point outside the range [0, " + bitstring1.size() + "]");
+			}
+			xover = bitstring1.crossover(bitstring2, bit);
+			break;
+		case POINTS:
+			xover = bitstring1.crossover(bitstring2, getPoints(args[2].getList(), bitstring1.size()));
+			break;
+		case UNIFORM:
+			double prob = args[2].getDoubleValue();
+			if(prob < 0.0 || prob > 1.0) {
+				throw new ExtensionException("Probability of swapping bits (" + prob + ") outside the range [0, 1]");
+			}
+			xover = bitstring1.crossoverUniform(bitstring2, prob, BitstringExtension.getRandom(context));
+			break;
+		case MASK:
+			NetLogoBitstring mask = BitstringExtension.getNetLogoBitstring(args, 2);
+			if(mask.size() != bitstring1.size()) {
+				throw new ExtensionException("Cannot crossover bitstrings of size " + bitstring1.size()
+						+ " with a mask of size " + mask.size());
+			}
+			xover = bitstring1.crossover(bitstring2, mask);
+			break;
+		default:
+			throw new RuntimeException("PANIC!");
 		}
-		
+
 		List<NetLogoBitstring> nlxover = new LinkedList<NetLogoBitstring>();
 
-		if(bit == 0) {
-			nlxover.add(new NetLogoBitstring(bs[0]));
-			nlxover.add(new NetLogoBitstring(bs[1]));
-		}
-		else if(bit == bs[0].size()) {
-			nlxover.add(new NetLogoBitstring(bs[1]));
-			nlxover.add(new NetLogoBitstring(bs[0]));		
-		}
-		else {
-			Bitstring xover[] = bs[0].crossover(bs[1], bit);
+		nlxover.add(new NetLogoBitstring(xover[0]));
+		nlxover.add(new NetLogoBitstring(xover[1]));
 
-			nlxover.add(new NetLogoBitstring(xover[0]));
-			nlxover.add(new NetLogoBitstring(xover[1]));
-		}
 		return LogoList.fromJava(nlxover);
 	}
 
+	/**
+	 * <!-- getPoints -->
+	 * 
+	 * @param list
+	 * @param size
+	 * @return The numbers in <code>list</code>, sorted into ascending order
+	 * @throws ExtensionException
+	 *           if any of them are not positions in the range [0, size]
+	 */
+	private static int[] getPoints(LogoList list, int size) throws ExtensionException {
+		int points[] = new int[list.size()];
+
+		int i = 0;
+		for(Object obj: list.javaIterable()) {
+			if(!(obj instanceof Double) || (Double)obj < 0.0 || (Double)obj > size) {
+				throw new ExtensionException("Crossover points must be numbers in the range [0, " + size + "], not " + obj);
+			}
+			points[i++] = ((Double)obj).intValue();
+		}
+		Arrays.sort(points);
+		return points;
+	}
+
 }
@@ -41,8 +41,8 @@ public class Empty implements Reporter {
 
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		return new Boolean(bs[0].isEmpty());
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+		return Boolean.valueOf(bitstring.isEmpty());
 	}
 
 }
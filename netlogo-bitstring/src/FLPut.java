@@ -1,6 +1,3 @@
-import java.util.ArrayList;
-import java.util.Collections;
-
 import org.nlogo.api.Argument;
 import org.nlogo.api.Context;
 import org.nlogo.api.Reporter;
@@ -65,24 +62,16 @@ public class FLPut implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		
-		ArrayList<Boolean> list = bs[0].asList();
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 		
 		switch(mode) {
 		case FIRST:
-			Collections.reverse(list);
-			list.add(args[1].getBooleanValue());
-			Collections.reverse(list);
-			break;
+			return new NetLogoBitstring(bitstring.prepend(args[1].getBooleanValue()));
 		case LAST:
-			list.add(args[1].getBooleanValue());
-			break;
+			return new NetLogoBitstring(bitstring.append(args[1].getBooleanValue()));
 		default:
 			throw new RuntimeException("PANIC!");
 		}
-
-		return new NetLogoBitstring(list);
 	}
 
 }
@@ -6,6 +6,8 @@ import org.nlogo.api.LogoException;
 import org.nlogo.core.Syntax;
 import org.nlogo.core.SyntaxJ;
 
+import uk.ac.hutton.bitstring.Bitstring;
+
 
 /**
  * FromString.java, 
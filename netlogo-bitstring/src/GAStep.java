@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.Reporter;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+import uk.ac.hutton.bitstring.GeneticAlgorithm;
+
+/**
+ * GAStep.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- GAStep -->
+ * 
+ * One generation of a {@link GeneticAlgorithm}, configured by a list of
+ * <code>[name value]</code> pairs:
+ * 
+ * <ul>
+ * <li><code>"selection"</code>: <code>"tournament"</code> (the default),
+ * <code>"roulette"</code> or <code>"sus"</code></li>
+ * <li><code>"tournament-size"</code>: default 2</li>
+ * <li><code>"crossover"</code>: <code>"none"</code>, <code>"point"</code> (the
+ * default), <code>"two-point"</code> or <code>"uniform"</code></li>
+ * <li><code>"crossover-prob"</code>: default 0.7</li>
+ * <li><code>"mutation"</code>: probability of toggling each bit, by default 1
+ * over the length of the bitstrings</li>
+ * <li><code>"elites"</code>: default 0</li>
+ * </ul>
+ * 
+ * @author Gary Polhill
+ */
+public class GAStep implements Reporter {
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType(), Syntax.ListType(), Syntax.ListType() },
+																	Syntax.ListType());
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringList(args, 0);
+		double fitnesses[] = getFitnesses(args[1].getList());
+
+		if(bs.length == 0) {
+			throw new ExtensionException("Cannot evolve an empty list of bitstrings");
+		}
+
+		try {
+			GeneticAlgorithm ga = getGeneticAlgorithm(args[2].getList(), bs[0].size());
+			Bitstring next[] = ga.step(bs, fitnesses, BitstringExtension.getRandom(context));
+
+			List<NetLogoBitstring> nlnext = new ArrayList<NetLogoBitstring>(next.length);
+			for(int i = 0; i < next.length; i++) {
+				nlnext.add(new NetLogoBitstring(next[i]));
+			}
+			return LogoList.fromJava(nlnext);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- getFitnesses -->
+	 * 
+	 * @param list
+	 * @return The numbers in <code>list</code>
+	 * @throws ExtensionException
+	 */
+	static double[] getFitnesses(LogoList list) throws ExtensionException {
+		double fitnesses[] = new double[list.size()];
+
+		int i = 0;
+		for(Object obj: list.javaIterable()) {
+			if(!(obj instanceof Double)) {
+				throw new ExtensionException("Fitnesses must be numbers, not " + obj);
+			}
+			fitnesses[i++] = (Double)obj;
+		}
+		return fitnesses;
+	}
+
+	/**
+	 * <!-- getGeneticAlgorithm -->
+	 * 
+	 * @param options
+	 *          List of <code>[name value]</code> pairs
+	 * @param length
+	 *          Length of the bitstrings, for the default mutation probability
+	 * @return The genetic algorithm the options describe
+	 * @throws ExtensionException
+	 */
+	static GeneticAlgorithm getGeneticAlgorithm(LogoList options, int length) throws ExtensionException {
+		GeneticAlgorithm.Selection selection = GeneticAlgorithm.Selection.TOURNAMENT;
+		int tournamentSize = GeneticAlgorithm.DEFAULT_TOURNAMENT_SIZE;
+		GeneticAlgorithm.Recombination recombination = GeneticAlgorithm.Recombination.POINT;
+		double crossoverProb = GeneticAlgorithm.DEFAULT_CROSSOVER_PROB;
+		double mutationProb = length == 0 ? 0.0 : 1.0 / length;
+		int elites = 0;
+
+		for(Object obj: options.javaIterable()) {
+			if(!(obj instanceof LogoList) || ((LogoList)obj).size() != 2 || !(((LogoList)obj).get(0) instanceof String)) {
+				throw new ExtensionException("Options must be [name value] pairs, not " + obj);
+			}
+			String name = (String)((LogoList)obj).get(0);
+			Object value = ((LogoList)obj).get(1);
+
+			switch(name) {
+			case "selection":
+				selection = getOption(GeneticAlgorithm.Selection.values(), name, value);
+				break;
+			case "tournament-size":
+				tournamentSize = (int)getNumber(name, value);
+				break;
+			case "crossover":
+				recombination = getOption(GeneticAlgorithm.Recombination.values(), name, value);
+				break;
+			case "crossover-prob":
+				crossoverProb = getNumber(name, value);
+				break;
+			case "mutation":
+				mutationProb = getNumber(name, value);
+				break;
+			case "elites":
+				elites = (int)getNumber(name, value);
+				break;
+			default:
+				throw new ExtensionException("Unrecognised option \"" + name + "\"");
+			}
+		}
+
+		return new GeneticAlgorithm(selection, tournamentSize, recombination, crossoverProb, mutationProb, elites);
+	}
+
+	/**
+	 * <!-- getNumber -->
+	 * 
+	 * @param name
+	 * @param value
+	 * @return <code>value</code> as a number
+	 * @throws ExtensionException
+	 */
+	static double getNumber(String name, Object value) throws ExtensionException {
+		if(!(value instanceof Double)) {
+			throw new ExtensionException("Option \"" + name + "\" expects a number, not " + value);
+		}
+		return (Double)value;
+	}
+
+	/**
+	 * <!-- getOption -->
+	 * 
+	 * @param values
+	 *          The values of an enum
+	 * @param name
+	 * @param value
+	 * @return The value of the enum named by <code>value</code>, ignoring case
+	 *         and with <code>-</code> for <code>_</code>
+	 * @throws ExtensionException
+	 */
+	static <E extends Enum<E>> E getOption(E values[], String name, Object value) throws ExtensionException {
+		if(value instanceof String) {
+			for(E e: values) {
+				if(e.name().equalsIgnoreCase(((String)value).replace('-', '_'))) {
+					return e;
+				}
+			}
+		}
+		throw new ExtensionException("Option \"" + name + "\" cannot be " + value);
+	}
+
+}
@@ -66,7 +66,7 @@ public class GetBit implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 
 		int pos;
 
@@ -78,16 +78,16 @@ public class GetBit implements Reporter {
 			pos = 0;
 			break;
 		case LAST:
-			pos = bs[0].size() - 1;
+			pos = bitstring.size() - 1;
 			break;
 		default:
 			throw new RuntimeException("PANIC!");
 		}
 
-		if(pos < 0 || pos >= bs[0].size()) {
-			throw new ExtensionException("Position " + pos + " is outside the range [0, " + bs[0].size() + "[");
+		if(pos < 0 || pos >= bitstring.size()) {
+			throw new ExtensionException("Position " + pos + " is outside the range [0, " + bitstring.size() + "[");
 		}
-		return new Boolean(bs[0].get(pos));
+		return Boolean.valueOf(bitstring.get(pos));
 	}
 
 
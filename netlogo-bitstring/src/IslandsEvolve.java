@@ -0,0 +1,89 @@
+import java.util.function.ToDoubleFunction;
+
+import org.nlogo.api.AnonymousReporter;
+import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+/**
+ * IslandsEvolve.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- IslandsEvolve -->
+ * 
+ * Evolve an island model for a number of generations. The fitness is either
+ * an anonymous reporter, which is run in NetLogo's thread, or a target
+ * bitstring, in which case the fitness is the number of bits matching it and
+ * is computed in parallel.
+ * 
+ * @author Gary Polhill
+ */
+public class IslandsEvolve implements Command {
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType(), Syntax.NumberType() });
+	}
+
+	/**
+	 * <!-- perform -->
+	 * 
+	 * @see org.nlogo.api.Command#perform(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public void perform(Argument[] args, final Context context) throws ExtensionException, LogoException {
+		NetLogoIslands islands = IslandsOp.getNetLogoIslands(args, 0);
+		Object obj = args[1].get();
+		int generations = args[2].getIntValue();
+
+		try {
+			if(obj instanceof AnonymousReporter) {
+				final AnonymousReporter reporter = (AnonymousReporter)obj;
+				ToDoubleFunction<Bitstring> fitness = bitstring -> {
+					Object result = reporter.report(context, new Object[] { new NetLogoBitstring(bitstring) });
+					if(!(result instanceof Double)) {
+						throw new IllegalArgumentException("Fitness reporter returned " + result + " rather than a number");
+					}
+					return (Double)result;
+				};
+				islands.evolve(generations, fitness, false, BitstringExtension.getRandom(context));
+			}
+			else if(obj instanceof NetLogoBitstring) {
+				final Bitstring target = BitstringExtension.checkReleased((NetLogoBitstring)obj);
+				islands.evolve(generations, bitstring -> bitstring.match(target), BitstringExtension.getRandom(context));
+			}
+			else {
+				throw new ExtensionException("Expected an anonymous reporter or a bitstring as the fitness, but got a "
+						+ obj.getClass().getSimpleName());
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.Reporter;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+import uk.ac.hutton.bitstring.GeneticAlgorithm;
+import uk.ac.hutton.bitstring.IslandModel;
+
+/**
+ * IslandsOp.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- IslandsOp -->
+ * 
+ * Reporters creating {@link NetLogoIslands} and looking at their islands. As
+ * well as the options of {@link GAStep}, an island model takes the options
+ * <code>"topology"</code> (<code>"ring"</code>, the default,
+ * <code>"full"</code> or <code>"random"</code>), <code>"interval"</code>
+ * (default 10) and <code>"migrants"</code> (default 1).
+ * 
+ * @author Gary Polhill
+ */
+public class IslandsOp implements Reporter {
+
+	protected enum Mode {
+		NEW, POPULATIONS, GENERATION
+	};
+
+	private final Mode mode;
+
+	public IslandsOp(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case NEW:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType(), Syntax.ListType() }, Syntax.WildcardType());
+		case POPULATIONS:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.ListType());
+		case GENERATION:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.NumberType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		if(mode == Mode.NEW) {
+			return make(args[0].getList(), args[1].getList());
+		}
+		NetLogoIslands islands = getNetLogoIslands(args, 0);
+
+		switch(mode) {
+		case POPULATIONS:
+			List<LogoList> populations = new ArrayList<LogoList>(islands.size());
+			for(int i = 0; i < islands.size(); i++) {
+				Bitstring island[] = islands.island(i);
+				List<NetLogoBitstring> population = new ArrayList<NetLogoBitstring>(island.length);
+				for(int j = 0; j < island.length; j++) {
+					population.add(new NetLogoBitstring(island[j]));
+				}
+				populations.add(LogoList.fromJava(population));
+			}
+			return LogoList.fromJava(populations);
+		case GENERATION:
+			return BitstringExtension.number(islands.getGeneration());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- make -->
+	 * 
+	 * @param populations
+	 *          List of lists of bitstrings, one for each island
+	 * @param options
+	 *          List of <code>[name value]</code> pairs
+	 * @return The island model
+	 * @throws ExtensionException
+	 */
+	private static NetLogoIslands make(LogoList populations, LogoList options) throws ExtensionException {
+		Bitstring islands[][] = new Bitstring[populations.size()][];
+
+		int i = 0;
+		for(Object obj: populations.javaIterable()) {
+			if(!(obj instanceof LogoList)) {
+				throw new ExtensionException("Expected a list of lists of bitstrings, but island " + (i + 1) + " is " + obj);
+			}
+			LogoList population = (LogoList)obj;
+			islands[i] = new Bitstring[population.size()];
+			int j = 0;
+			for(Object member: population.javaIterable()) {
+				if(!(member instanceof NetLogoBitstring)) {
+					throw new ExtensionException("Expected a list of lists of bitstrings, but element " + (j + 1)
+							+ " of island " + (i + 1) + " is " + member);
+				}
+				islands[i][j++] = BitstringExtension.checkReleased((NetLogoBitstring)member);
+			}
+			i++;
+		}
+
+		IslandModel.Topology topology = IslandModel.Topology.RING;
+		int interval = IslandModel.DEFAULT_INTERVAL;
+		int migrants = IslandModel.DEFAULT_MIGRANTS;
+		List<Object> gaOptions = new ArrayList<Object>();
+
+		for(Object obj: options.javaIterable()) {
+			Object name = obj instanceof LogoList && ((LogoList)obj).size() == 2 ? ((LogoList)obj).get(0) : null;
+			Object value = name == null ? null : ((LogoList)obj).get(1);
+
+			if("topology".equals(name)) {
+				topology = GAStep.getOption(IslandModel.Topology.values(), "topology", value);
+			}
+			else if("interval".equals(name)) {
+				interval = (int)GAStep.getNumber("interval", value);
+			}
+			else if("migrants".equals(name)) {
+				migrants = (int)GAStep.getNumber("migrants", value);
+			}
+			else {
+				gaOptions.add(obj);
+			}
+		}
+
+		try {
+			int length = islands.length > 0 && islands[0].length > 0 ? islands[0][0].size() : 0;
+			GeneticAlgorithm ga = GAStep.getGeneticAlgorithm(LogoList.fromJava(gaOptions), length);
+			return new NetLogoIslands(islands, ga, topology, interval, migrants);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- getNetLogoIslands -->
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The island model at argument <code>pos</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static NetLogoIslands getNetLogoIslands(Argument args[], int pos) throws ExtensionException, LogoException {
+		Object obj = args[pos].get();
+
+		if(obj instanceof NetLogoIslands) {
+			return (NetLogoIslands)obj;
+		}
+		throw new ExtensionException("Expected an island model as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
+
+}
@@ -42,16 +42,19 @@ public class Jitter implements Reporter {
 
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		
-		double probs[] = new double[bs[0].size()];
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+
+		if(args.length == 2) {
+			return new NetLogoBitstring(bitstring.jitter(args[1].getDoubleValue(), BitstringExtension.getRandom(context)));
+		}
+		double probs[] = new double[bitstring.size()];
 		int j = 1;
 		for(int i = 0; i < probs.length; i++) {
 			probs[i] = args[j].getDoubleValue();
 			j++;
 			if(j >= args.length) j = 1;
 		}
-		return new NetLogoBitstring(bs[0].jitter(probs));
+		return new NetLogoBitstring(bitstring.jitter(probs, BitstringExtension.getRandom(context)));
 	}
 
 }
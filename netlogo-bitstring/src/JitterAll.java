@@ -0,0 +1,64 @@
+import org.nlogo.api.Agent;
+import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Population;
+
+/**
+ * JitterAll.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- JitterAll -->
+ * 
+ * Command to jitter the bitstring in a named variable of every agent in an
+ * agentset, putting the result back in the variable. Each agent's bitstring
+ * is jittered with its own random number stream, so the results are the same
+ * however the work is split between threads.
+ * 
+ * @author Gary Polhill
+ */
+public class JitterAll implements Command {
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.commandSyntax(new int[] { Syntax.AgentsetType(), Syntax.StringType(), Syntax.NumberType() });
+	}
+
+	/**
+	 * <!-- perform -->
+	 * 
+	 * @see org.nlogo.api.Command#perform(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public void perform(Argument[] args, Context context) throws ExtensionException, LogoException {
+		Agent agents[] = AgentVariable.agents(args[0].getAgentSet());
+		AgentVariable var = new AgentVariable(context.world(), args[1].getString());
+		Population population = new Population(var.get(agents));
+		Population jittered = population.jitter(args[2].getDoubleValue(), BitstringExtension.getRandom(context));
+		var.set(agents, jittered.toArray());
+	}
+
+}
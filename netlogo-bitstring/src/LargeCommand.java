@@ -0,0 +1,87 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+/**
+ * LargeCommand.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- LargeCommand -->
+ * 
+ * Commands changing a {@link NetLogoLargeBitstring} in place.
+ * 
+ * @author Gary Polhill
+ */
+public class LargeCommand implements Command {
+
+	protected enum Mode {
+		SET, FLUSH
+	};
+
+	private final Mode mode;
+
+	public LargeCommand(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case SET:
+			return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.BooleanType() });
+		case FLUSH:
+			return SyntaxJ.commandSyntax(new int[] { Syntax.WildcardType() });
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- perform -->
+	 * 
+	 * @see org.nlogo.api.Command#perform(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public void perform(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoLargeBitstring large = LargeOp.getNetLogoLargeBitstring(args, 0);
+
+		try {
+			switch(mode) {
+			case SET:
+				large.set(LargeOp.getPosition(args[1]), args[2].getBooleanValue());
+				break;
+			case FLUSH:
+				large.force();
+				break;
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.LargeBitstring;
+
+/**
+ * LargeOp.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- LargeOp -->
+ * 
+ * Reporters creating and operating on {@link NetLogoLargeBitstring}s.
+ * Positions are NetLogo numbers, which can be any whole number up to
+ * 2<sup>53</sup>.
+ * 
+ * @author Gary Polhill
+ */
+public class LargeOp implements Reporter {
+
+	protected enum Mode {
+		CREATE, SAVE, OPEN, LENGTH, GET, COUNT1, COUNT1_RANGE, SUB, AND, OR
+	};
+
+	/**
+	 * Largest position that NetLogo numbers can represent exactly
+	 */
+	public static final double MAX_POSITION = (double)(1L << 53);
+
+	private final Mode mode;
+
+	public LargeOp(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case CREATE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.StringType(), Syntax.NumberType() }, Syntax.WildcardType());
+		case SAVE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.StringType(), Syntax.WildcardType() },
+																		Syntax.WildcardType());
+		case OPEN:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.StringType() }, Syntax.WildcardType());
+		case LENGTH:
+		case COUNT1:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.NumberType());
+		case GET:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() },
+																		Syntax.BooleanType());
+		case COUNT1_RANGE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.NumberType() },
+																		Syntax.NumberType());
+		case SUB:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.NumberType() },
+																		Syntax.WildcardType());
+		case AND:
+		case OR:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType(), Syntax.StringType() },
+																		Syntax.WildcardType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		try {
+			switch(mode) {
+			case CREATE:
+				return new NetLogoLargeBitstring(LargeBitstring.create(getPath(args[0], context), getPosition(args[1])));
+			case SAVE:
+				return new NetLogoLargeBitstring(LargeBitstring.create(getPath(args[0], context),
+						BitstringExtension.getNetLogoBitstring(args, 1)));
+			case OPEN:
+				return new NetLogoLargeBitstring(LargeBitstring.open(getPath(args[0], context), true));
+			default:
+				break;
+			}
+
+			NetLogoLargeBitstring large = getNetLogoLargeBitstring(args, 0);
+			switch(mode) {
+			case LENGTH:
+				return Double.valueOf(large.length());
+			case GET:
+				return Boolean.valueOf(large.get(getPosition(args[1])));
+			case COUNT1:
+				return Double.valueOf(large.count1());
+			case COUNT1_RANGE:
+				return Double.valueOf(large.count1(getPosition(args[1]), getPosition(args[2])));
+			case SUB:
+				return new NetLogoBitstring(large.sub(getPosition(args[1]), getPosition(args[2])));
+			case AND:
+				return new NetLogoLargeBitstring(large.and(getNetLogoLargeBitstring(args, 1), getPath(args[2], context)));
+			case OR:
+				return new NetLogoLargeBitstring(large.or(getNetLogoLargeBitstring(args, 1), getPath(args[2], context)));
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IOException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- getPath -->
+	 * 
+	 * @param arg
+	 * @param context
+	 * @return The file named by the argument, relative to the model's directory
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static Path getPath(Argument arg, Context context) throws ExtensionException, LogoException {
+		String file = arg.getString();
+
+		try {
+			return Paths.get(context.attachCurrentDirectory(file));
+		}
+		catch(MalformedURLException e) {
+			throw new ExtensionException("Invalid file name " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- getPosition -->
+	 * 
+	 * @param arg
+	 * @return The argument as a position or length in a large bitstring
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static long getPosition(Argument arg) throws ExtensionException, LogoException {
+		double value = arg.getDoubleValue();
+
+		if(value != Math.rint(value) || Math.abs(value) > MAX_POSITION) {
+			throw new ExtensionException("Position " + value + " is not a whole number no bigger than 2^53");
+		}
+		return (long)value;
+	}
+
+	/**
+	 * <!-- getNetLogoLargeBitstring -->
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The large bitstring at argument <code>pos</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static NetLogoLargeBitstring getNetLogoLargeBitstring(Argument args[], int pos) throws ExtensionException,
+			LogoException {
+		Object obj = args[pos].get();
+
+		if(obj instanceof NetLogoLargeBitstring) {
+			return (NetLogoLargeBitstring)obj;
+		}
+		throw new ExtensionException("Expected a large bitstring as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
+
+}
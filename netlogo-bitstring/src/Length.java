@@ -15,8 +15,8 @@ public class Length implements Reporter {
 
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		return bs[0].size();
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+		return BitstringExtension.number(bitstring.size());
 	}
 
 }
@@ -0,0 +1,131 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Ternary;
+
+
+/**
+ * MakeTernary.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- MakeTernary -->
+ * 
+ * @author Gary Polhill
+ */
+public class MakeTernary implements Reporter {
+
+	protected enum Mode {
+		PATTERN, INDEX
+	};
+
+	private final Mode mode;
+
+	public MakeTernary(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case PATTERN:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.RepeatableType() | Syntax.WildcardType() },
+																		Syntax.WildcardType(), 1);
+		case INDEX:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType() }, Syntax.WildcardType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		switch(mode) {
+		case PATTERN:
+			if(args.length == 1) {
+				String str = args[0].get().toString();
+				if(!Ternary.is10Hash(str)) {
+					throw new ExtensionException("String \"" + str
+							+ "\" contains one or more characters not interpretable as 1, 0 or # (don't care)");
+				}
+				return new NetLogoTernary(str);
+			}
+			else if(args.length == 2) {
+				NetLogoBitstring bitstring1 = BitstringExtension.getNetLogoBitstring(args, 0);
+				NetLogoBitstring bitstring2 = BitstringExtension.getNetLogoBitstring(args, 1);
+				if(bitstring1.size() != bitstring2.size()) {
+					throw new ExtensionException("Cannot make a ternary pattern from value and care bitstrings of different "
+							+ "sizes (" + bitstring1.size() + " and " + bitstring2.size() + ")");
+				}
+				return new NetLogoTernary(bitstring1, bitstring2);
+			}
+			else {
+				throw new ExtensionException("Ternary expects a string, or a value and a care bitstring, but got "
+						+ args.length + " arguments");
+			}
+		case INDEX:
+			return new NetLogoTernaryIndex(getTernaryList(args[0].getList()));
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- getTernaryList -->
+	 * 
+	 * @param list
+	 * @return The elements of <code>list</code>, which must be a non-empty list
+	 *         of ternary patterns all of the same length
+	 * @throws ExtensionException
+	 */
+	protected static Ternary[] getTernaryList(LogoList list) throws ExtensionException {
+		Ternary patterns[] = new Ternary[list.size()];
+
+		if(patterns.length == 0) {
+			throw new ExtensionException("Cannot index an empty list of ternary patterns");
+		}
+		int i = 0;
+		for(Object obj: list.javaIterable()) {
+			if(!(obj instanceof NetLogoTernary)) {
+				throw new ExtensionException("Expected a list of ternary patterns, but element " + (i + 1) + " is a "
+						+ obj.getClass().getSimpleName());
+			}
+			patterns[i] = (NetLogoTernary)obj;
+			if(patterns[i].size() != patterns[0].size()) {
+				throw new ExtensionException("Cannot index ternary patterns of different sizes (" + patterns[0].size()
+						+ " and " + patterns[i].size() + ")");
+			}
+			i++;
+		}
+		return patterns;
+	}
+
+}
@@ -48,14 +48,15 @@ public class Match implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0, 1);
+		NetLogoBitstring bitstring1 = BitstringExtension.getNetLogoBitstring(args, 0);
+		NetLogoBitstring bitstring2 = BitstringExtension.getNetLogoBitstring(args, 1);
 
-		if(bs[0].size() != bs[1].size()) {
-			throw new ExtensionException("Cannot match bitstrings of different sizes (" + bs[0].size() + " and "
-					+ bs[1].size() + ")");
+		if(bitstring1.size() != bitstring2.size()) {
+			throw new ExtensionException("Cannot match bitstrings of different sizes (" + bitstring1.size() + " and "
+					+ bitstring2.size() + ")");
 		}
 
-		return new Double(bs[0].match(bs[1]));
+		return BitstringExtension.number(bitstring1.match(bitstring2));
 	}
 
 }
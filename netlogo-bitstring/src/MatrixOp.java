@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.BitMatrix;
+import uk.ac.hutton.bitstring.Bitstring;
+
+
+/**
+ * MatrixOp.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- MatrixOp -->
+ * 
+ * Reporters making and operating on {@link NetLogoBitMatrix}es.
+ * 
+ * @author Gary Polhill
+ */
+public class MatrixOp implements Reporter {
+
+	protected enum Mode {
+		FROM_ROWS, TO_ROWS, GET, ROW, TRANSPOSE, PRODUCT, GF2_PRODUCT, CLOSURE, ROW_COUNTS, COLUMN_COUNTS, RANK, SOLVE
+	};
+
+	private final Mode mode;
+
+	public MatrixOp(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case FROM_ROWS:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType() }, Syntax.WildcardType());
+		case TO_ROWS:
+		case ROW_COUNTS:
+		case COLUMN_COUNTS:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.ListType());
+		case GET:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType(), Syntax.NumberType() },
+																		Syntax.BooleanType());
+		case ROW:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() }, Syntax.WildcardType());
+		case TRANSPOSE:
+		case CLOSURE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.WildcardType());
+		case PRODUCT:
+		case GF2_PRODUCT:
+		case SOLVE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType() },
+																		Syntax.WildcardType());
+		case RANK:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.NumberType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		try {
+			if(mode == Mode.FROM_ROWS) {
+				return new NetLogoBitMatrix(BitMatrix.fromRows(BitstringExtension.getNetLogoBitstringList(args, 0)));
+			}
+
+			NetLogoBitMatrix matrix = getNetLogoBitMatrix(args, 0);
+
+			switch(mode) {
+			case TO_ROWS:
+				Bitstring rows[] = matrix.toRows();
+				List<NetLogoBitstring> rowList = new ArrayList<NetLogoBitstring>(rows.length);
+				for(int i = 0; i < rows.length; i++) {
+					rowList.add(new NetLogoBitstring(rows[i]));
+				}
+				return LogoList.fromJava(rowList);
+			case GET:
+				return Boolean.valueOf(matrix.get(args[1].getIntValue(), args[2].getIntValue()));
+			case ROW:
+				return new NetLogoBitstring(matrix.row(args[1].getIntValue()));
+			case TRANSPOSE:
+				return new NetLogoBitMatrix(matrix.transpose());
+			case PRODUCT:
+				return new NetLogoBitMatrix(matrix.product(getNetLogoBitMatrix(args, 1)));
+			case GF2_PRODUCT:
+				return new NetLogoBitMatrix(matrix.gf2Product(getNetLogoBitMatrix(args, 1)));
+			case CLOSURE:
+				return new NetLogoBitMatrix(matrix.closure());
+			case ROW_COUNTS:
+				return toLogoList(matrix.rowCounts());
+			case COLUMN_COUNTS:
+				return toLogoList(matrix.columnCounts());
+			case RANK:
+				return BitstringExtension.number(matrix.rank());
+			case SOLVE:
+				Bitstring x = matrix.solve(BitstringExtension.getNetLogoBitstring(args, 1));
+				return x == null ? Boolean.FALSE : new NetLogoBitstring(x);
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * <!-- toLogoList -->
+	 * 
+	 * @param counts
+	 * @return <code>counts</code> as a NetLogo list
+	 */
+	private static LogoList toLogoList(int counts[]) {
+		List<Double> countList = new ArrayList<Double>(counts.length);
+
+		for(int i = 0; i < counts.length; i++) {
+			countList.add(BitstringExtension.number(counts[i]));
+		}
+		return LogoList.fromJava(countList);
+	}
+
+	/**
+	 * <!-- getNetLogoBitMatrix -->
+	 * 
+	 * @param args
+	 * @param pos
+	 * @return The bit-matrix at argument <code>pos</code>
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	static NetLogoBitMatrix getNetLogoBitMatrix(Argument args[], int pos) throws ExtensionException, LogoException {
+		Object obj = args[pos].get();
+
+		if(obj instanceof NetLogoBitMatrix) {
+			return (NetLogoBitMatrix)obj;
+		}
+		throw new ExtensionException("Expected a bit-matrix as argument " + (pos + 1) + " but got a "
+				+ obj.getClass().getSimpleName());
+	}
+
+}
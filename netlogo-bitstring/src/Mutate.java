@@ -42,15 +42,15 @@ public class Mutate implements Reporter {
 
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 
 		int bit = args[1].getIntValue();
 
-		if(bit < 0 || bit >= bs[0].size()) {
-			throw new ExtensionException("Bit to mutate (" + bit + ") outside range [0, " + bs[0].size() + "[");
+		if(bit < 0 || bit >= bitstring.size()) {
+			throw new ExtensionException("Bit to mutate (" + bit + ") outside range [0, " + bitstring.size() + "[");
 		}
 
-		return new NetLogoBitstring(bs[0].mutate(bit));
+		return new NetLogoBitstring(bitstring.mutate(bit, BitstringExtension.getRandom(context)));
 	}
 
 
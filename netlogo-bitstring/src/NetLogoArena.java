@@ -0,0 +1,96 @@
+import java.util.HashSet;
+import java.util.Set;
+
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.Arena;
+
+/**
+ * NetLogoArena.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoArena -->
+ * 
+ * An {@link Arena} as a NetLogo value. Arenas that have not been released are
+ * kept in a registry so that <code>clear-all</code> can release them.
+ * Bitstrings in an arena are exported as their bits, and imported onto the
+ * heap, so an arena is exported as nothing more than its type, and imported
+ * as a new, empty one.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoArena extends Arena implements ExtensionObject {
+
+	public static final String TYPE_NAME = "arena";
+
+	private static Set<NetLogoArena> arenas = new HashSet<NetLogoArena>();
+
+	public NetLogoArena() {
+		super();
+		synchronized(NetLogoArena.class) {
+			arenas.add(this);
+		}
+	}
+
+	/**
+	 * <!-- releaseAll -->
+	 * 
+	 * Release all the arenas that have not already been released
+	 */
+	protected static void releaseAll() {
+		Set<NetLogoArena> released;
+		synchronized(NetLogoArena.class) {
+			released = arenas;
+			arenas = new HashSet<NetLogoArena>();
+		}
+		for(NetLogoArena arena: released) {
+			arena.release();
+		}
+	}
+
+	@Override
+	public void release() {
+		synchronized(NetLogoArena.class) {
+			arenas.remove(this);
+		}
+		super.release();
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return "";
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return this == other;
+	}
+
+}
@@ -0,0 +1,90 @@
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.BitMatrix;
+
+/**
+ * NetLogoBitMatrix.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoBitMatrix -->
+ * 
+ * A {@link BitMatrix} as a NetLogo value. Like {@link NetLogoBitboard}, bit
+ * matrices are immutable values kept in no registry, and are always exported
+ * in full.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoBitMatrix extends BitMatrix implements ExtensionObject {
+
+	public static final String TYPE_NAME = "bit-matrix";
+
+	public NetLogoBitMatrix(BitMatrix matrix) {
+		super(matrix);
+	}
+
+	private NetLogoBitMatrix(int rows, int cols, long words[]) {
+		super(rows, cols, words);
+	}
+
+	/**
+	 * <!-- manifest -->
+	 * 
+	 * @param value
+	 *          The number of rows and columns and the rows of a matrix, as
+	 *          exported by {@link #dump(boolean, boolean, boolean)}
+	 * @return The matrix
+	 * @throws ExtensionException
+	 */
+	public static NetLogoBitMatrix manifest(String value) throws ExtensionException {
+		String strs[] = value.trim().split("\\s+");
+
+		if(strs.length < 2) {
+			throw new ExtensionException("Cannot construct a bit-matrix from string " + value);
+		}
+		try {
+			return new NetLogoBitMatrix(Integer.parseInt(strs[0]), Integer.parseInt(strs[1]), parse(strs));
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException("Cannot construct a bit-matrix from string " + value + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return super.equals(other);
+	}
+
+}
@@ -0,0 +1,90 @@
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.Bitboard;
+
+/**
+ * NetLogoBitboard.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoBitboard -->
+ * 
+ * A {@link Bitboard} as a NetLogo value. Like {@link NetLogoTernary}, bitboards
+ * are immutable values kept in no registry, and are always exported in full.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoBitboard extends Bitboard implements ExtensionObject {
+
+	public static final String TYPE_NAME = "board";
+
+	public NetLogoBitboard(Bitboard bitboard) {
+		super(bitboard);
+	}
+
+	NetLogoBitboard(int width, int height, boolean wrapX, boolean wrapY, long words[]) {
+		super(width, height, wrapX, wrapY, words);
+	}
+
+	/**
+	 * <!-- manifest -->
+	 * 
+	 * @param value
+	 *          The width, height, horizontal and vertical wrapping and rows of a
+	 *          bitboard, as exported by {@link #dump(boolean, boolean, boolean)}
+	 * @return The bitboard
+	 * @throws ExtensionException
+	 */
+	public static NetLogoBitboard manifest(String value) throws ExtensionException {
+		String strs[] = value.trim().split("\\s+");
+
+		if(strs.length < 4) {
+			throw new ExtensionException("Cannot construct a bitboard from string " + value);
+		}
+		try {
+			return new NetLogoBitboard(Integer.parseInt(strs[0]), Integer.parseInt(strs[1]),
+					Boolean.parseBoolean(strs[2]), Boolean.parseBoolean(strs[3]), parse(strs));
+		}
+		catch(IllegalArgumentException e) {
+			throw new ExtensionException("Cannot construct a bitboard from string " + value + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return super.equals(other);
+	}
+
+}
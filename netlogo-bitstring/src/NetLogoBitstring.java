@@ -5,6 +5,8 @@ import java.util.Map;
 import org.nlogo.api.ExtensionException;
 import org.nlogo.core.ExtensionObject;
 
+import uk.ac.hutton.bitstring.Bitstring;
+
 
 public class NetLogoBitstring extends Bitstring implements ExtensionObject {
 
@@ -12,11 +14,21 @@ public class NetLogoBitstring extends Bitstring implements ExtensionObject {
 
 	private static Map<Long, NetLogoBitstring> bitstrings = new HashMap<Long, NetLogoBitstring>();
 
+	/**
+	 * Copies of <code>next</code> and the size of <code>bitstrings</code> for
+	 * {@link RegistryEvent}, which reads them from the flight recorder's thread
+	 */
+	private static volatile long made = 0;
+
+	private static volatile int registered = 0;
+
 	private final long id;
 
 	protected static void reset() {
 		next = 0;
 		bitstrings = new HashMap<Long, NetLogoBitstring>();
+		made = 0;
+		registered = 0;
 	}
 
 	protected static NetLogoBitstring manifest(String id_value) throws ExtensionException {
@@ -44,53 +56,77 @@ public class NetLogoBitstring extends Bitstring implements ExtensionObject {
 		return bitstrings.values();
 	}
 
+	/**
+	 * <!-- made -->
+	 * 
+	 * @return The number of bitstrings made since the registry was last reset
+	 */
+	protected static long made() {
+		return made;
+	}
+
+	/**
+	 * <!-- registered -->
+	 * 
+	 * @return The number of bitstrings in the registry
+	 */
+	protected static int registered() {
+		return registered;
+	}
+
+	private static void register(NetLogoBitstring bitstring) {
+		bitstrings.put(bitstring.id, bitstring);
+		made = next;
+		registered = bitstrings.size();
+	}
+
 	public NetLogoBitstring(int length) {
 		super(length);
 		this.id = next;
-		bitstrings.put(this.id, this);
 		next++;
+		register(this);
 	}
 
 	public NetLogoBitstring(int length, boolean set) {
 		super(length, set);
 		this.id = next;
-		bitstrings.put(this.id, this);
 		next++;
+		register(this);
 	}
 
 	public NetLogoBitstring(Bitstring bitstring) {
 		super(bitstring);
 		this.id = next;
-		bitstrings.put(this.id, this);
 		next++;
+		register(this);
 	}
 
 	public NetLogoBitstring(String string) {
 		super(string);
 		this.id = next;
-		bitstrings.put(this.id, this);
 		next++;
+		register(this);
 	}
 
 	private NetLogoBitstring(long id, String string) {
 		super(string);
 		this.id = id;
-		bitstrings.put(this.id, this);
 		next = StrictMath.max(next, id + 1);
+		register(this);
 	}
 
 	public NetLogoBitstring(int length, double probability) {
 		super(length, probability);
 		this.id = next;
-		bitstrings.put(this.id, this);
 		next++;
+		register(this);
 	}
 
 	public NetLogoBitstring(Iterable<Boolean> input) {
 		super(input);
 		this.id = next;
-		bitstrings.put(this.id, this);
 		next++;
+		register(this);
 	}
 
 	/**
@@ -118,7 +154,7 @@ public class NetLogoBitstring extends Bitstring implements ExtensionObject {
 			}
 		}
 		if(!(reference && exporting)) {
-			buff.append(this.toString());
+			buff.append(isReleased() ? "released" : this.toString());
 		}
 
 		return buff.toString();
@@ -0,0 +1,83 @@
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+/**
+ * NetLogoBitstringBuilder.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoBitstringBuilder -->
+ * 
+ * A {@link Bitstring.Builder} as a NetLogo value. Unlike bitstrings, builders
+ * are changed in place by the <code>builder-...</code> commands, and are
+ * exported as the bits they currently hold.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoBitstringBuilder extends Bitstring.Builder implements ExtensionObject {
+
+	public static final String TYPE_NAME = "builder";
+
+	public NetLogoBitstringBuilder() {
+		super();
+	}
+
+	public NetLogoBitstringBuilder(Bitstring bitstring) {
+		super(bitstring);
+	}
+
+	/**
+	 * <!-- manifest -->
+	 * 
+	 * @param value
+	 *          The bits of a builder, as exported by
+	 *          {@link #dump(boolean, boolean, boolean)}
+	 * @return A builder holding those bits
+	 * @throws ExtensionException
+	 */
+	public static NetLogoBitstringBuilder manifest(String value) throws ExtensionException {
+		if(!Bitstring.EMPTY_BITSTRING_STRING.equals(value) && !Bitstring.is10(value)) {
+			throw new ExtensionException("Cannot construct a bitstring builder from string " + value);
+		}
+		return new NetLogoBitstringBuilder(new Bitstring(value));
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return other instanceof Bitstring.Builder && toString().equals(other.toString());
+	}
+
+}
@@ -0,0 +1,108 @@
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.Bitstring;
+import uk.ac.hutton.bitstring.GeneticAlgorithm;
+import uk.ac.hutton.bitstring.IslandModel;
+
+/**
+ * NetLogoIslands.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoIslands -->
+ * 
+ * An {@link IslandModel} as a NetLogo object, exported with all its settings
+ * and the bitstrings on its islands.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoIslands extends IslandModel implements ExtensionObject {
+
+	public static final String TYPE_NAME = "islands";
+
+	public NetLogoIslands(Bitstring islands[][], GeneticAlgorithm ga, Topology topology, int interval, int migrants) {
+		super(islands, ga, topology, interval, migrants);
+	}
+
+	private NetLogoIslands(Bitstring islands[][], GeneticAlgorithm ga, Topology topology, int interval, int migrants,
+			int generation) {
+		super(islands, ga, topology, interval, migrants, generation);
+	}
+
+	/**
+	 * <!-- manifest -->
+	 * 
+	 * @param value
+	 *          An island model as exported by
+	 *          {@link #dump(boolean, boolean, boolean)}
+	 * @return The island model
+	 * @throws ExtensionException
+	 */
+	public static NetLogoIslands manifest(String value) throws ExtensionException {
+		String strs[] = value.trim().split("\\s+");
+
+		try {
+			int generation = Integer.parseInt(strs[0]);
+			int interval = Integer.parseInt(strs[1]);
+			int migrants = Integer.parseInt(strs[2]);
+			Topology topology = Topology.valueOf(strs[3]);
+			GeneticAlgorithm ga = new GeneticAlgorithm(GeneticAlgorithm.Selection.valueOf(strs[4]),
+					Integer.parseInt(strs[5]), GeneticAlgorithm.Recombination.valueOf(strs[6]),
+					Double.parseDouble(strs[7]), Double.parseDouble(strs[8]), Integer.parseInt(strs[9]));
+
+			Bitstring islands[][] = new Bitstring[Integer.parseInt(strs[10])][];
+			int pos = 11 + islands.length;
+			for(int i = 0; i < islands.length; i++) {
+				islands[i] = new Bitstring[Integer.parseInt(strs[11 + i])];
+				for(int j = 0; j < islands[i].length; j++) {
+					islands[i][j] = new Bitstring(strs[pos++]);
+				}
+			}
+			if(pos != strs.length) {
+				throw new IllegalArgumentException("expected " + pos + " fields but found " + strs.length);
+			}
+			return new NetLogoIslands(islands, ga, topology, interval, migrants, generation);
+		}
+		catch(IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new ExtensionException("Cannot construct an island model from string " + value + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return this == other;
+	}
+
+}
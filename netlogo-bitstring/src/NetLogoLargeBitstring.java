@@ -0,0 +1,84 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.nlogo.api.ExtensionException;
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.LargeBitstring;
+
+/**
+ * NetLogoLargeBitstring.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoLargeBitstring -->
+ * 
+ * A {@link LargeBitstring} as a NetLogo value. Large bitstrings are changed in
+ * place by <code>large-set</code>, and are exported as the path of their file,
+ * which is opened again when they are imported.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoLargeBitstring extends LargeBitstring implements ExtensionObject {
+
+	public static final String TYPE_NAME = "large";
+
+	public NetLogoLargeBitstring(LargeBitstring bitstring) {
+		super(bitstring);
+	}
+
+	/**
+	 * <!-- manifest -->
+	 * 
+	 * @param value
+	 *          The path of the file of a large bitstring, as exported by
+	 *          {@link #dump(boolean, boolean, boolean)}
+	 * @return The large bitstring in the file
+	 * @throws ExtensionException
+	 */
+	public static NetLogoLargeBitstring manifest(String value) throws ExtensionException {
+		try {
+			return new NetLogoLargeBitstring(LargeBitstring.open(Paths.get(value), true));
+		}
+		catch(IOException e) {
+			throw new ExtensionException("Cannot open large bitstring file " + value + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return super.equals(other);
+	}
+
+}
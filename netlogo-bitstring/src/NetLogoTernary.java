@@ -0,0 +1,71 @@
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.Bitstring;
+import uk.ac.hutton.bitstring.Ternary;
+
+/**
+ * NetLogoTernary.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoTernary -->
+ * 
+ * A {@link Ternary} pattern as a NetLogo value. Patterns are immutable values
+ * with no identity, so unlike {@link NetLogoBitstring} they are not kept in a
+ * registry, and are always exported in full.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoTernary extends Ternary implements ExtensionObject {
+
+	public static final String TYPE_NAME = "ternary";
+
+	public NetLogoTernary(String string) {
+		super(string);
+	}
+
+	public NetLogoTernary(Bitstring value, Bitstring care) {
+		super(value, care);
+	}
+
+	public NetLogoTernary(Ternary ternary) {
+		super(ternary);
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return super.equals(other);
+	}
+
+}
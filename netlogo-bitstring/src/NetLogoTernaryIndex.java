@@ -0,0 +1,72 @@
+import org.nlogo.core.ExtensionObject;
+
+import uk.ac.hutton.bitstring.Ternary;
+import uk.ac.hutton.bitstring.TernaryIndex;
+
+/**
+ * NetLogoTernaryIndex.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- NetLogoTernaryIndex -->
+ * 
+ * A {@link TernaryIndex} as a NetLogo value. It is exported as the list of
+ * patterns it indexes, and rebuilt from them when imported.
+ * 
+ * @author Gary Polhill
+ */
+public class NetLogoTernaryIndex extends TernaryIndex implements ExtensionObject {
+
+	public static final String TYPE_NAME = "ternary-index";
+
+	public NetLogoTernaryIndex(Ternary patterns[]) {
+		super(patterns);
+	}
+
+	protected static NetLogoTernaryIndex manifest(String value) {
+		String strs[] = value.trim().split("\\s+");
+		Ternary patterns[] = new Ternary[strs.length];
+
+		for(int i = 0; i < strs.length; i++) {
+			patterns[i] = new NetLogoTernary(strs[i]);
+		}
+		return new NetLogoTernaryIndex(patterns);
+	}
+
+	@Override
+	public String dump(boolean readable, boolean exporting, boolean reference) {
+		return this.toString();
+	}
+
+	@Override
+	public String getExtensionName() {
+		return "bitstring";
+	}
+
+	@Override
+	public String getNLTypeName() {
+		return TYPE_NAME;
+	}
+
+	@Override
+	public boolean recursivelyEqual(Object other) {
+		return this == other;
+	}
+
+}
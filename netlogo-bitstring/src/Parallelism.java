@@ -0,0 +1,50 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.Reporter;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Engine;
+
+/**
+ * Parallelism.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Parallelism -->
+ * 
+ * Reporter giving the number of threads the {@link Engine} runs work on.
+ * 
+ * @author Gary Polhill
+ */
+public class Parallelism implements Reporter {
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.reporterSyntax(new int[] {}, Syntax.NumberType());
+	}
+
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		return Double.valueOf(Engine.getParallelism());
+	}
+
+}
@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+
+/**
+ * Positions.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Positions -->
+ * 
+ * @author Gary Polhill
+ */
+public class Positions implements Reporter {
+
+	protected enum Mode {
+		ONES, ZEROS
+	};
+
+	private final Mode mode;
+
+	public Positions(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() }, Syntax.ListType());
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+
+		int positions[];
+
+		switch(mode) {
+		case ONES:
+			positions = bitstring.ones();
+			break;
+		case ZEROS:
+			positions = bitstring.zeros();
+			break;
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+
+		List<Double> list = new ArrayList<Double>(positions.length);
+		for(int i = 0; i < positions.length; i++) {
+			list.add(BitstringExtension.number(positions[i]));
+		}
+		return LogoList.fromJava(list);
+	}
+
+}
@@ -0,0 +1,131 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Command;
+import org.nlogo.api.Primitive;
+import org.nlogo.api.Reporter;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+/**
+ * PrimitiveEvent.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- PrimitiveEvent -->
+ * 
+ * Java Flight Recorder event for a call to one of the extension's primitives
+ * taking longer than the threshold, which is 1 ms unless the recording's
+ * settings say otherwise. When the event is not being recorded, the only cost
+ * is a check that it is not enabled, made with {@link #enabled()} before any
+ * event is allocated.
+ * 
+ * @author Gary Polhill
+ */
+@Name(PrimitiveEvent.NAME)
+@Label("Bitstring Primitive")
+@Category({ "NetLogo", "Bitstring" })
+@Description("A call to a primitive of the bitstring extension")
+@StackTrace(false)
+@Threshold("1 ms")
+public class PrimitiveEvent extends Event {
+
+	public static final String NAME = "uk.ac.hutton.bitstring.Primitive";
+
+	@Label("Primitive")
+	protected String primitive;
+
+	@Label("Operand Lengths")
+	@Description("Lengths of the bitstring arguments, in order")
+	protected String lengths;
+
+	/**
+	 * Event never committed, used only to ask whether the event type is enabled
+	 */
+	private static final PrimitiveEvent PROBE = new PrimitiveEvent();
+
+	/**
+	 * <!-- enabled -->
+	 * 
+	 * @return <code>true</code> if calls to primitives are being recorded, and
+	 *         so it is worth making an event for a call
+	 */
+	protected static boolean enabled() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * <!-- record -->
+	 * 
+	 * @param name
+	 *          Name of the primitive in NetLogo, without <code>bitstring:</code>
+	 * @param primitive
+	 * @return <code>primitive</code> wrapped so that its calls are recorded
+	 */
+	protected static Primitive record(String name, Primitive primitive) {
+		if(primitive instanceof Reporter) {
+			return new RecordedReporter(name, (Reporter)primitive);
+		}
+		else if(primitive instanceof Command) {
+			return new RecordedCommand(name, (Command)primitive);
+		}
+		return primitive;
+	}
+
+	/**
+	 * <!-- commit -->
+	 * 
+	 * Fill in the fields and commit the event, if it is to be recorded. This is
+	 * called after the primitive has evaluated its arguments, so getting them
+	 * again does not run any NetLogo code.
+	 * 
+	 * @param name
+	 * @param args
+	 */
+	protected void commit(String name, Argument args[]) {
+		if(shouldCommit()) {
+			primitive = name;
+			StringBuilder buff = new StringBuilder();
+			for(int i = 0; i < args.length; i++) {
+				Object obj;
+				try {
+					obj = args[i].get();
+				}
+				catch(Exception e) {
+					continue;
+				}
+				if(obj instanceof Bitstring) {
+					if(buff.length() > 0) {
+						buff.append(' ');
+					}
+					buff.append(((Bitstring)obj).size());
+				}
+			}
+			lengths = buff.toString();
+			commit();
+		}
+	}
+
+}
@@ -6,6 +6,8 @@ import org.nlogo.api.LogoException;
 import org.nlogo.core.Syntax;
 import org.nlogo.core.SyntaxJ;
 
+import uk.ac.hutton.bitstring.Bitstring;
+
 
 /**
  * Random.java, 
@@ -43,7 +45,7 @@ public class Random implements Reporter {
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
 		int length = args[0].getIntValue();
 		double prob = args[1].getDoubleValue();
-		return new NetLogoBitstring(length, prob);
+		return new NetLogoBitstring(new Bitstring(length, prob, BitstringExtension.getRandom(context)));
 	}
 
 	
@@ -0,0 +1,81 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+
+/**
+ * RankSelect.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- RankSelect -->
+ * 
+ * @author Gary Polhill
+ */
+public class RankSelect implements Reporter {
+
+	protected enum Mode {
+		RANK, SELECT
+	};
+
+	private final Mode mode;
+
+	public RankSelect(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() }, Syntax.NumberType());
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+		int n = args[1].getIntValue();
+
+		switch(mode) {
+		case RANK:
+			if(n < 0 || n > bitstring.size()) {
+				throw new ExtensionException("Position " + n + " is outside the range [0, " + bitstring.size() + "]");
+			}
+			return BitstringExtension.number(bitstring.rank(n));
+		case SELECT:
+			int pos = bitstring.select(n);
+			if(pos < 0) {
+				throw new ExtensionException("Cannot select 1 number " + n + " from a bitstring with " + bitstring.count1()
+						+ " 1s");
+			}
+			return BitstringExtension.number(pos);
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+}
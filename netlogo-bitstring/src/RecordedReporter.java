@@ -0,0 +1,64 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.api.Reporter;
+import org.nlogo.core.Syntax;
+
+/**
+ * RecordedReporter.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- RecordedReporter -->
+ * 
+ * A reporter whose calls are recorded as {@link PrimitiveEvent}s.
+ * 
+ * @author Gary Polhill
+ */
+public class RecordedReporter implements Reporter {
+
+	private final String name;
+
+	private final Reporter reporter;
+
+	public RecordedReporter(String name, Reporter reporter) {
+		this.name = name;
+		this.reporter = reporter;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		return reporter.getSyntax();
+	}
+
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		if(!PrimitiveEvent.enabled()) {
+			return reporter.report(args, context);
+		}
+		PrimitiveEvent event = new PrimitiveEvent();
+		event.begin();
+		Object result = reporter.report(args, context);
+		event.end();
+		event.commit(name, args);
+		return result;
+	}
+
+}
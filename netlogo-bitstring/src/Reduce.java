@@ -0,0 +1,133 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.Bitstring;
+
+
+/**
+ * Reduce.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Reduce -->
+ * 
+ * Reporters combining a whole list of bitstrings in one pass, rather than
+ * reducing it with the binary operators in {@link BitWise}.
+ * 
+ * @author Gary Polhill
+ */
+public class Reduce implements Reporter {
+
+	protected enum Op {
+		AND, OR, XOR, MAJORITY
+	};
+
+	private final Op op;
+
+	public Reduce(Op op) {
+		this.op = op;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(op) {
+		case AND:
+		case OR:
+		case XOR:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType() }, Syntax.WildcardType());
+		case MAJORITY:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType(), Syntax.RepeatableType() | Syntax.WildcardType() },
+																		Syntax.WildcardType(), 1);
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringList(args, 0);
+
+		if(bs.length == 0) {
+			throw new ExtensionException("Cannot combine an empty list of bitstrings");
+		}
+		for(int i = 1; i < bs.length; i++) {
+			if(bs[i].size() != bs[0].size()) {
+				throw new ExtensionException("Cannot combine bitstrings of different sizes (" + bs[0].size() + " and "
+						+ bs[i].size() + ")");
+			}
+		}
+
+		switch(op) {
+		case AND:
+			return new NetLogoBitstring(Bitstring.andAll(bs));
+		case OR:
+			return new NetLogoBitstring(Bitstring.orAll(bs));
+		case XOR:
+			return new NetLogoBitstring(Bitstring.xorAll(bs));
+		case MAJORITY:
+			Bitstring.Tie tie = args.length > 1 ? getTie(args[1]) : Bitstring.Tie.ZERO;
+			if(tie == Bitstring.Tie.RANDOM) {
+				return new NetLogoBitstring(Bitstring.majority(bs, tie, BitstringExtension.getRandom(context)));
+			}
+			return new NetLogoBitstring(Bitstring.majority(bs, tie));
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- getTie -->
+	 * 
+	 * @param arg
+	 * @return The tie-breaking rule for majority: <code>false</code> or
+	 *         <code>true</code> to use that value, <code>"random"</code> to
+	 *         choose at random, or <code>"first"</code> to use the value in the
+	 *         first bitstring in the list
+	 * @throws ExtensionException
+	 * @throws LogoException
+	 */
+	private static Bitstring.Tie getTie(Argument arg) throws ExtensionException, LogoException {
+		Object tie = arg.get();
+
+		if(tie instanceof Boolean) {
+			return (Boolean)tie ? Bitstring.Tie.ONE : Bitstring.Tie.ZERO;
+		}
+		else if("random".equalsIgnoreCase(tie.toString())) {
+			return Bitstring.Tie.RANDOM;
+		}
+		else if("first".equalsIgnoreCase(tie.toString())) {
+			return Bitstring.Tie.FIRST;
+		}
+		else {
+			throw new ExtensionException("Majority tie-break must be true, false, \"random\" or \"first\", not " + tie);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * RegistryEvent.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- RegistryEvent -->
+ * 
+ * Java Flight Recorder event sampling the size of the registry of
+ * {@link NetLogoBitstring}s, by default once a second. Bitstrings stay in the
+ * registry until <code>clear-all</code>, so its growth shows how much memory
+ * a model is holding on to.
+ * 
+ * @author Gary Polhill
+ */
+@Name(RegistryEvent.NAME)
+@Label("Bitstring Registry")
+@Category({ "NetLogo", "Bitstring" })
+@Description("The number of bitstrings made and registered")
+@StackTrace(false)
+@Period("1 s")
+public class RegistryEvent extends Event {
+
+	public static final String NAME = "uk.ac.hutton.bitstring.Registry";
+
+	private static final Runnable HOOK = RegistryEvent::emit;
+
+	@Label("Made")
+	@Description("Bitstrings made since the registry was last reset")
+	protected long made;
+
+	@Label("Registered")
+	@Description("Bitstrings in the registry")
+	protected int registered;
+
+	/**
+	 * <!-- start -->
+	 * 
+	 * Sample the registry while recording. Calling this again (as happens when
+	 * the extension is loaded by another model) does nothing.
+	 */
+	protected static void start() {
+		FlightRecorder.removePeriodicEvent(HOOK);
+		FlightRecorder.addPeriodicEvent(RegistryEvent.class, HOOK);
+	}
+
+	/**
+	 * <!-- stop -->
+	 */
+	protected static void stop() {
+		FlightRecorder.removePeriodicEvent(HOOK);
+	}
+
+	/**
+	 * <!-- emit -->
+	 * 
+	 * Called by the flight recorder's thread, so the numbers may be slightly out
+	 * of date.
+	 */
+	private static void emit() {
+		RegistryEvent event = new RegistryEvent();
+		event.made = NetLogoBitstring.made();
+		event.registered = NetLogoBitstring.registered();
+		event.commit();
+	}
+
+}
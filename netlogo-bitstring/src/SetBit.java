@@ -48,11 +48,11 @@ public class SetBit implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 		int pos = args[1].getIntValue();
 		boolean value = args[2].getBooleanValue();
 		
-		return new NetLogoBitstring(bs[0].set(pos, value));
+		return new NetLogoBitstring(bitstring.set(pos, value));
 	}
 
 }
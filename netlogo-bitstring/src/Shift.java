@@ -0,0 +1,99 @@
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+
+/**
+ * Shift.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Shift -->
+ * 
+ * @author Gary Polhill
+ */
+public class Shift implements Reporter {
+
+	protected enum Mode {
+		SHIFT, ROTATE, REVERSE
+	};
+
+	private final Mode mode;
+
+	public Shift(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case SHIFT:
+		case ROTATE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.NumberType() }, Syntax.WildcardType());
+		case REVERSE:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.RepeatableType() | Syntax.NumberType() },
+																		Syntax.WildcardType(), 1);
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+
+		switch(mode) {
+		case SHIFT:
+			return new NetLogoBitstring(bitstring.shift(args[1].getIntValue()));
+		case ROTATE:
+			return new NetLogoBitstring(bitstring.rotate(args[1].getIntValue()));
+		case REVERSE:
+			if(args.length == 1) {
+				return new NetLogoBitstring(bitstring.reverse());
+			}
+			else if(args.length == 3) {
+				int start = args[1].getIntValue();
+				int finish = args[2].getIntValue();
+
+				if(finish < start || start < 0 || finish > bitstring.size()) {
+					throw new ExtensionException("Illegal range to reverse [" + start + ", " + finish
+							+ "[ for bitstring of size " + bitstring.size());
+				}
+				return new NetLogoBitstring(bitstring.reverse(start, finish));
+			}
+			else {
+				throw new ExtensionException("Reverse expects a bitstring, optionally followed by the start and finish of "
+						+ "the range to reverse, but got " + args.length + " arguments");
+			}
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+}
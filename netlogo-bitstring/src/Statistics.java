@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.PopulationStatistics;
+
+
+/**
+ * Statistics.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Statistics -->
+ * 
+ * Reporters computing {@link PopulationStatistics} over a list of bitstrings.
+ * 
+ * @author Gary Polhill
+ */
+public class Statistics implements Reporter {
+
+	protected enum Mode {
+		COUNTS, FREQUENCIES, ENTROPY, DIVERSITY
+	};
+
+	private final Mode mode;
+
+	public Statistics(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case COUNTS:
+		case FREQUENCIES:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType() }, Syntax.ListType());
+		case ENTROPY:
+		case DIVERSITY:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.ListType() }, Syntax.NumberType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringList(args, 0);
+
+		if(bs.length == 0) {
+			throw new ExtensionException("Cannot compute statistics of an empty list of bitstrings");
+		}
+		for(int i = 1; i < bs.length; i++) {
+			if(bs[i].size() != bs[0].size()) {
+				throw new ExtensionException("Cannot compute statistics of bitstrings of different sizes (" + bs[0].size()
+						+ " and " + bs[i].size() + ")");
+			}
+		}
+
+		PopulationStatistics stats = new PopulationStatistics(bs);
+
+		switch(mode) {
+		case COUNTS:
+			int counts[] = stats.counts();
+			List<Double> countList = new ArrayList<Double>(counts.length);
+			for(int i = 0; i < counts.length; i++) {
+				countList.add(BitstringExtension.number(counts[i]));
+			}
+			return LogoList.fromJava(countList);
+		case FREQUENCIES:
+			double freqs[] = stats.frequencies();
+			List<Double> freqList = new ArrayList<Double>(freqs.length);
+			for(int i = 0; i < freqs.length; i++) {
+				freqList.add(Double.valueOf(freqs[i]));
+			}
+			return LogoList.fromJava(freqList);
+		case ENTROPY:
+			return Double.valueOf(stats.entropy());
+		case DIVERSITY:
+			return Double.valueOf(stats.diversity());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+}
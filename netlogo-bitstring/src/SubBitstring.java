@@ -67,7 +67,7 @@ public class SubBitstring implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
 
 		int start;
 		int finish;
@@ -75,11 +75,11 @@ public class SubBitstring implements Reporter {
 		switch(mode) {
 		case BUT_FIRST:
 			start = 1;
-			finish = bs[0].size();
+			finish = bitstring.size();
 			break;
 		case BUT_LAST:
 			start = 0;
-			finish = bs[0].size() - 1;
+			finish = bitstring.size() - 1;
 			break;
 		case RANDOM_ACCESS:
 			start = args[1].getIntValue();
@@ -89,17 +89,17 @@ public class SubBitstring implements Reporter {
 			throw new RuntimeException("PANIC!");
 		}
 
-		if(finish < start || start < 0 || finish > bs[0].size()) {
+		if(finish < start || start < 0 || finish > bitstring.size()) {
 			if(mode == Mode.RANDOM_ACCESS) {
 				throw new ExtensionException("Illegal sub-bitstring range [" + start + ", " + finish
-						+ "[ for bitstring of size " + bs[0].size());
+						+ "[ for bitstring of size " + bitstring.size());
 			}
 			else {
 				throw new ExtensionException("Attempt to remove first or last element from empty bitstring");
 			}
 		}
 
-		return new NetLogoBitstring(bs[0].subbitstring(start, finish));
+		return new NetLogoBitstring(bitstring.subbitstring(start, finish));
 	}
 
 }
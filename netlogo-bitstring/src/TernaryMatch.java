@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nlogo.api.Argument;
+import org.nlogo.api.Context;
+import org.nlogo.api.Reporter;
+import org.nlogo.api.ExtensionException;
+import org.nlogo.api.LogoException;
+import org.nlogo.core.LogoList;
+import org.nlogo.core.Syntax;
+import org.nlogo.core.SyntaxJ;
+
+import uk.ac.hutton.bitstring.TernaryIndex;
+
+
+/**
+ * TernaryMatch.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- TernaryMatch -->
+ * 
+ * @author Gary Polhill
+ */
+public class TernaryMatch implements Reporter {
+
+	protected enum Mode {
+		MATCHES, MATCH_SET
+	};
+
+	private final Mode mode;
+
+	public TernaryMatch(Mode mode) {
+		this.mode = mode;
+	}
+
+	@Override
+	public Syntax getSyntax() {
+		switch(mode) {
+		case MATCHES:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType(), Syntax.WildcardType() },
+																		Syntax.BooleanType());
+		case MATCH_SET:
+			return SyntaxJ.reporterSyntax(new int[] { Syntax.WildcardType() | Syntax.ListType(), Syntax.WildcardType() },
+																		Syntax.ListType());
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- report -->
+	 * 
+	 * @see org.nlogo.api.Reporter#report(org.nlogo.api.Argument[],
+	 *      org.nlogo.api.Context)
+	 */
+	@Override
+	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 1);
+		Object obj = args[0].get();
+
+		switch(mode) {
+		case MATCHES:
+			if(!(obj instanceof NetLogoTernary)) {
+				throw new ExtensionException("Expected a ternary pattern as argument 1 but got a "
+						+ obj.getClass().getSimpleName());
+			}
+			NetLogoTernary pattern = (NetLogoTernary)obj;
+			if(pattern.size() != bitstring.size()) {
+				throw new ExtensionException("Cannot match ternary pattern and bitstring of different sizes ("
+						+ pattern.size() + " and " + bitstring.size() + ")");
+			}
+			return Boolean.valueOf(pattern.matches(bitstring));
+		case MATCH_SET:
+			TernaryIndex index;
+			if(obj instanceof NetLogoTernaryIndex) {
+				index = (NetLogoTernaryIndex)obj;
+			}
+			else if(obj instanceof LogoList) {
+				index = new TernaryIndex(MakeTernary.getTernaryList((LogoList)obj));
+			}
+			else {
+				throw new ExtensionException("Expected a ternary index or list of ternary patterns as argument 1 but got a "
+						+ obj.getClass().getSimpleName());
+			}
+			if(index.length() != bitstring.size()) {
+				throw new ExtensionException("Cannot match ternary patterns and bitstring of different sizes ("
+						+ index.length() + " and " + bitstring.size() + ")");
+			}
+			int matches[] = index.matchSet(bitstring);
+			List<Double> list = new ArrayList<Double>(matches.length);
+			for(int i = 0; i < matches.length; i++) {
+				list.add(BitstringExtension.number(matches[i]));
+			}
+			return LogoList.fromJava(list);
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+}
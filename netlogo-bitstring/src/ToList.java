@@ -49,8 +49,8 @@ public class ToList implements Reporter {
 	 */
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException, LogoException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		return LogoList.fromJava(bs[0].asList());
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+		return LogoList.fromJava(bitstring.asList());
 	}
 
 
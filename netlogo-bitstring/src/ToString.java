@@ -23,8 +23,8 @@ public class ToString implements Reporter {
 
 	@Override
 	public Object report(Argument[] args, Context context) throws ExtensionException {
-		NetLogoBitstring bs[] = BitstringExtension.getNetLogoBitstringArgs(args, 0);
-		return bs[0].toString();
+		NetLogoBitstring bitstring = BitstringExtension.getNetLogoBitstring(args, 0);
+		return bitstring.toString();
 	}
 
 }
@@ -0,0 +1,78 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * WorldEvent.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- WorldEvent -->
+ * 
+ * Java Flight Recorder event for the extension's part of
+ * <code>export-world</code> or <code>import-world</code>.
+ * 
+ * @author Gary Polhill
+ */
+@Name(WorldEvent.NAME)
+@Label("Bitstring World Export or Import")
+@Category({ "NetLogo", "Bitstring" })
+@Description("Saving or restoring the extension's objects with the world")
+@StackTrace(false)
+public class WorldEvent extends Event {
+
+	public static final String NAME = "uk.ac.hutton.bitstring.World";
+
+	public static final String EXPORT = "export";
+
+	public static final String IMPORT = "import";
+
+	@Label("Phase")
+	protected String phase;
+
+	@Label("Objects")
+	protected int objects;
+
+	@Label("Characters")
+	@Description("Number of characters exported or imported")
+	protected long characters;
+
+	public WorldEvent(String phase) {
+		this.phase = phase;
+	}
+
+	/**
+	 * <!-- commit -->
+	 * 
+	 * @param objects
+	 * @param characters
+	 */
+	protected void commit(int objects, long characters) {
+		end();
+		if(shouldCommit()) {
+			this.objects = objects;
+			this.characters = characters;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package uk.ac.hutton.bitstring;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Arena.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Arena -->
+ * 
+ * Off-heap storage for the words of bitstrings. Bitstrings put in an arena
+ * keep their words in direct buffers of {@link #CHUNK_WORDS} words each,
+ * allocated one after another, so that a large population of them leaves
+ * little on the heap for the garbage collector to trace or copy besides the
+ * bitstring objects themselves. The operations used most on such bitstrings
+ * read their words in place; the others copy them onto the heap for as long
+ * as they need them.
+ * 
+ * An arena is released all at once by {@link #release()}, after which the
+ * bitstrings in it can no longer be used, and the memory is returned once the
+ * arena's buffers have been garbage collected.
+ * 
+ * @author Gary Polhill
+ */
+public class Arena {
+
+	public static final int CHUNK_SHIFT = 21;
+
+	/**
+	 * Number of words in each chunk of the arena (16 MiB)
+	 */
+	public static final int CHUNK_WORDS = 1 << CHUNK_SHIFT;
+
+	/**
+	 * Most chunks an arena can have, so that an address in it fits in an
+	 * <code>int</code>
+	 */
+	public static final int MAX_CHUNKS = 1 << (Integer.SIZE - 1 - CHUNK_SHIFT);
+
+	/**
+	 * The chunks allocated so far; <code>null</code> once the arena has been
+	 * released
+	 */
+	private volatile LongBuffer chunks[] = new LongBuffer[0];
+
+	/**
+	 * Number of words used in the last chunk
+	 */
+	private int used = CHUNK_WORDS;
+
+	/**
+	 * <!-- put -->
+	 * 
+	 * @param bitstring
+	 * @return A bitstring with the same bits as <code>bitstring</code>, with its
+	 *         words in this arena. Bitstrings of no more than 64 bits, which
+	 *         have no words, and those too long to fit in a chunk, are returned
+	 *         as they are, as are all bitstrings once the arena is full.
+	 */
+	public Bitstring put(Bitstring bitstring) {
+		if(bitstring.size() <= Long.SIZE) {
+			return bitstring;
+		}
+		long words[] = bitstring.words();
+		int address = allocate(words);
+		return address < 0 ? bitstring : Bitstring.inArena(bitstring.size(), this, address);
+	}
+
+	/**
+	 * <!-- allocate -->
+	 * 
+	 * @param words
+	 * @return The address of a copy of <code>words</code> in this arena, or -1
+	 *         if there is no room for them
+	 */
+	private synchronized int allocate(long words[]) {
+		LongBuffer arr[] = chunks();
+		if(words.length > CHUNK_WORDS) {
+			return -1;
+		}
+		if(used + words.length > CHUNK_WORDS) {
+			if(arr.length == MAX_CHUNKS) {
+				return -1;
+			}
+			arr = Arrays.copyOf(arr, arr.length + 1);
+			arr[arr.length - 1] = ByteBuffer.allocateDirect(CHUNK_WORDS * Long.BYTES).order(ByteOrder.nativeOrder())
+					.asLongBuffer();
+			used = 0;
+		}
+		LongBuffer chunk = arr[arr.length - 1].duplicate();
+		chunk.position(used);
+		chunk.put(words);
+		int address = ((arr.length - 1) << CHUNK_SHIFT) + used;
+		used += words.length;
+		chunks = arr;
+		return address;
+	}
+
+	/**
+	 * <!-- chunks -->
+	 * 
+	 * @return The chunks of the arena
+	 */
+	private LongBuffer[] chunks() {
+		LongBuffer arr[] = chunks;
+		if(arr == null) {
+			throw new IllegalStateException("Cannot use a bitstring in an arena that has been released");
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- check -->
+	 * 
+	 * @throws IllegalStateException
+	 *           if the arena has been released
+	 */
+	void check() {
+		chunks();
+	}
+
+	/**
+	 * <!-- words -->
+	 * 
+	 * @param address
+	 * @param n
+	 * @return A copy on the heap of the <code>n</code> words at
+	 *         <code>address</code>
+	 */
+	long[] words(int address, int n) {
+		long arr[] = new long[n];
+		LongBuffer chunk = chunks()[address >>> CHUNK_SHIFT].duplicate();
+		chunk.position(address & (CHUNK_WORDS - 1));
+		chunk.get(arr);
+		return arr;
+	}
+
+	/**
+	 * <!-- view -->
+	 * 
+	 * @param address
+	 * @param n
+	 * @return A buffer of the <code>n</code> words at <code>address</code>,
+	 *         read in place, with its index 0 at <code>address</code>
+	 */
+	LongBuffer view(int address, int n) {
+		LongBuffer chunk = chunks()[address >>> CHUNK_SHIFT].duplicate();
+		int start = address & (CHUNK_WORDS - 1);
+		chunk.limit(start + n);
+		chunk.position(start);
+		return chunk.slice();
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param address
+	 * @param bit
+	 * @return The value of bit <code>bit</code> of the words at
+	 *         <code>address</code>
+	 */
+	boolean get(int address, int bit) {
+		return (chunks()[address >>> CHUNK_SHIFT].get((address & (CHUNK_WORDS - 1)) + (bit >>> 6)) & (1L << bit)) != 0;
+	}
+
+	/**
+	 * <!-- bytes -->
+	 * 
+	 * @return The number of bytes allocated off the heap by this arena
+	 */
+	public long bytes() {
+		LongBuffer arr[] = chunks;
+		return arr == null ? 0L : (long)arr.length * CHUNK_WORDS * Long.BYTES;
+	}
+
+	/**
+	 * <!-- isReleased -->
+	 * 
+	 * @return <code>true</code> if {@link #release()} has been called
+	 */
+	public boolean isReleased() {
+		return chunks == null;
+	}
+
+	/**
+	 * <!-- release -->
+	 * 
+	 * Let go of all the chunks of this arena. Any bitstrings in it can no
+	 * longer be used.
+	 */
+	public synchronized void release() {
+		chunks = null;
+	}
+}
@@ -0,0 +1,668 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * BitMatrix.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- BitMatrix -->
+ * 
+ * An immutable matrix of bits, such as the adjacency matrix of a network. Each
+ * row is stored in the same word layout as a {@link Bitstring}, rows following
+ * one after the other, so that rows convert to and from bitstrings by copying
+ * words.
+ * 
+ * Products use the Method of Four Russians: for each group of eight rows of the
+ * right-hand matrix, a table of all 256 combinations of those rows is built, so
+ * that each byte of a row of the left-hand matrix contributes to the product
+ * with one table lookup and a pass over the words of a row, rather than with up
+ * to eight. Gaussian elimination over GF(2) is done the same way, finding up to
+ * eight pivots at a time and clearing them from every other row with one
+ * lookup per row. Transposition works on blocks of 64 x 64 bits, transposing
+ * each in six rounds of masked swaps. Large matrices are processed in parallel
+ * blocks of rows.
+ * 
+ * @author Gary Polhill
+ */
+public class BitMatrix {
+
+	/**
+	 * Number of rows in each block processed in parallel
+	 */
+	public static final int ROWS_PER_TASK = 64;
+
+	/**
+	 * Number of rows combined in each table of the Method of Four Russians
+	 */
+	private static final int TABLE_BITS = 8;
+
+	private final int rows;
+
+	private final int cols;
+
+	/**
+	 * Number of words in each row
+	 */
+	private final int rowWords;
+
+	private final long words[];
+
+	/**
+	 * <!-- BitMatrix constructor -->
+	 * 
+	 * Create a matrix with all elements set to <code>0</code>
+	 * 
+	 * @param rows
+	 * @param cols
+	 */
+	public BitMatrix(int rows, int cols) {
+		this(rows, cols, new long[checkSize(rows, cols) * nWords(cols)]);
+	}
+
+	/**
+	 * <!-- BitMatrix constructor -->
+	 * 
+	 * Create a matrix from an array of words, of which it takes ownership. The
+	 * array must not be modified afterwards, and must have any bits beyond the
+	 * last column of each row set to 0.
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param words
+	 */
+	protected BitMatrix(int rows, int cols, long words[]) {
+		this.rows = rows;
+		this.cols = cols;
+		this.rowWords = nWords(cols);
+		if(words.length != checkSize(rows, cols) * rowWords) {
+			throw new IllegalArgumentException("Array of " + words.length + " words is the wrong size for a " + rows + "x"
+					+ cols + " matrix");
+		}
+		this.words = words;
+	}
+
+	/**
+	 * <!-- BitMatrix constructor -->
+	 * 
+	 * Create a matrix as a copy of another
+	 * 
+	 * @param matrix
+	 */
+	public BitMatrix(BitMatrix matrix) {
+		this(matrix.rows, matrix.cols, matrix.words);
+	}
+
+	/**
+	 * <!-- checkSize -->
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @return <code>rows</code>
+	 */
+	private static int checkSize(int rows, int cols) {
+		if(rows <= 0 || cols <= 0) {
+			throw new IllegalArgumentException("Cannot create a matrix of size " + rows + "x" + cols);
+		}
+		return rows;
+	}
+
+	/**
+	 * <!-- nWords -->
+	 * 
+	 * @param cols
+	 * @return The number of words needed to store a row of <code>cols</code>
+	 *         bits
+	 */
+	private static int nWords(int cols) {
+		return (cols + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	/**
+	 * <!-- fromRows -->
+	 * 
+	 * @param bitstrings
+	 *          A non-empty array of bitstrings of the same, non-zero, length
+	 * @return A matrix with the bitstrings as its rows
+	 */
+	public static BitMatrix fromRows(Bitstring bitstrings[]) {
+		if(bitstrings.length == 0) {
+			throw new IllegalArgumentException("Cannot create a matrix from no rows");
+		}
+		int cols = bitstrings[0].size();
+		int rw = nWords(cols);
+		long arr[] = new long[checkSize(bitstrings.length, cols) * rw];
+
+		for(int i = 0; i < bitstrings.length; i++) {
+			if(bitstrings[i].size() != cols) {
+				throw new IllegalArgumentException("Cannot create a matrix from rows of different lengths (" + cols + " and "
+						+ bitstrings[i].size() + ")");
+			}
+			System.arraycopy(bitstrings[i].words(), 0, arr, i * rw, rw);
+		}
+		return new BitMatrix(bitstrings.length, cols, arr);
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	public int cols() {
+		return cols;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param i
+	 * @param j
+	 * @return The element in row <code>i</code> and column <code>j</code>
+	 */
+	public boolean get(int i, int j) {
+		if(i < 0 || i >= rows || j < 0 || j >= cols) {
+			throw new IllegalArgumentException("Element (" + i + ", " + j + ") is outside the " + rows + "x" + cols
+					+ " matrix");
+		}
+		return bit(words, i * rowWords, j);
+	}
+
+	/**
+	 * <!-- row -->
+	 * 
+	 * @param i
+	 * @return Row <code>i</code> as a bitstring
+	 */
+	public Bitstring row(int i) {
+		if(i < 0 || i >= rows) {
+			throw new IllegalArgumentException("Row " + i + " is outside the range [0, " + rows + "[");
+		}
+		return Bitstring.fromWords(cols, Arrays.copyOfRange(words, i * rowWords, (i + 1) * rowWords));
+	}
+
+	/**
+	 * <!-- toRows -->
+	 * 
+	 * @return The rows of the matrix as bitstrings
+	 */
+	public Bitstring[] toRows() {
+		Bitstring bs[] = new Bitstring[rows];
+
+		for(int i = 0; i < rows; i++) {
+			bs[i] = row(i);
+		}
+		return bs;
+	}
+
+	/**
+	 * <!-- rowCounts -->
+	 * 
+	 * @return The number of <code>1</code>s in each row
+	 */
+	public int[] rowCounts() {
+		int counts[] = new int[rows];
+
+		for(int i = 0; i < rows; i++) {
+			for(int k = i * rowWords; k < (i + 1) * rowWords; k++) {
+				counts[i] += Long.bitCount(words[k]);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * <!-- columnCounts -->
+	 * 
+	 * @return The number of <code>1</code>s in each column
+	 */
+	public int[] columnCounts() {
+		return transpose().rowCounts();
+	}
+
+	/**
+	 * <!-- transpose -->
+	 * 
+	 * @return The transpose of this matrix
+	 */
+	public BitMatrix transpose() {
+		final int tw = nWords(rows);
+		final long arr[] = new long[cols * tw];
+
+		tasks(rowWords, 1, (long)rows * rowWords, bj -> {
+			long block[] = new long[Long.SIZE];
+			for(int bi = 0; bi < tw; bi++) {
+				for(int r = 0; r < Long.SIZE; r++) {
+					int i = (bi << 6) + r;
+					block[r] = i < rows ? words[i * rowWords + bj] : 0L;
+				}
+				transpose64(block);
+				for(int r = 0; r < Long.SIZE && (bj << 6) + r < cols; r++) {
+					arr[((bj << 6) + r) * tw + bi] = block[r];
+				}
+			}
+		});
+		return new BitMatrix(cols, rows, arr);
+	}
+
+	/**
+	 * <!-- transpose64 -->
+	 * 
+	 * Transpose a 64 x 64 block of bits in place, so that bit <code>c</code> of
+	 * word <code>r</code> becomes bit <code>r</code> of word <code>c</code>. Each
+	 * round swaps the off-diagonal quarters of every block half the size of
+	 * those in the previous round.
+	 * 
+	 * @param block
+	 *          64 words
+	 */
+	static void transpose64(long block[]) {
+		long mask = 0x00000000FFFFFFFFL;
+
+		for(int j = 32; j != 0; j >>>= 1, mask ^= mask << j) {
+			for(int k = 0; k < Long.SIZE; k = ((k | j) + 1) & ~j) {
+				long t = ((block[k] >>> j) ^ block[k | j]) & mask;
+				block[k] ^= t << j;
+				block[k | j] ^= t;
+			}
+		}
+	}
+
+	/**
+	 * <!-- product -->
+	 * 
+	 * @param other
+	 * @return The Boolean product of this matrix and <code>other</code>, in which
+	 *         element (<code>i</code>, <code>j</code>) is <code>1</code> if there
+	 *         is a <code>k</code> with (<code>i</code>, <code>k</code>) in this
+	 *         matrix and (<code>k</code>, <code>j</code>) in <code>other</code>
+	 */
+	public BitMatrix product(BitMatrix other) {
+		return multiply(other, false);
+	}
+
+	/**
+	 * <!-- gf2Product -->
+	 * 
+	 * @param other
+	 * @return The product of this matrix and <code>other</code> over GF(2), in
+	 *         which addition is XOR
+	 */
+	public BitMatrix gf2Product(BitMatrix other) {
+		return multiply(other, true);
+	}
+
+	/**
+	 * <!-- closure -->
+	 * 
+	 * @return The transitive closure of this square matrix, with a
+	 *         <code>1</code> at (<code>i</code>, <code>j</code>) if there is a
+	 *         path of one or more steps from <code>i</code> to <code>j</code>,
+	 *         computed by repeated squaring
+	 */
+	public BitMatrix closure() {
+		if(rows != cols) {
+			throw new IllegalArgumentException("Cannot compute the closure of a non-square " + rows + "x" + cols
+					+ " matrix");
+		}
+		BitMatrix reach = this;
+		while(true) {
+			BitMatrix next = reach.product(reach);
+			long arr[] = next.words;
+			for(int k = 0; k < arr.length; k++) {
+				arr[k] |= reach.words[k];
+			}
+			if(Arrays.equals(arr, reach.words)) {
+				return reach;
+			}
+			reach = next;
+		}
+	}
+
+	/**
+	 * <!-- multiply -->
+	 * 
+	 * @param other
+	 * @param gf2
+	 *          <code>true</code> to add with XOR, <code>false</code> with OR
+	 * @return The product of this matrix and <code>other</code>
+	 */
+	private BitMatrix multiply(BitMatrix other, final boolean gf2) {
+		if(cols != other.rows) {
+			throw new IllegalArgumentException("Cannot multiply a " + rows + "x" + cols + " matrix by a " + other.rows
+					+ "x" + other.cols + " matrix");
+		}
+		final int ow = other.rowWords;
+		final long arr[] = new long[rows * ow];
+		final long table[] = new long[((Long.SIZE / TABLE_BITS) << TABLE_BITS) * ow];
+
+		for(int w = 0; w < rowWords; w++) {
+
+			// Tables of the combinations of each group of eight of the 64 rows of
+			// other corresponding to word w of the rows of this matrix
+
+			for(int g = 0; g < Long.SIZE / TABLE_BITS; g++) {
+				int t0 = (g << TABLE_BITS) * ow;
+				Arrays.fill(table, t0, t0 + ow, 0L);
+				for(int m = 1; m < (1 << TABLE_BITS); m++) {
+					int k = (w << 6) + g * TABLE_BITS + Integer.numberOfTrailingZeros(m);
+					int prev = t0 + (m & (m - 1)) * ow;
+					int dst = t0 + m * ow;
+					if(k >= other.rows) {
+						System.arraycopy(table, prev, table, dst, ow);
+						continue;
+					}
+					for(int j = 0; j < ow; j++) {
+						table[dst + j] = gf2 ? table[prev + j] ^ other.words[k * ow + j] : table[prev + j]
+								| other.words[k * ow + j];
+					}
+				}
+			}
+
+			final int ww = w;
+			tasks(rows, ROWS_PER_TASK, (long)rows * ow * (Long.SIZE / TABLE_BITS), t -> {
+				for(int i = t * ROWS_PER_TASK; i < Math.min(rows, (t + 1) * ROWS_PER_TASK); i++) {
+					long a = words[i * rowWords + ww];
+					for(int g = 0; a != 0L; g++, a >>>= TABLE_BITS) {
+						int m = (int)a & ((1 << TABLE_BITS) - 1);
+						if(m != 0) {
+							int src = ((g << TABLE_BITS) + m) * ow;
+							int dst = i * ow;
+							for(int j = 0; j < ow; j++) {
+								if(gf2) {
+									arr[dst + j] ^= table[src + j];
+								}
+								else {
+									arr[dst + j] |= table[src + j];
+								}
+							}
+						}
+					}
+				}
+			});
+		}
+		return new BitMatrix(rows, other.cols, arr);
+	}
+
+	/**
+	 * <!-- rank -->
+	 * 
+	 * @return The rank of this matrix over GF(2)
+	 */
+	public int rank() {
+		return eliminate(words.clone(), rows, cols, rowWords, new int[rows]);
+	}
+
+	/**
+	 * <!-- solve -->
+	 * 
+	 * @param b
+	 *          A bitstring with one bit per row of this matrix
+	 * @return A bitstring <code>x</code> with one bit per column of this matrix
+	 *         such that this matrix times <code>x</code> is <code>b</code> over
+	 *         GF(2), with any free variables set to <code>0</code>; or
+	 *         <code>null</code> if there is no such <code>x</code>
+	 */
+	public Bitstring solve(Bitstring b) {
+		if(b.size() != rows) {
+			throw new IllegalArgumentException("Cannot solve a system of " + rows + " equations with a bitstring of length "
+					+ b.size());
+		}
+
+		// Augment the matrix with b as an extra column
+
+		int aw = nWords(cols + 1);
+		long aug[] = new long[rows * aw];
+		for(int i = 0; i < rows; i++) {
+			System.arraycopy(words, i * rowWords, aug, i * aw, rowWords);
+			if(b.get(i)) {
+				aug[i * aw + (cols >>> 6)] |= 1L << cols;
+			}
+		}
+
+		int pivots[] = new int[rows];
+		int rank = eliminate(aug, rows, cols, aw, pivots);
+		for(int i = rank; i < rows; i++) {
+			if(bit(aug, i * aw, cols)) {
+				return null;
+			}
+		}
+		long x[] = new long[nWords(cols)];
+		for(int i = 0; i < rank; i++) {
+			if(bit(aug, i * aw, cols)) {
+				x[pivots[i] >>> 6] |= 1L << pivots[i];
+			}
+		}
+		return Bitstring.fromWords(cols, x);
+	}
+
+	/**
+	 * <!-- eliminate -->
+	 * 
+	 * Put a matrix into reduced row echelon form over GF(2), in place. Up to
+	 * eight pivots are found at a time and reduced among themselves; a table of
+	 * their combinations is then used to clear their columns from all the other
+	 * rows in one pass.
+	 * 
+	 * @param m
+	 *          The words of the matrix
+	 * @param rows
+	 *          The number of rows
+	 * @param cols
+	 *          The number of columns to find pivots in
+	 * @param rw
+	 *          The number of words in each row
+	 * @param pivots
+	 *          Array to put the pivot column of each row in
+	 * @return The rank of the matrix
+	 */
+	private static int eliminate(final long m[], final int rows, int cols, final int rw, int pivots[]) {
+		final long table[] = new long[rw << TABLE_BITS];
+		int r = 0;
+		int c = 0;
+
+		while(r < rows && c < cols) {
+			final int start = r;
+			final int pc[] = new int[TABLE_BITS];
+			int k = 0;
+
+			while(k < TABLE_BITS && r < rows && c < cols) {
+				int p;
+				for(p = r; p < rows; p++) {
+					for(int j = 0; j < k; j++) {
+						if(bit(m, p * rw, pc[j])) {
+							xorRow(m, p * rw, m, (start + j) * rw, pc[j] >>> 6, rw);
+						}
+					}
+					if(bit(m, p * rw, c)) {
+						break;
+					}
+				}
+				if(p < rows) {
+					if(p != r) {
+						for(int j = 0; j < rw; j++) {
+							long tmp = m[p * rw + j];
+							m[p * rw + j] = m[r * rw + j];
+							m[r * rw + j] = tmp;
+						}
+					}
+					for(int j = 0; j < k; j++) {
+						if(bit(m, (start + j) * rw, c)) {
+							xorRow(m, (start + j) * rw, m, r * rw, c >>> 6, rw);
+						}
+					}
+					pc[k++] = c;
+					pivots[r++] = c;
+				}
+				c++;
+			}
+			if(k == 0) {
+				break;
+			}
+
+			final int n = k;
+			final int w0 = pc[0] >>> 6;
+			for(int s = 1; s < (1 << n); s++) {
+				int prev = (s & (s - 1)) * rw;
+				int row = (start + Integer.numberOfTrailingZeros(s)) * rw;
+				for(int j = w0; j < rw; j++) {
+					table[s * rw + j] = table[prev + j] ^ m[row + j];
+				}
+			}
+			tasks(rows, ROWS_PER_TASK, (long)rows * (rw - w0), t -> {
+				for(int i = t * ROWS_PER_TASK; i < Math.min(rows, (t + 1) * ROWS_PER_TASK); i++) {
+					if(i >= start && i < start + n) continue;
+					int s = 0;
+					for(int j = 0; j < n; j++) {
+						if(bit(m, i * rw, pc[j])) {
+							s |= 1 << j;
+						}
+					}
+					if(s != 0) {
+						xorRow(m, i * rw, table, s * rw, w0, rw);
+					}
+				}
+			});
+		}
+		return r;
+	}
+
+	/**
+	 * <!-- bit -->
+	 * 
+	 * @param m
+	 * @param off
+	 *          Position of the first word of the row in <code>m</code>
+	 * @param j
+	 *          Column
+	 * @return Whether the bit in column <code>j</code> of the row is set
+	 */
+	private static boolean bit(long m[], int off, int j) {
+		return (m[off + (j >>> 6)] & (1L << j)) != 0L;
+	}
+
+	/**
+	 * <!-- xorRow -->
+	 * 
+	 * XOR a row into another, from a given word onwards
+	 * 
+	 * @param dst
+	 * @param dstOff
+	 * @param src
+	 * @param srcOff
+	 * @param from
+	 *          First word of the rows to XOR
+	 * @param rw
+	 *          Number of words in each row
+	 */
+	private static void xorRow(long dst[], int dstOff, long src[], int srcOff, int from, int rw) {
+		for(int j = from; j < rw; j++) {
+			dst[dstOff + j] ^= src[srcOff + j];
+		}
+	}
+
+	/**
+	 * <!-- tasks -->
+	 * 
+	 * @param n
+	 *          Number of items
+	 * @param perTask
+	 *          Number of items in each task
+	 * @param work
+	 *          Number of words the tasks will process between them
+	 * @param task
+	 *          Given the number of each task to run
+	 */
+	private static void tasks(int n, int perTask, long work, IntConsumer task) {
+		Engine.forEach((n + perTask - 1) / perTask, work, task);
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return The number of rows and columns followed by each row as a string of
+	 *         1s and 0s, all separated by spaces
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buff = new StringBuilder();
+
+		buff.append(rows).append(" ").append(cols);
+		for(int i = 0; i < rows; i++) {
+			buff.append(" ");
+			for(int j = 0; j < cols; j++) {
+				buff.append(bit(words, i * rowWords, j) ? '1' : '0');
+			}
+		}
+		return buff.toString();
+	}
+
+	/**
+	 * <!-- parse -->
+	 * 
+	 * @param strs
+	 *          The space-separated parts of a string in the format returned by
+	 *          {@link #toString()}
+	 * @return The words of the matrix described, for passing to the constructor
+	 *         along with its size
+	 */
+	protected static long[] parse(String strs[]) {
+		int rows = Integer.parseInt(strs[0]);
+		int cols = Integer.parseInt(strs[1]);
+		if(strs.length != rows + 2) {
+			throw new IllegalArgumentException("Expected " + rows + " rows for matrix, but got " + (strs.length - 2));
+		}
+		int rw = nWords(cols);
+		long arr[] = new long[checkSize(rows, cols) * rw];
+
+		for(int i = 0; i < rows; i++) {
+			String row = strs[i + 2];
+			if(row.length() != cols || !Bitstring.is10(row)) {
+				throw new IllegalArgumentException("Row " + i + " of matrix (\"" + row + "\") is not " + cols + " 1s and 0s");
+			}
+			for(int j = 0; j < cols; j++) {
+				if(Bitstring.is1(row.charAt(j))) {
+					arr[i * rw + (j >>> 6)] |= 1L << j;
+				}
+			}
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- equals -->
+	 * 
+	 * @param oother
+	 * @return <code>true</code> if this matrix has the same size and elements as
+	 *         the other
+	 */
+	@Override
+	public boolean equals(Object oother) {
+		if(!(oother instanceof BitMatrix)) {
+			return false;
+		}
+		BitMatrix other = (BitMatrix)oother;
+		return rows == other.rows && cols == other.cols && Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words);
+	}
+}
@@ -0,0 +1,649 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Bitboard -->
+ * 
+ * An immutable two-dimensional grid of bits, such as a Boolean patch variable.
+ * Each row is stored in the same word layout as a {@link Bitstring}, rows
+ * following one after the other, with the bits beyond the width in the last
+ * word of each row always <code>0</code>. The grid may wrap round horizontally,
+ * vertically or both, as a NetLogo world does.
+ * 
+ * Operations on neighbourhoods work a word (64 cells) at a time. For each row
+ * the words of the rows above and below are used directly, and the words of
+ * the western and eastern neighbours are the row words shifted one place each
+ * way, carrying in a bit from the adjacent word or across the wrap. Neighbour
+ * counts are summed with a bit-sliced adder tree (carry-save adders giving the
+ * four bits of each count in four words), and compared with the accepted
+ * counts a plane at a time.
+ * 
+ * @author Gary Polhill
+ */
+public class Bitboard {
+
+	/**
+	 * The neighbours of a cell: the eight surrounding cells, or the four
+	 * orthogonally adjacent ones
+	 */
+	public enum Neighbourhood {
+		MOORE, VON_NEUMANN
+	};
+
+	private enum Op {
+		COUNT, LIFE, DILATE, ERODE
+	};
+
+	private final int width;
+
+	private final int height;
+
+	private final boolean wrapX;
+
+	private final boolean wrapY;
+
+	/**
+	 * Number of words in each row
+	 */
+	private final int rowWords;
+
+	private final long words[];
+
+	/**
+	 * <!-- Bitboard constructor -->
+	 * 
+	 * Create a bitboard with all cells set to <code>0</code>
+	 * 
+	 * @param width
+	 * @param height
+	 * @param wrapX
+	 *          Whether the first and last columns are neighbours
+	 * @param wrapY
+	 *          Whether the first and last rows are neighbours
+	 */
+	public Bitboard(int width, int height, boolean wrapX, boolean wrapY) {
+		this(width, height, wrapX, wrapY, new long[checkSize(width, height) * ((width + Long.SIZE - 1) / Long.SIZE)]);
+	}
+
+	/**
+	 * <!-- Bitboard constructor -->
+	 * 
+	 * Create a bitboard from an array of words, of which it takes ownership. The
+	 * array must not be modified afterwards.
+	 * 
+	 * @param width
+	 * @param height
+	 * @param wrapX
+	 * @param wrapY
+	 * @param words
+	 *          The rows of the bitboard, as described in the class comment
+	 */
+	protected Bitboard(int width, int height, boolean wrapX, boolean wrapY, long words[]) {
+		this.width = width;
+		this.height = height;
+		this.wrapX = wrapX;
+		this.wrapY = wrapY;
+		this.rowWords = (width + Long.SIZE - 1) / Long.SIZE;
+		if(words.length != checkSize(width, height) * rowWords) {
+			throw new IllegalArgumentException("Array of " + words.length + " words is the wrong size for a " + width + "x"
+					+ height + " bitboard");
+		}
+		this.words = words;
+	}
+
+	/**
+	 * <!-- Bitboard constructor -->
+	 * 
+	 * Create a bitboard as a copy of this one
+	 * 
+	 * @param bitboard
+	 */
+	public Bitboard(Bitboard bitboard) {
+		this(bitboard.width, bitboard.height, bitboard.wrapX, bitboard.wrapY, bitboard.words);
+	}
+
+	/**
+	 * <!-- checkSize -->
+	 * 
+	 * @param width
+	 * @param height
+	 * @return <code>height</code>
+	 */
+	private static int checkSize(int width, int height) {
+		if(width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Cannot create a bitboard of size " + width + "x" + height);
+		}
+		return height;
+	}
+
+	/**
+	 * <!-- wordsFor -->
+	 * 
+	 * @param width
+	 * @param height
+	 * @return A new array of the right size to hold the words of a bitboard
+	 */
+	public static long[] wordsFor(int width, int height) {
+		return new long[checkSize(width, height) * ((width + Long.SIZE - 1) / Long.SIZE)];
+	}
+
+	/**
+	 * <!-- index -->
+	 * 
+	 * @param width
+	 * @param x
+	 * @param y
+	 * @return The position in the words of a bitboard of the given
+	 *         <code>width</code> of the word containing cell (<code>x</code>,
+	 *         <code>y</code>)
+	 */
+	public static int index(int width, int x, int y) {
+		return y * ((width + Long.SIZE - 1) / Long.SIZE) + (x >>> 6);
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	public boolean wrapX() {
+		return wrapX;
+	}
+
+	public boolean wrapY() {
+		return wrapY;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param x
+	 * @param y
+	 * @return The value of the cell at (<code>x</code>, <code>y</code>)
+	 */
+	public boolean get(int x, int y) {
+		checkCell(x, y);
+		return (words[y * rowWords + (x >>> 6)] & (1L << x)) != 0L;
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * @param x
+	 * @param y
+	 * @param value
+	 * @return A copy of this bitboard with the cell at (<code>x</code>,
+	 *         <code>y</code>) set to <code>value</code>
+	 */
+	public Bitboard set(int x, int y, boolean value) {
+		checkCell(x, y);
+		long arr[] = words.clone();
+		if(value) {
+			arr[y * rowWords + (x >>> 6)] |= 1L << x;
+		}
+		else {
+			arr[y * rowWords + (x >>> 6)] &= ~(1L << x);
+		}
+		return new Bitboard(width, height, wrapX, wrapY, arr);
+	}
+
+	private void checkCell(int x, int y) {
+		if(x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IllegalArgumentException("Cell (" + x + ", " + y + ") is outside the " + width + "x" + height
+					+ " bitboard");
+		}
+	}
+
+	/**
+	 * <!-- row -->
+	 * 
+	 * @param y
+	 * @return Row <code>y</code> of the bitboard as a bitstring
+	 */
+	public Bitstring row(int y) {
+		if(y < 0 || y >= height) {
+			throw new IllegalArgumentException("Row " + y + " is outside the range [0, " + height + "[");
+		}
+		return Bitstring.fromWords(width, Arrays.copyOfRange(words, y * rowWords, (y + 1) * rowWords));
+	}
+
+	/**
+	 * <!-- count1 -->
+	 * 
+	 * @return The number of cells set to <code>1</code>
+	 */
+	public int count1() {
+		int n = 0;
+
+		for(int i = 0; i < words.length; i++) {
+			n += Long.bitCount(words[i]);
+		}
+		return n;
+	}
+
+	/**
+	 * <!-- not -->
+	 * 
+	 * @return The complement of this bitboard
+	 */
+	public Bitboard not() {
+		long arr[] = new long[words.length];
+		long mask = lastWordMask();
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = ~words[i];
+			if(i % rowWords == rowWords - 1) {
+				arr[i] &= mask;
+			}
+		}
+		return new Bitboard(width, height, wrapX, wrapY, arr);
+	}
+
+	/**
+	 * <!-- and -->
+	 * 
+	 * @param other
+	 * @return The cellwise AND of this bitboard with <code>other</code>
+	 */
+	public Bitboard and(Bitboard other) {
+		checkSameSize("AND", other);
+		long arr[] = new long[words.length];
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = words[i] & other.words[i];
+		}
+		return new Bitboard(width, height, wrapX, wrapY, arr);
+	}
+
+	/**
+	 * <!-- or -->
+	 * 
+	 * @param other
+	 * @return The cellwise OR of this bitboard with <code>other</code>
+	 */
+	public Bitboard or(Bitboard other) {
+		checkSameSize("OR", other);
+		long arr[] = new long[words.length];
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = words[i] | other.words[i];
+		}
+		return new Bitboard(width, height, wrapX, wrapY, arr);
+	}
+
+	/**
+	 * <!-- xor -->
+	 * 
+	 * @param other
+	 * @return The cellwise XOR of this bitboard with <code>other</code>
+	 */
+	public Bitboard xor(Bitboard other) {
+		checkSameSize("XOR", other);
+		long arr[] = new long[words.length];
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = words[i] ^ other.words[i];
+		}
+		return new Bitboard(width, height, wrapX, wrapY, arr);
+	}
+
+	private void checkSameSize(String op, Bitboard other) {
+		if(other.width != width || other.height != height) {
+			throw new IllegalArgumentException("Cannot " + op + " bitboards of different sizes (" + width + "x" + height
+					+ " and " + other.width + "x" + other.height + ")");
+		}
+	}
+
+	/**
+	 * <!-- neighbours -->
+	 * 
+	 * @param neighbourhood
+	 * @param counts
+	 *          A mask with bit <code>k</code> set if a cell with <code>k</code>
+	 *          neighbours set to <code>1</code> should be <code>1</code> in the
+	 *          result
+	 * @return A bitboard with a <code>1</code> in each cell whose number of
+	 *         neighbours set to <code>1</code> is one of <code>counts</code>
+	 */
+	public Bitboard neighbours(Neighbourhood neighbourhood, int counts) {
+		return apply(Op.COUNT, neighbourhood, counts, 0);
+	}
+
+	/**
+	 * <!-- life -->
+	 * 
+	 * Compute the next generation of a Life-like cellular automaton, using the
+	 * Moore neighbourhood.
+	 * 
+	 * @param born
+	 *          A mask with bit <code>k</code> set if a <code>0</code> cell with
+	 *          <code>k</code> neighbours set to <code>1</code> becomes
+	 *          <code>1</code>
+	 * @param survive
+	 *          A mask with bit <code>k</code> set if a <code>1</code> cell with
+	 *          <code>k</code> neighbours set to <code>1</code> stays
+	 *          <code>1</code>
+	 * @return The next generation
+	 */
+	public Bitboard life(int born, int survive) {
+		return apply(Op.LIFE, Neighbourhood.MOORE, born, survive);
+	}
+
+	/**
+	 * <!-- dilate -->
+	 * 
+	 * @param neighbourhood
+	 * @return A bitboard with a <code>1</code> in every cell that is
+	 *         <code>1</code> or has a neighbour that is <code>1</code>
+	 */
+	public Bitboard dilate(Neighbourhood neighbourhood) {
+		return apply(Op.DILATE, neighbourhood, 0, 0);
+	}
+
+	/**
+	 * <!-- erode -->
+	 * 
+	 * @param neighbourhood
+	 * @return A bitboard with a <code>1</code> in every cell that is
+	 *         <code>1</code> and all of whose neighbours are <code>1</code>
+	 */
+	public Bitboard erode(Neighbourhood neighbourhood) {
+		return apply(Op.ERODE, neighbourhood, 0, 0);
+	}
+
+	/**
+	 * <!-- lastWordMask -->
+	 * 
+	 * @return A mask of the bits in the last word of a row that are cells
+	 */
+	private long lastWordMask() {
+		int r = width & (Long.SIZE - 1);
+		return r == 0 ? ~0L : ~0L >>> (Long.SIZE - r);
+	}
+
+	/**
+	 * <!-- west -->
+	 * 
+	 * @param row
+	 *          Words of the row
+	 * @param off
+	 *          Position of the first word of the row in <code>row</code>
+	 * @param i
+	 *          Word of the row wanted
+	 * @return Word <code>i</code> of the row with each cell replaced by its
+	 *         western neighbour (the one at <code>x - 1</code>)
+	 */
+	private long west(long row[], int off, int i) {
+		long w = row[off + i] << 1;
+		if(i > 0) {
+			w |= row[off + i - 1] >>> (Long.SIZE - 1);
+		}
+		else if(wrapX) {
+			w |= (row[off + rowWords - 1] >>> ((width - 1) & (Long.SIZE - 1))) & 1L;
+		}
+		return w;
+	}
+
+	/**
+	 * <!-- east -->
+	 * 
+	 * @param row
+	 *          Words of the row
+	 * @param off
+	 *          Position of the first word of the row in <code>row</code>
+	 * @param i
+	 *          Word of the row wanted
+	 * @return Word <code>i</code> of the row with each cell replaced by its
+	 *         eastern neighbour (the one at <code>x + 1</code>)
+	 */
+	private long east(long row[], int off, int i) {
+		long e = row[off + i] >>> 1;
+		if(i + 1 < rowWords) {
+			e |= row[off + i + 1] << (Long.SIZE - 1);
+		}
+		else if(wrapX) {
+			e |= (row[off] & 1L) << ((width - 1) & (Long.SIZE - 1));
+		}
+		return e;
+	}
+
+	/**
+	 * <!-- apply -->
+	 * 
+	 * @param op
+	 *          The operation to apply to each cell's neighbourhood
+	 * @param neighbourhood
+	 * @param arg1
+	 *          Accepted counts for {@link Op#COUNT}; born counts for
+	 *          {@link Op#LIFE}
+	 * @param arg2
+	 *          Survival counts for {@link Op#LIFE}
+	 * @return The resulting bitboard
+	 */
+	private Bitboard apply(Op op, Neighbourhood neighbourhood, int arg1, int arg2) {
+		long arr[] = new long[words.length];
+		long zero[] = new long[rowWords];
+		long mask = lastWordMask();
+		boolean moore = neighbourhood == Neighbourhood.MOORE;
+
+		for(int y = 0; y < height; y++) {
+			long up[] = words;
+			int upOff = (y + 1) * rowWords;
+			if(y + 1 == height) {
+				up = wrapY ? words : zero;
+				upOff = 0;
+			}
+			long down[] = words;
+			int downOff = (y - 1) * rowWords;
+			if(y == 0) {
+				down = wrapY ? words : zero;
+				downOff = wrapY ? (height - 1) * rowWords : 0;
+			}
+			int off = y * rowWords;
+
+			for(int i = 0; i < rowWords; i++) {
+				long c = words[off + i];
+				long n = up[upOff + i];
+				long s = down[downOff + i];
+				long w = west(words, off, i);
+				long e = east(words, off, i);
+				long nw = 0L, ne = 0L, sw = 0L, se = 0L;
+				if(moore) {
+					nw = west(up, upOff, i);
+					ne = east(up, upOff, i);
+					sw = west(down, downOff, i);
+					se = east(down, downOff, i);
+				}
+
+				long result;
+				switch(op) {
+				case DILATE:
+					result = c | n | s | w | e | nw | ne | sw | se;
+					break;
+				case ERODE:
+					result = c & n & s & w & e;
+					if(moore) {
+						result &= nw & ne & sw & se;
+					}
+					break;
+				case COUNT:
+				case LIFE:
+					// Bit-sliced sum of the neighbours into b0 (1s) to b3 (8s)
+					long b0, b1, b2, b3;
+					if(moore) {
+						long s1 = n ^ s ^ w;
+						long c1 = (n & s) | (w & (n ^ s));
+						long s2 = e ^ nw ^ ne;
+						long c2 = (e & nw) | (ne & (e ^ nw));
+						long s3 = sw ^ se;
+						long c3 = sw & se;
+						b0 = s1 ^ s2 ^ s3;
+						long k1 = (s1 & s2) | (s3 & (s1 ^ s2));
+						long t = c1 ^ c2 ^ c3;
+						long k2 = (c1 & c2) | (c3 & (c1 ^ c2));
+						b1 = t ^ k1;
+						long k3 = t & k1;
+						b2 = k2 ^ k3;
+						b3 = k2 & k3;
+					}
+					else {
+						long s1 = n ^ s ^ w;
+						long c1 = (n & s) | (w & (n ^ s));
+						b0 = s1 ^ e;
+						long k1 = s1 & e;
+						b1 = c1 ^ k1;
+						b2 = c1 & k1;
+						b3 = 0L;
+					}
+					if(op == Op.COUNT) {
+						result = inCounts(arg1, b0, b1, b2, b3);
+					}
+					else {
+						result = (~c & inCounts(arg1, b0, b1, b2, b3)) | (c & inCounts(arg2, b0, b1, b2, b3));
+					}
+					break;
+				default:
+					throw new RuntimeException("PANIC!");
+				}
+				arr[off + i] = i == rowWords - 1 ? result & mask : result;
+			}
+		}
+		return new Bitboard(width, height, wrapX, wrapY, arr);
+	}
+
+	/**
+	 * <!-- inCounts -->
+	 * 
+	 * @param counts
+	 *          A mask of accepted counts (bit <code>k</code> for a count of
+	 *          <code>k</code>)
+	 * @param b0
+	 *          Bit 0 of the counts
+	 * @param b1
+	 *          Bit 1 of the counts
+	 * @param b2
+	 *          Bit 2 of the counts
+	 * @param b3
+	 *          Bit 3 of the counts
+	 * @return A word with a <code>1</code> for each count that is accepted
+	 */
+	private static long inCounts(int counts, long b0, long b1, long b2, long b3) {
+		long result = 0L;
+
+		for(int k = 0; k <= 8; k++) {
+			if((counts & (1 << k)) != 0) {
+				result |= ((k & 1) != 0 ? b0 : ~b0) & ((k & 2) != 0 ? b1 : ~b1) & ((k & 4) != 0 ? b2 : ~b2)
+						& ((k & 8) != 0 ? b3 : ~b3);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <!-- words -->
+	 * 
+	 * @return The words of the bitboard, which must not be modified
+	 */
+	public long[] words() {
+		return words;
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return The width, height and whether the bitboard wraps horizontally and
+	 *         vertically, followed by each row as a string of 1s and 0s, all
+	 *         separated by spaces
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buff = new StringBuilder();
+
+		buff.append(width).append(" ").append(height).append(" ").append(wrapX).append(" ").append(wrapY);
+		for(int y = 0; y < height; y++) {
+			buff.append(" ");
+			for(int x = 0; x < width; x++) {
+				buff.append((words[y * rowWords + (x >>> 6)] & (1L << x)) != 0L ? '1' : '0');
+			}
+		}
+		return buff.toString();
+	}
+
+	/**
+	 * <!-- parse -->
+	 * 
+	 * @param strs
+	 *          The space-separated parts of a string in the format returned by
+	 *          {@link #toString()}
+	 * @return The words of the bitboard described by <code>string</code>, for
+	 *         passing to the constructor along with its size
+	 */
+	protected static long[] parse(String strs[]) {
+		int width = Integer.parseInt(strs[0]);
+		int height = Integer.parseInt(strs[1]);
+		if(strs.length != height + 4) {
+			throw new IllegalArgumentException("Expected " + height + " rows for bitboard, but got " + (strs.length - 4));
+		}
+		long arr[] = wordsFor(width, height);
+
+		for(int y = 0; y < height; y++) {
+			String row = strs[y + 4];
+			if(row.length() != width || !Bitstring.is10(row)) {
+				throw new IllegalArgumentException("Row " + y + " of bitboard (\"" + row + "\") is not " + width
+						+ " 1s and 0s");
+			}
+			for(int x = 0; x < width; x++) {
+				if(Bitstring.is1(row.charAt(x))) {
+					arr[index(width, x, y)] |= 1L << x;
+				}
+			}
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- equals -->
+	 * 
+	 * @param oother
+	 * @return <code>true</code> if this bitboard has the same size, topology and
+	 *         cells as the other
+	 */
+	@Override
+	public boolean equals(Object oother) {
+		if(!(oother instanceof Bitboard)) {
+			return false;
+		}
+		Bitboard other = (Bitboard)oother;
+		return width == other.width && height == other.height && wrapX == other.wrapX && wrapY == other.wrapY
+				&& Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words);
+	}
+}
@@ -0,0 +1,2976 @@
+package uk.ac.hutton.bitstring;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+
+/**
+ * Bitstring.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Bitstring -->
+ * 
+ * The bits are stored in an array of <code>long</code> words. Bit
+ * <code>i</code> of the bitstring is bit <code>i % 64</code> (counting from
+ * the least significant bit) of word <code>i / 64</code>. Any bits in the last
+ * word beyond the length of the bitstring are always <code>0</code>.
+ * 
+ * A sub-bitstring may instead be a slice, sharing the words of the bitstring
+ * it was taken from starting at an offset, until something needs its words in
+ * the layout above. All access to the words of a bitstring other than
+ * {@link #get(int)} therefore goes through {@link #words()}.
+ * 
+ * Bitstrings of at least {@link #ROPE_THRESHOLD} bits made by changing a bit
+ * or adding bits at either end are instead held as a {@link Rope}, a persistent
+ * tree of blocks of words, so that such changes share all but a few blocks
+ * with the bitstring they came from. Their words are likewise only put
+ * together when first needed.
+ * 
+ * Bitstrings of no more than 64 bits also have their bits in a single
+ * <code>long</code> field, which the commonest operations use directly, so
+ * that these need allocate nothing but the bitstring they return.
+ * 
+ * Long bitstrings in which nearly every bit is the same are held as the
+ * positions of the few bits that are not (see {@link SparseBits}), so that
+ * counting and the bitwise operations on them take time proportional to the
+ * number of such bits. This is decided when the bitstring is made.
+ * 
+ * Bitstrings put in an {@link Arena} keep their words off the heap, and copy
+ * them onto it, without keeping them, whenever {@link #words()} is asked for
+ * them.
+ * 
+ * Methods using random numbers take the generator to draw them from, so that
+ * their results can be reproduced; versions without one use a new generator
+ * with an arbitrary seed.
+ * 
+ * @author Gary Polhill
+ */
+public class Bitstring implements Collection<Boolean>, RandomAccess, Cloneable {
+
+	public static final String EMPTY_BITSTRING_STRING = "<empty>";
+
+	/**
+	 * How {@link Bitstring#majority(Bitstring[], Tie)} decides a bit when
+	 * exactly half the bitstrings have it set
+	 */
+	public enum Tie {
+		ZERO, ONE, RANDOM, FIRST
+	};
+
+	/**
+	 * What {@link Bitstring#caStep(int, Boundary)} treats as the neighbours of
+	 * the first and last bits
+	 */
+	public enum Boundary {
+		PERIODIC, ZERO, ONE
+	};
+
+	/**
+	 * A sub-bitstring is only made as a slice sharing words with the bitstring
+	 * it is taken from if it is at least 1/<code>SLICE_FRACTION</code> of the
+	 * size of those words, so a short slice does not keep a long array from
+	 * being garbage collected
+	 */
+	public static final int SLICE_FRACTION = 4;
+
+	/**
+	 * Smallest length of bitstring for which {@link #set(int, boolean)},
+	 * {@link #append(Bitstring)}, {@link #append(boolean)} and
+	 * {@link #prepend(boolean)} make the result a {@link Rope}
+	 */
+	public static final int ROPE_THRESHOLD = 1 << 16;
+
+	private final int length;
+
+	/**
+	 * The bits of a bitstring of no more than 64 bits, with any beyond
+	 * <code>length</code> set to 0; 0 for a longer bitstring. Operations on
+	 * such short bitstrings use this directly, and an inline bitstring made by
+	 * one has no words until {@link #words()} is asked for them.
+	 */
+	private final long small;
+
+	/**
+	 * The bits, least significant first, with any bits beyond
+	 * <code>length</code> set to 0; <code>null</code> in a slice, rope, inline
+	 * or sparse bitstring that has not been materialised (see {@link #words()})
+	 */
+	private volatile long words[];
+
+	/**
+	 * The words of the bitstring this one is a slice of, until it is
+	 * materialised; <code>null</code> otherwise
+	 */
+	private volatile long base[] = null;
+
+	/**
+	 * The position in <code>base</code> of the first bit of a slice, or the
+	 * address of the words of a bitstring in an arena
+	 */
+	private final int offset;
+
+	/**
+	 * The arena holding the words of this bitstring; <code>null</code> if they
+	 * are on the heap
+	 */
+	private final Arena arena;
+
+	/**
+	 * The bits as a persistent tree, for a long bitstring that has been changed
+	 * or extended; <code>null</code> otherwise. This is kept after the words are
+	 * materialised, so that further changes can share it.
+	 */
+	private volatile Rope rope = null;
+
+	/**
+	 * The bits as the positions of the few that differ from the rest, for a long
+	 * bitstring in which nearly every bit is the same; <code>null</code>
+	 * otherwise. This is kept after the words are materialised.
+	 */
+	private final SparseBits sparse;
+
+	/**
+	 * Rank directory used to answer {@link #rank(int)} and {@link #select(int)}
+	 * queries, built the first time one is asked for
+	 */
+	private volatile RankDirectory rankDirectory = null;
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Create an empty bitstring
+	 * 
+	 * @param length
+	 *          The length of the bitstring
+	 */
+	public Bitstring(int length) {
+		this(length, false);
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Create a bitstring with every bit set to the given value
+	 * 
+	 * @param length
+	 *          The length of the bitstring
+	 * @param set
+	 *          <code>true</code> to set every bit to <code>1</code>;
+	 *          <code>false</code> to set every bit to <code>0</code>
+	 */
+	public Bitstring(int length, boolean set) {
+		if(length < 0) {
+			throw new IllegalArgumentException("Cannot create a bitstring with negative length " + length);
+		}
+		this.length = length;
+		this.words = new long[nWords(length)];
+		this.offset = 0;
+		this.arena = null;
+		if(set && length > 0) {
+			Arrays.fill(words, ~0L);
+			words[words.length - 1] = lastWordMask(length);
+		}
+		this.sparse = SparseBits.choose(length, words);
+		if(sparse != null) this.words = null;
+		this.small = inlineBits(length, words);
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Create a bitstring as a copy of this one
+	 * 
+	 * @param bitstring
+	 */
+	public Bitstring(Bitstring bitstring) {
+		this.length = bitstring.length;
+		synchronized(bitstring) {
+			this.words = bitstring.words;
+			this.base = bitstring.base;
+			this.offset = bitstring.offset;
+		}
+		this.arena = bitstring.arena;
+		this.rope = bitstring.rope;
+		this.rankDirectory = bitstring.rankDirectory;
+		this.sparse = bitstring.sparse;
+		this.small = bitstring.small;
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Create a bitstring from a String
+	 * 
+	 * @param string
+	 */
+	public Bitstring(String string) {
+		if(string.equals(EMPTY_BITSTRING_STRING)) string = "";
+		this.length = string.length();
+		this.words = new long[nWords(length)];
+		this.offset = 0;
+		this.arena = null;
+		for(int i = 0; i < length; i++) {
+			if(is1(string.charAt(i))) {
+				words[bitToArr(i)] |= getBit(i);
+			}
+			else if(!is0(string.charAt(i))) {
+				throw new IllegalArgumentException("Cannot initialise bitstring from string \"" + string
+						+ "\" because character at element " + i + " is not interpretable as a boolean");
+			}
+		}
+		this.sparse = SparseBits.choose(length, words);
+		if(sparse != null) this.words = null;
+		this.small = inlineBits(length, words);
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Create a random bitstring with the specified probability of each bit being
+	 * set to 1
+	 * 
+	 * @param length
+	 *          The length of the bitstring
+	 * @param probability
+	 *          The probability of setting each bit to 1
+	 */
+	public Bitstring(int length, double probability) {
+		this(length, probability, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Create a random bitstring with the specified probability of each bit being
+	 * set to 1
+	 * 
+	 * @param length
+	 *          The length of the bitstring
+	 * @param probability
+	 *          The probability of setting each bit to 1
+	 * @param rng
+	 *          The random number generator to use
+	 */
+	public Bitstring(int length, double probability, SplittableRandom rng) {
+		if(length < 0) {
+			throw new IllegalArgumentException("Cannot create a bitstring with negative length " + length);
+		}
+		this.length = length;
+		this.words = new long[nWords(length)];
+		this.offset = 0;
+		this.arena = null;
+		if(probability == 0.5 && length > 0) {
+			for(int i = 0; i < words.length; i++) {
+				words[i] = rng.nextLong();
+			}
+			words[words.length - 1] &= lastWordMask(length);
+		}
+		else {
+			for(int i = 0; i < length; i++) {
+				if(rng.nextDouble() < probability) {
+					words[bitToArr(i)] |= getBit(i);
+				}
+			}
+		}
+		this.sparse = SparseBits.choose(length, words);
+		if(sparse != null) this.words = null;
+		this.small = inlineBits(length, words);
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Build a bitstring using an iterable of booleans.
+	 * 
+	 * @param input
+	 */
+	public Bitstring(Iterable<Boolean> input) {
+		long arr[] = new long[1];
+		int n = 0;
+
+		for(Boolean bit: input) {
+			if(bitToArr(n) >= arr.length) {
+				arr = Arrays.copyOf(arr, arr.length * 2);
+			}
+			if(bit) {
+				arr[bitToArr(n)] |= getBit(n);
+			}
+			n++;
+		}
+
+		this.length = n;
+		this.words = arr.length == nWords(n) ? arr : Arrays.copyOf(arr, nWords(n));
+		this.offset = 0;
+		this.arena = null;
+		this.sparse = SparseBits.choose(length, words);
+		if(sparse != null) this.words = null;
+		this.small = inlineBits(length, words);
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Private constructor to build a bitstring from an array of words. The
+	 * bitstring takes ownership of the array, which must not be modified
+	 * afterwards, and which must have any bits beyond <code>length</code> set to
+	 * 0.
+	 * 
+	 * @param length
+	 *          The length of the bitstring
+	 * @param arr
+	 *          The array to initialise from
+	 */
+	private Bitstring(int length, long arr[]) {
+		this.length = length;
+		this.words = arr;
+		this.offset = 0;
+		this.arena = null;
+		this.sparse = SparseBits.choose(length, words);
+		if(sparse != null) this.words = null;
+		this.small = inlineBits(length, words);
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Private constructor to build a slice of a bitstring that shares its words.
+	 * 
+	 * @param length
+	 *          The length of the slice
+	 * @param base
+	 *          The words of the bitstring the slice is of, which must not be
+	 *          modified afterwards
+	 * @param offset
+	 *          The position in <code>base</code> of the first bit of the slice
+	 */
+	private Bitstring(int length, long base[], int offset) {
+		this.length = length;
+		this.words = null;
+		this.base = base;
+		this.offset = offset;
+		this.arena = null;
+		this.sparse = null;
+		this.small = 0L;
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Private constructor to build an inline bitstring of no more than 64 bits
+	 * 
+	 * @param bits
+	 *          The bits, with any beyond <code>length</code> set to 0
+	 * @param length
+	 *          The length of the bitstring
+	 */
+	private Bitstring(long bits, int length) {
+		this.length = length;
+		this.words = null;
+		this.offset = 0;
+		this.arena = null;
+		this.sparse = null;
+		this.small = bits;
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Private constructor to build a bitstring held as a rope
+	 * 
+	 * @param rope
+	 */
+	private Bitstring(Rope rope) {
+		this.length = rope.length();
+		this.words = null;
+		this.offset = 0;
+		this.arena = null;
+		this.rope = rope;
+		this.sparse = null;
+		this.small = 0L;
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Private constructor to build a bitstring held as the positions of the bits
+	 * that differ from the rest
+	 * 
+	 * @param sparse
+	 */
+	private Bitstring(SparseBits sparse) {
+		this.length = sparse.length();
+		this.words = null;
+		this.offset = 0;
+		this.arena = null;
+		this.sparse = sparse;
+		this.small = 0L;
+	}
+
+	/**
+	 * <!-- Bitstring constructor -->
+	 * 
+	 * Private constructor to build a bitstring with its words in an arena
+	 * 
+	 * @param length
+	 *          The length of the bitstring, which must be more than 64
+	 * @param arena
+	 * @param address
+	 *          The address of the words in <code>arena</code>
+	 */
+	private Bitstring(int length, Arena arena, int address) {
+		this.length = length;
+		this.words = null;
+		this.offset = address;
+		this.arena = arena;
+		this.sparse = null;
+		this.small = 0L;
+	}
+
+	/**
+	 * <!-- is1 -->
+	 * 
+	 * @param chr
+	 * @return <code>true</code> if <code>chr</code> is recognised as one of those
+	 *         that will be interpreted as a 1 in a bitstring
+	 */
+	public static boolean is1(char chr) {
+		return chr == '1' || chr == 't' || chr == 'T' || chr == 'y' || chr == 'Y';
+	}
+
+	/**
+	 * <!-- is0 -->
+	 * 
+	 * @param chr
+	 * @return <code>true</code> if <code>chr</code> is recognised as one of those
+	 *         that will be interpreted as a 0 in a bitstring
+	 */
+	public static boolean is0(char chr) {
+		return chr == '0' || chr == 'f' || chr == 'F' || chr == 'n' || chr == 'N';
+	}
+
+	/**
+	 * <!-- nWords -->
+	 * 
+	 * @param length
+	 * @return The number of words needed to store a bitstring of the given
+	 *         <code>length</code>
+	 */
+	private static int nWords(int length) {
+		return (int)(((long)length + Long.SIZE - 1) >>> 6);
+	}
+
+	/**
+	 * <!-- bitToArr -->
+	 * 
+	 * @param bit
+	 * @return The position in an array of words that the <code>bit</code> in
+	 *         the bitstring is to be found in
+	 */
+	private static int bitToArr(int bit) {
+		return bit >>> 6;
+	}
+
+	/**
+	 * <!-- bitInArr -->
+	 * 
+	 * @param bit
+	 * @return The position in the bits of a particular word that the
+	 *         <code>bit</code> is found in
+	 */
+	private static int bitInArr(int bit) {
+		return bit & (Long.SIZE - 1);
+	}
+
+	/**
+	 * <!-- getBit -->
+	 * 
+	 * @param bit
+	 * @return A word with a single bit set in the appropriate place given the
+	 *         position <code>bit</code> in the bitstring as a whole
+	 */
+	private static long getBit(int bit) {
+		return 1L << bitInArr(bit);
+	}
+
+	/**
+	 * <!-- butBit -->
+	 * 
+	 * @param bit
+	 * @return A word with all bits set to 1 except the bit in the appropriate
+	 *         place given the position <code>bit</code> in the bitstring as a
+	 *         whole
+	 */
+	private static long butBit(int bit) {
+		return ~getBit(bit);
+	}
+
+	/**
+	 * <!-- lastWordMask -->
+	 * 
+	 * @param length
+	 * @return A mask with 1 where a bit in the last word of a bitstring with the
+	 *         given <code>length</code> is part of the bitstring and 0 elsewhere
+	 */
+	private static long lastWordMask(int length) {
+		return bitInArr(length) == 0 ? ~0L : ~0L >>> (Long.SIZE - bitInArr(length));
+	}
+
+	/**
+	 * <!-- inlineBits -->
+	 * 
+	 * @param length
+	 * @param arr
+	 *          The words of a bitstring of the given <code>length</code>
+	 * @return The value for {@link #small} of the bitstring
+	 */
+	private static long inlineBits(int length, long arr[]) {
+		return length > 0 && length <= Long.SIZE ? arr[0] : 0L;
+	}
+
+	/**
+	 * <!-- inlineMask -->
+	 * 
+	 * @param length
+	 *          A length of no more than 64
+	 * @return A mask of the bits of an inline bitstring of the given
+	 *         <code>length</code>
+	 */
+	private static long inlineMask(int length) {
+		return length == 0 ? 0L : lastWordMask(length);
+	}
+
+	/**
+	 * <!-- to10 -->
+	 * 
+	 * @param string
+	 * @return A conversion of the string into a string of
+	 *         <code>1<code>s (where the string has a <code>1</code>,
+	 *         <code>t</code>, <code>T</code>, <code>y</code>, or <code>Y</code>)
+	 *         and 0s (any other value)
+	 */
+	public static String to10(CharSequence string) {
+		StringBuffer buff = new StringBuffer();
+
+		for(int i = 0; i < string.length(); i++) {
+			if(is1(string.charAt(i))) {
+				buff.append("1");
+			}
+			else {
+				buff.append("0");
+			}
+		}
+
+		return buff.toString();
+	}
+
+	/**
+	 * <!-- is10 -->
+	 * 
+	 * @param string
+	 * @return <code>true</code> if all characters in the <code>string</code> are
+	 *         interpretable as a 1 or a 0
+	 */
+	public static boolean is10(CharSequence string) {
+		for(int i = 0; i < string.length(); i++) {
+			if(!(is1(string.charAt(i)) || is0(string.charAt(i)))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param bit
+	 * @return The value of the <code>bit</code><sup>th</sup> bit in the bitstring
+	 *         as a boolean
+	 */
+	public boolean get(int bit) {
+		if(bit < 0 || bit >= length) {
+			throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+		}
+		if(length <= Long.SIZE) {
+			return (small & getBit(bit)) != 0;
+		}
+		long arr[] = words;
+		if(arr == null) {
+			if(sparse != null) {
+				return sparse.get(bit);
+			}
+			if(arena != null) {
+				return arena.get(offset, bit);
+			}
+			// Reading base after words means it can only be null if words has been
+			// set by a concurrent call to words()
+			long src[] = base;
+			if(src != null) {
+				return (src[bitToArr(offset + bit)] & getBit(offset + bit)) != 0;
+			}
+			Rope tree = rope;
+			if(tree != null) {
+				return tree.get(bit);
+			}
+			arr = words;
+		}
+		return (arr[bitToArr(bit)] & getBit(bit)) != 0;
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * @param bit
+	 * @param value
+	 * @return A new bitstring that is a copy of this one, but with the
+	 *         <code>bit</code><sup>th</sup> bit set to the specified
+	 *         <code>value</code>
+	 */
+	public Bitstring set(int bit, boolean value) {
+		if(bit < 0 || bit >= length) {
+			throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+		}
+		if(length <= Long.SIZE) {
+			return new Bitstring(value ? small | getBit(bit) : small & butBit(bit), length);
+		}
+		if(sparse != null) {
+			return fromSparse(sparse.set(bit, value));
+		}
+		if(length >= ROPE_THRESHOLD) {
+			return new Bitstring(rope().set(bit, value));
+		}
+		long words[] = words();
+		long arr[] = words.clone();
+		if(value) {
+			arr[bitToArr(bit)] |= getBit(bit);
+		}
+		else {
+			arr[bitToArr(bit)] &= butBit(bit);
+		}
+
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * @param bit
+	 * @return A Bitstring that is the same as this one but with bit
+	 *         <code>bit</code> definitely set to 1
+	 */
+	public Bitstring set(int bit) {
+		return set(bit, true);
+	}
+
+	/**
+	 * <!-- unset -->
+	 * 
+	 * @param bit
+	 * @return A Bitstring that is the same as this one but with bit
+	 *         <code>bit</code> definitely set to 0
+	 */
+	public Bitstring unset(int bit) {
+		return set(bit, false);
+	}
+
+	/**
+	 * <!-- toggle -->
+	 * 
+	 * @param bit
+	 * @return A Bitstring that is the same as this one but with bit
+	 *         <code>bit</code> set to the opposite of what it is now
+	 */
+	public Bitstring toggle(int bit) {
+		return set(bit, !get(bit));
+	}
+
+	/**
+	 * <!-- jitter -->
+	 * 
+	 * @param prob
+	 * @return A Bitstring that is the same as this one but with each bit
+	 *         {@link #toggle(int)}-ed with probability <code>prob</code>
+	 */
+	public Bitstring jitter(double prob) {
+		return jitter(prob, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- jitter -->
+	 * 
+	 * The gaps between the bits toggled are drawn from a geometric distribution,
+	 * so this takes time proportional to the number of bits toggled rather than
+	 * to the length.
+	 * 
+	 * @param prob
+	 * @param rng
+	 *          The random number generator to use
+	 * @return A Bitstring that is the same as this one but with each bit
+	 *         {@link #toggle(int)}-ed with probability <code>prob</code>
+	 */
+	public Bitstring jitter(double prob, SplittableRandom rng) {
+		if(length == 0 || prob <= 0.0) {
+			return clone();
+		}
+		if(prob >= 1.0) {
+			return not();
+		}
+		long arr[] = words().clone();
+		toggleRandom(arr, length, prob, rng);
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- toggleRandom -->
+	 * 
+	 * Toggle each of the first <code>length</code> bits of <code>arr</code>
+	 * with probability <code>prob</code>, drawing the gaps between the bits
+	 * toggled from a geometric distribution.
+	 * 
+	 * @param arr
+	 * @param length
+	 * @param prob
+	 *          Probability, which must be in the range ]0, 1[
+	 * @param rng
+	 */
+	private static void toggleRandom(long arr[], int length, double prob, SplittableRandom rng) {
+		double logq = Math.log1p(-prob);
+		long bit = -1;
+
+		while(true) {
+			double gap = Math.floor(Math.log(1.0 - rng.nextDouble()) / logq);
+			if(gap >= length - 1 - bit) {
+				break;
+			}
+			bit += 1 + (long)gap;
+			arr[(int)(bit >>> 6)] ^= 1L << bit;
+		}
+	}
+
+	/**
+	 * <!-- jitter -->
+	 * 
+	 * @param probs
+	 *          An array of probabilities, which must have the same length as the
+	 *          number of bits in this bitstring
+	 * @return A Bitstring that is the same as this one but with each bit
+	 *         {@link #toggle(int)}-ed with probability in the corresponding
+	 *         element of <code>probs[]</code>
+	 */
+	public Bitstring jitter(double probs[]) {
+		return jitter(probs, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- jitter -->
+	 * 
+	 * @param probs
+	 *          An array of probabilities, which must have the same length as the
+	 *          number of bits in this bitstring
+	 * @param rng
+	 *          The random number generator to use
+	 * @return A Bitstring that is the same as this one but with each bit
+	 *         {@link #toggle(int)}-ed with probability in the corresponding
+	 *         element of <code>probs[]</code>
+	 */
+	public Bitstring jitter(double probs[], SplittableRandom rng) {
+		long words[] = words();
+		if(probs.length != length) {
+			throw new IllegalArgumentException("Probability array has a different length (" + probs.length
+					+ ") from  that of the bitstring (" + length + ")");
+		}
+		if(length == 0) {
+			return clone();
+		}
+		long arr[] = words.clone();
+		for(int i = 0; i < length; i++) {
+			if(rng.nextDouble() < probs[i]) {
+				arr[bitToArr(i)] ^= getBit(i);
+			}
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- subbitstring -->
+	 * 
+	 * Return a sub-bitstring of this one, with <code>start</code> as the first
+	 * element to include (starting at 0), and <code>finish</code> as the first
+	 * element not to include. For example, given the bitstring <code>00110</code>
+	 * ,
+	 * subbitstring(2, 3) would be the bitstring <code>11</code>.
+	 * 
+	 * Unless it is much shorter than the words it would share, the sub-bitstring
+	 * is a slice sharing this one's words, taking constant time to make. A slice
+	 * only copies its bits into words of its own (see {@link #words()}) when
+	 * first used for something other than {@link #get(int)}, {@link #size()} or
+	 * taking further slices, so peeling bits off either end one at a time does
+	 * not copy the whole bitstring each time.
+	 * 
+	 * @param start
+	 * @param finish
+	 * @return A Bitstring that is a part of this one's sequence in the range [
+	 *         <code>start</code>, <code>finish</code>[
+	 */
+	public Bitstring subbitstring(int start, int finish) {
+		if(start < 0 || start > length) {
+			throw new IllegalArgumentException("Start index " + start + " is outside the range [0, " + length + "]");
+		}
+		if(finish < 0 || finish > length) {
+			throw new IllegalArgumentException("Finish index " + finish + " is outside the range [0, " + length + "]");
+		}
+		if(finish < start) {
+			throw new IllegalArgumentException("Finish index " + finish + " must be >= start index " + start);
+		}
+
+		if(length <= Long.SIZE) {
+			return new Bitstring((small >>> start) & inlineMask(finish - start), finish - start);
+		}
+
+		long src[];
+		int pos;
+		synchronized(this) {
+			src = words;
+			pos = start;
+			if(src == null && base != null) {
+				src = base;
+				pos += offset;
+			}
+		}
+		if(src == null) {
+			src = words();
+		}
+		if(finish - start > Long.SIZE && (long)(finish - start) * SLICE_FRACTION >= (long)src.length * Long.SIZE) {
+			return new Bitstring(finish - start, src, pos);
+		}
+
+		long arr[] = new long[nWords(finish - start)];
+		copyBits(src, pos, arr, 0, finish - start);
+		return new Bitstring(finish - start, arr);
+	}
+
+	/**
+	 * <!-- append -->
+	 * 
+	 * @param other
+	 * @return A bitstring formed of the concatenation of this one with
+	 *         <code>other</code>
+	 */
+	public Bitstring append(Bitstring other) {
+		if(length + other.length <= Long.SIZE) {
+			return new Bitstring(small | (other.small << length), length + other.length);
+		}
+		if(length + other.length >= ROPE_THRESHOLD) {
+			return new Bitstring(Rope.concat(rope(), other.rope()));
+		}
+		long words[] = words();
+
+		long arr[] = Arrays.copyOf(words, nWords(this.length + other.length));
+		copyBits(other.words(), 0, arr, this.length, other.length);
+
+		return new Bitstring(this.length + other.length, arr);
+	}
+
+	/**
+	 * <!-- append -->
+	 * 
+	 * @param value
+	 * @return A bitstring one bit longer than this one, with the last bit set to
+	 *         <code>value</code>
+	 */
+	public Bitstring append(boolean value) {
+		if(length + 1 <= Long.SIZE) {
+			return new Bitstring(value ? small | getBit(length) : small, length + 1);
+		}
+		if(length + 1 >= ROPE_THRESHOLD) {
+			return new Bitstring(Rope.concat(rope(), Rope.bit(value)));
+		}
+		long arr[] = Arrays.copyOf(words(), nWords(length + 1));
+		if(value) {
+			arr[bitToArr(length)] |= getBit(length);
+		}
+		return new Bitstring(length + 1, arr);
+	}
+
+	/**
+	 * <!-- prepend -->
+	 * 
+	 * @param value
+	 * @return A bitstring one bit longer than this one, with the first bit set
+	 *         to <code>value</code>
+	 */
+	public Bitstring prepend(boolean value) {
+		if(length + 1 <= Long.SIZE) {
+			return new Bitstring((small << 1) | (value ? 1L : 0L), length + 1);
+		}
+		if(length + 1 >= ROPE_THRESHOLD) {
+			return new Bitstring(Rope.concat(Rope.bit(value), rope()));
+		}
+		long arr[] = new long[nWords(length + 1)];
+		copyBits(words(), 0, arr, 1, length);
+		if(value) {
+			arr[0] |= 1L;
+		}
+		return new Bitstring(length + 1, arr);
+	}
+
+	/**
+	 * <!-- concat -->
+	 * 
+	 * @param bitstrings
+	 * @return The concatenation of all the <code>bitstrings</code>, built in a
+	 *         single array with each one shifted into place a word at a time
+	 */
+	public static Bitstring concat(Bitstring bitstrings[]) {
+		long total = 0L;
+		for(int i = 0; i < bitstrings.length; i++) {
+			total += bitstrings[i].length;
+		}
+		if(total > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cannot concatenate bitstrings with a total length of " + total);
+		}
+
+		long arr[] = new long[nWords((int)total)];
+		int pos = 0;
+		for(int i = 0; i < bitstrings.length; i++) {
+			long src[] = bitstrings[i].words();
+			int j = bitToArr(pos);
+			int shift = bitInArr(pos);
+
+			if(shift == 0) {
+				System.arraycopy(src, 0, arr, j, src.length);
+			}
+			else {
+				for(int k = 0; k < src.length; k++) {
+					arr[j + k] |= src[k] << shift;
+					if(j + k + 1 < arr.length) {
+						arr[j + k + 1] |= src[k] >>> (Long.SIZE - shift);
+					}
+				}
+			}
+			pos += bitstrings[i].length;
+		}
+		return new Bitstring(pos, arr);
+	}
+
+	/**
+	 * <!-- copyBits -->
+	 * 
+	 * Copy <code>n</code> bits from <code>src</code> starting at bit
+	 * <code>srcPos</code> into <code>dst</code> starting at bit
+	 * <code>dstPos</code>, a word at a time. Bits in <code>dst</code> outside the
+	 * range written to are left as they are.
+	 * 
+	 * @param src
+	 * @param srcPos
+	 * @param dst
+	 * @param dstPos
+	 * @param n
+	 */
+	private static void copyBits(long src[], int srcPos, long dst[], int dstPos, int n) {
+		while(n > 0) {
+			int shift = bitInArr(dstPos);
+			int chunk = Math.min(n, Long.SIZE - shift);
+			long bits = extractWord(src, srcPos) & (chunk == Long.SIZE ? ~0L : (1L << chunk) - 1L);
+			int j = bitToArr(dstPos);
+
+			dst[j] = (dst[j] & ~((chunk == Long.SIZE ? ~0L : (1L << chunk) - 1L) << shift)) | (bits << shift);
+			srcPos += chunk;
+			dstPos += chunk;
+			n -= chunk;
+		}
+	}
+
+	/**
+	 * <!-- extractWord -->
+	 * 
+	 * @param src
+	 * @param pos
+	 * @return The 64 bits of <code>src</code> starting at bit <code>pos</code>,
+	 *         with any bits beyond the end of <code>src</code> as 0
+	 */
+	private static long extractWord(long src[], int pos) {
+		int j = bitToArr(pos);
+		int shift = bitInArr(pos);
+		long lo = j < src.length ? src[j] >>> shift : 0L;
+
+		if(shift == 0 || j + 1 >= src.length) {
+			return lo;
+		}
+		return lo | (src[j + 1] << (Long.SIZE - shift));
+	}
+
+	/**
+	 * <!-- not -->
+	 * 
+	 * @return The complement of this bitstring
+	 */
+	public Bitstring not() {
+		if(length <= Long.SIZE) {
+			return new Bitstring(~small & inlineMask(length), length);
+		}
+		if(sparse != null) {
+			return new Bitstring(sparse.not());
+		}
+		if(arena != null) {
+			LongBuffer words = buffer();
+			long arr[] = new long[words.limit()];
+
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] = ~words.get(i);
+			}
+			arr[arr.length - 1] &= lastWordMask(length);
+			return new Bitstring(length, arr);
+		}
+		long words[] = words();
+		long arr[] = new long[words.length];
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = ~words[i];
+		}
+		arr[arr.length - 1] &= lastWordMask(length);
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- and -->
+	 * 
+	 * @param other
+	 * @return The bitwise AND of this bitstring with <code>other</code>
+	 */
+	public Bitstring and(Bitstring other) {
+		if(other.length != this.length) {
+			throw new IllegalArgumentException("Cannot AND bitstrings of different lengths (" + this.length + " and "
+					+ other.length + ")");
+		}
+		if(length <= Long.SIZE) {
+			return new Bitstring(small & other.small, length);
+		}
+		if(sparse != null && other.sparse != null) {
+			return fromSparse(SparseBits.and(sparse, other.sparse));
+		}
+		else if(sparse != null && !sparse.zeros()) {
+			return fromSparse(sparse.restrict(other, true));
+		}
+		else if(other.sparse != null && !other.sparse.zeros()) {
+			return fromSparse(other.sparse.restrict(this, true));
+		}
+		if(arena != null || other.arena != null) {
+			LongBuffer words = buffer();
+			LongBuffer that = other.buffer();
+			long arr[] = new long[words.limit()];
+
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] = words.get(i) & that.get(i);
+			}
+			return new Bitstring(length, arr);
+		}
+		long words[] = words();
+		long arr[] = new long[words.length];
+		long that[] = other.words();
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = words[i] & that[i];
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- or -->
+	 * 
+	 * @param other
+	 * @return The bitwise OR of this bitstring with <code>other</code>
+	 */
+	public Bitstring or(Bitstring other) {
+		if(other.length != this.length) {
+			throw new IllegalArgumentException("Cannot OR bitstrings of different lengths (" + this.length + " and "
+					+ other.length + ")");
+		}
+		if(length <= Long.SIZE) {
+			return new Bitstring(small | other.small, length);
+		}
+		if(sparse != null && other.sparse != null) {
+			return fromSparse(SparseBits.or(sparse, other.sparse));
+		}
+		else if(sparse != null && sparse.zeros()) {
+			return fromSparse(sparse.restrict(other, false));
+		}
+		else if(other.sparse != null && other.sparse.zeros()) {
+			return fromSparse(other.sparse.restrict(this, false));
+		}
+		if(arena != null || other.arena != null) {
+			LongBuffer words = buffer();
+			LongBuffer that = other.buffer();
+			long arr[] = new long[words.limit()];
+
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] = words.get(i) | that.get(i);
+			}
+			return new Bitstring(length, arr);
+		}
+		long words[] = words();
+		long arr[] = new long[words.length];
+		long that[] = other.words();
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = words[i] | that[i];
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- xor -->
+	 * 
+	 * @param other
+	 * @return The bitwise XOR of this bitstring with <code>other</code>
+	 */
+	public Bitstring xor(Bitstring other) {
+		if(other.length != this.length) {
+			throw new IllegalArgumentException("Cannot XOR bitstrings of different lengths (" + this.length + " and "
+					+ other.length + ")");
+		}
+		if(length <= Long.SIZE) {
+			return new Bitstring(small ^ other.small, length);
+		}
+		if(sparse != null && other.sparse != null) {
+			return fromSparse(SparseBits.xor(sparse, other.sparse));
+		}
+		if(arena != null || other.arena != null) {
+			LongBuffer words = buffer();
+			LongBuffer that = other.buffer();
+			long arr[] = new long[words.limit()];
+
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] = words.get(i) ^ that.get(i);
+			}
+			return new Bitstring(length, arr);
+		}
+		long words[] = words();
+		long arr[] = new long[words.length];
+		long that[] = other.words();
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = words[i] ^ that[i];
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- parity -->
+	 * 
+	 * @param other
+	 * @return The complement of the bitwise XOR of this bitstring with
+	 *         <code>other</code>
+	 */
+	public Bitstring parity(Bitstring other) {
+		if(other.length != this.length) {
+			throw new IllegalArgumentException("Cannot PARITY bitstrings of different lengths (" + this.length + " and "
+					+ other.length + ")");
+		}
+		if(length <= Long.SIZE) {
+			return new Bitstring(~(small ^ other.small) & inlineMask(length), length);
+		}
+		if(sparse != null && other.sparse != null) {
+			return fromSparse(SparseBits.xor(sparse, other.sparse).not());
+		}
+		if(arena != null || other.arena != null) {
+			LongBuffer words = buffer();
+			LongBuffer that = other.buffer();
+			long arr[] = new long[words.limit()];
+
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] = ~(words.get(i) ^ that.get(i));
+			}
+			arr[arr.length - 1] &= lastWordMask(length);
+			return new Bitstring(length, arr);
+		}
+		long words[] = words();
+		long arr[] = new long[words.length];
+		long that[] = other.words();
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = ~(words[i] ^ that[i]);
+		}
+		arr[arr.length - 1] &= lastWordMask(length);
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- andAll -->
+	 * 
+	 * @param bitstrings
+	 *          A non-empty array of bitstrings all of the same length
+	 * @return The bitwise AND of all the <code>bitstrings</code>
+	 */
+	public static Bitstring andAll(Bitstring bitstrings[]) {
+		int length = checkSameLength("AND", bitstrings);
+		long arr[] = new long[nWords(length)];
+
+		Arrays.fill(arr, ~0L);
+		for(Bitstring bs: bitstrings) {
+			long src[] = bs.words();
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] &= src[i];
+			}
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- orAll -->
+	 * 
+	 * @param bitstrings
+	 *          A non-empty array of bitstrings all of the same length
+	 * @return The bitwise OR of all the <code>bitstrings</code>
+	 */
+	public static Bitstring orAll(Bitstring bitstrings[]) {
+		int length = checkSameLength("OR", bitstrings);
+		long arr[] = new long[nWords(length)];
+
+		for(Bitstring bs: bitstrings) {
+			long src[] = bs.words();
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] |= src[i];
+			}
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- xorAll -->
+	 * 
+	 * @param bitstrings
+	 *          A non-empty array of bitstrings all of the same length
+	 * @return The bitwise XOR of all the <code>bitstrings</code>, which has a
+	 *         <code>1</code> wherever an odd number of them do
+	 */
+	public static Bitstring xorAll(Bitstring bitstrings[]) {
+		int length = checkSameLength("XOR", bitstrings);
+		long arr[] = new long[nWords(length)];
+
+		for(Bitstring bs: bitstrings) {
+			long src[] = bs.words();
+			for(int i = 0; i < arr.length; i++) {
+				arr[i] ^= src[i];
+			}
+		}
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- majority -->
+	 * 
+	 * Compute the bitwise majority (consensus) of an array of bitstrings. The
+	 * number of <code>1</code>s at each position is kept in a
+	 * {@link VerticalCounter}, and the count is compared with half the number of
+	 * bitstrings a plane at a time.
+	 * 
+	 * @param bitstrings
+	 *          A non-empty array of bitstrings all of the same length
+	 * @param tie
+	 *          What to do with positions where exactly half the bitstrings have a
+	 *          <code>1</code>
+	 * @return A bitstring with a <code>1</code> wherever more than half the
+	 *         <code>bitstrings</code> have a <code>1</code>
+	 */
+	public static Bitstring majority(Bitstring bitstrings[], Tie tie) {
+		return majority(bitstrings, tie, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- majority -->
+	 * 
+	 * @param bitstrings
+	 *          A non-empty array of bitstrings all of the same length
+	 * @param tie
+	 *          What to do with positions where exactly half the bitstrings have a
+	 *          <code>1</code>
+	 * @param rng
+	 *          The random number generator to use to break ties with
+	 *          {@link Tie#RANDOM}
+	 * @return A bitstring with a <code>1</code> wherever more than half the
+	 *         <code>bitstrings</code> have a <code>1</code>
+	 * @see #majority(Bitstring[], Tie)
+	 */
+	public static Bitstring majority(Bitstring bitstrings[], Tie tie, SplittableRandom rng) {
+		int length = checkSameLength("MAJORITY", bitstrings);
+		if(length == 0) {
+			return bitstrings[0].clone();
+		}
+		int nw = nWords(length);
+		int n = bitstrings.length;
+		long counters[][] = VerticalCounter.count(bitstrings, 0, nw);
+		int planes = counters.length;
+
+		int half = n / 2;
+		long arr[] = new long[nw];
+		long first[] = bitstrings[0].words();
+		for(int i = 0; i < nw; i++) {
+			long greater = 0L;
+			long equal = ~0L;
+			for(int j = planes - 1; j >= 0; j--) {
+				if((half & (1 << j)) != 0) {
+					equal &= counters[j][i];
+				}
+				else {
+					greater |= equal & counters[j][i];
+					equal &= ~counters[j][i];
+				}
+			}
+			arr[i] = greater;
+			if(n % 2 == 0) {
+				switch(tie) {
+				case ZERO:
+					break;
+				case ONE:
+					arr[i] |= equal;
+					break;
+				case FIRST:
+					arr[i] |= equal & first[i];
+					break;
+				case RANDOM:
+					long ties = equal;
+					while(ties != 0L) {
+						long bit = Long.lowestOneBit(ties);
+						if(rng.nextBoolean()) {
+							arr[i] |= bit;
+						}
+						ties ^= bit;
+					}
+					break;
+				default:
+					throw new RuntimeException("PANIC!");
+				}
+			}
+		}
+		arr[nw - 1] &= lastWordMask(length);
+
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- checkSameLength -->
+	 * 
+	 * @param op
+	 *          Name of the operation, for the error message
+	 * @param bitstrings
+	 * @return The length of all the <code>bitstrings</code>
+	 * @throws IllegalArgumentException
+	 *           if there are no bitstrings, or they have different lengths
+	 */
+	private static int checkSameLength(String op, Bitstring bitstrings[]) {
+		if(bitstrings.length == 0) {
+			throw new IllegalArgumentException("Cannot " + op + " an empty array of bitstrings");
+		}
+		int length = bitstrings[0].length;
+		for(int i = 1; i < bitstrings.length; i++) {
+			if(bitstrings[i].length != length) {
+				throw new IllegalArgumentException("Cannot " + op + " bitstrings of different lengths (" + length + " and "
+						+ bitstrings[i].length + ")");
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * <!-- mutate -->
+	 * 
+	 * @param prob
+	 * @return A new <code>Bitstring</code> with a randomly selected bit mutated
+	 *         from this one with probability <code>prob</code>
+	 */
+	public Bitstring mutate(double prob) {
+		return mutate(prob, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- mutate -->
+	 * 
+	 * @param prob
+	 * @param rng
+	 *          The random number generator to use
+	 * @return A new <code>Bitstring</code> with a randomly selected bit mutated
+	 *         from this one with probability <code>prob</code>
+	 */
+	public Bitstring mutate(double prob, SplittableRandom rng) {
+		if(length == 0) {
+			return clone();
+		}
+		if(rng.nextDouble() < prob) {
+			return mutate(rng.nextInt(length), rng);
+		}
+		else {
+			return clone();
+		}
+	}
+
+	/**
+	 * <!-- mutate -->
+	 * 
+	 * @param bit
+	 * @return A new <code>BitString</code> with the specified bit set to a random
+	 *         value
+	 */
+	public Bitstring mutate(int bit) {
+		return mutate(bit, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- mutate -->
+	 * 
+	 * @param bit
+	 * @param rng
+	 *          The random number generator to use
+	 * @return A new <code>BitString</code> with the specified bit set to a random
+	 *         value
+	 */
+	public Bitstring mutate(int bit, SplittableRandom rng) {
+		if(length == 0) {
+			return clone();
+		}
+		return set(bit, rng.nextBoolean());
+	}
+
+	/**
+	 * <!-- crossover -->
+	 * 
+	 * @param other
+	 * @param prob
+	 * @return Two <code>Bitstring</code>s, the result of a crossover operator
+	 *         applied with the specified probability
+	 */
+	public Bitstring[] crossover(Bitstring other, double prob) {
+		return crossover(other, prob, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- crossover -->
+	 * 
+	 * @param other
+	 * @param prob
+	 * @param rng
+	 *          The random number generator to use
+	 * @return Two <code>Bitstring</code>s, the result of a crossover operator
+	 *         applied with the specified probability
+	 */
+	public Bitstring[] crossover(Bitstring other, double prob, SplittableRandom rng) {
+		if(this.length != other.length) {
+			throw new IllegalArgumentException("Cannot crossover bitstrings of different lengths (" + length + " and "
+					+ other.length + ")");
+		}
+		if(length == 0) {
+			return new Bitstring[] { clone(), clone() };
+		}
+		if(rng.nextDouble() < prob) {
+			return crossover(other, rng.nextInt(length + 1));
+		}
+		else {
+			return new Bitstring[] { clone(), other.clone() };
+		}
+	}
+
+	/**
+	 * <!-- crossover -->
+	 * 
+	 * @param other
+	 * @param bit
+	 * @return Two <code>Bitstring</code>s, the result of a crossover operator
+	 *         applied at the specified point.
+	 */
+	public Bitstring[] crossover(Bitstring other, int bit) {
+		return crossover(other, new int[] { bit });
+	}
+
+	/**
+	 * <!-- crossover -->
+	 * 
+	 * Multi-point crossover. The first child starts with this bitstring's bits
+	 * and the second with <code>other</code>'s, and they swap over at each
+	 * point.
+	 * 
+	 * @param other
+	 * @param points
+	 *          Crossover points in ascending order, each in the range [0,
+	 *          length]
+	 * @return Two <code>Bitstring</code>s, the result of a crossover operator
+	 *         applied at each of the points
+	 */
+	public Bitstring[] crossover(Bitstring other, int points[]) {
+		if(this.length != other.length) {
+			throw new IllegalArgumentException("Cannot crossover bitstrings of different lengths (" + length + " and "
+					+ other.length + ")");
+		}
+		long mask[] = new long[nWords(length)];
+		int from = 0;
+		for(int i = 0; i <= points.length; i++) {
+			int to = i < points.length ? points[i] : length;
+			if(to < from || to > length) {
+				throw new IllegalArgumentException("Crossover points must be in ascending order in the range [0, " + length
+						+ "]");
+			}
+			if((i & 1) == 0) {
+				fill(mask, from, to);
+			}
+			from = to;
+		}
+		return cross(other, mask);
+	}
+
+	/**
+	 * <!-- crossover -->
+	 * 
+	 * @param other
+	 * @param mask
+	 * @return Two <code>Bitstring</code>s, the first with this bitstring's bits
+	 *         where <code>mask</code> is 1 and <code>other</code>'s where it is
+	 *         0, and the second the other way round
+	 */
+	public Bitstring[] crossover(Bitstring other, Bitstring mask) {
+		if(this.length != other.length || this.length != mask.length) {
+			throw new IllegalArgumentException("Cannot crossover bitstrings of different lengths (" + length + ", "
+					+ other.length + " and mask " + mask.length + ")");
+		}
+		return cross(other, mask.words());
+	}
+
+	/**
+	 * <!-- crossoverUniform -->
+	 * 
+	 * @param other
+	 * @param prob
+	 * @return Two <code>Bitstring</code>s, the result of swapping each bit
+	 *         between this bitstring and <code>other</code> with probability
+	 *         <code>prob</code>
+	 */
+	public Bitstring[] crossoverUniform(Bitstring other, double prob) {
+		return crossoverUniform(other, prob, new SplittableRandom());
+	}
+
+	/**
+	 * <!-- crossoverUniform -->
+	 * 
+	 * The mask of bits to keep is drawn a word at a time when <code>prob</code>
+	 * is 0.5, and otherwise by toggling bits of a mask of 1s at geometrically
+	 * distributed gaps.
+	 * 
+	 * @param other
+	 * @param prob
+	 * @param rng
+	 *          The random number generator to use
+	 * @return Two <code>Bitstring</code>s, the result of swapping each bit
+	 *         between this bitstring and <code>other</code> with probability
+	 *         <code>prob</code>
+	 */
+	public Bitstring[] crossoverUniform(Bitstring other, double prob, SplittableRandom rng) {
+		if(this.length != other.length) {
+			throw new IllegalArgumentException("Cannot crossover bitstrings of different lengths (" + length + " and "
+					+ other.length + ")");
+		}
+		long mask[] = new long[nWords(length)];
+		if(prob == 0.5) {
+			for(int i = 0; i < mask.length; i++) {
+				mask[i] = rng.nextLong();
+			}
+		}
+		else if(prob < 1.0) {
+			Arrays.fill(mask, ~0L);
+			if(prob > 0.0) {
+				toggleRandom(mask, length, prob, rng);
+			}
+		}
+		return cross(other, mask);
+	}
+
+	/**
+	 * <!-- cross -->
+	 * 
+	 * Both children are made in one pass over the words, each word being
+	 * <code>(a &amp; m) | (b &amp; ~m)</code>.
+	 * 
+	 * @param other
+	 *          A bitstring of the same length as this one
+	 * @param mask
+	 *          Words with 1 where the first child takes its bit from this
+	 *          bitstring; bits beyond <code>length</code> are ignored
+	 * @return The two children
+	 */
+	private Bitstring[] cross(Bitstring other, long mask[]) {
+		if(length <= Long.SIZE) {
+			long m = length == 0 ? 0L : mask[0];
+			return new Bitstring[] {
+															new Bitstring((small & m) | (other.small & ~m), length),
+															new Bitstring((other.small & m) | (small & ~m), length)
+			};
+		}
+		long a[] = words();
+		long b[] = other.words();
+		long child1[] = new long[a.length];
+		long child2[] = new long[a.length];
+
+		for(int i = 0; i < a.length; i++) {
+			long m = mask[i];
+			child1[i] = (a[i] & m) | (b[i] & ~m);
+			child2[i] = (b[i] & m) | (a[i] & ~m);
+		}
+		return new Bitstring[] { new Bitstring(length, child1), new Bitstring(length, child2) };
+	}
+
+	/**
+	 * <!-- fill -->
+	 * 
+	 * Set bits <code>from</code> (inclusive) to <code>to</code> (exclusive) of
+	 * <code>arr</code> to 1
+	 * 
+	 * @param arr
+	 * @param from
+	 * @param to
+	 */
+	private static void fill(long arr[], int from, int to) {
+		if(from >= to) {
+			return;
+		}
+		int first = bitToArr(from);
+		int last = bitToArr(to - 1);
+		long lo = ~0L << bitInArr(from);
+		long hi = ~0L >>> (Long.SIZE - 1 - bitInArr(to - 1));
+		if(first == last) {
+			arr[first] |= lo & hi;
+		}
+		else {
+			arr[first] |= lo;
+			Arrays.fill(arr, first + 1, last, ~0L);
+			arr[last] |= hi;
+		}
+	}
+
+	/**
+	 * <!-- grayCode -->
+	 * 
+	 * @return Gray coding of the bitstring
+	 */
+	public Bitstring grayCode() {
+		if(length == 0) {
+			return clone();
+		}
+		return xor(rightShift());
+	}
+
+	/**
+	 * <!-- inverseGrayCode -->
+	 * 
+	 * Each bit of the result is the XOR of all the bits in this bitstring up to
+	 * and including it, computed as a prefix XOR within each word, with the
+	 * parity of the words before carried in.
+	 * 
+	 * @return Inverse Gray coding of the bitstring
+	 */
+	public Bitstring inverseGrayCode() {
+		long words[] = words();
+		if(length == 0) {
+			return clone();
+		}
+
+		long arr[] = new long[words.length];
+		long carry = 0L;
+
+		for(int i = 0; i < arr.length; i++) {
+			long x = words[i];
+			x ^= x << 1;
+			x ^= x << 2;
+			x ^= x << 4;
+			x ^= x << 8;
+			x ^= x << 16;
+			x ^= x << 32;
+			arr[i] = x ^ carry;
+			carry = (arr[i] >> (Long.SIZE - 1));
+		}
+		arr[arr.length - 1] &= lastWordMask(length);
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- rightShift -->
+	 * 
+	 * @return Right shift of the bitstring
+	 */
+	public Bitstring rightShift() {
+		return shift(1);
+	}
+
+	/**
+	 * <!-- shift -->
+	 * 
+	 * Shift the bits in the bitstring <code>distance</code> places to the right
+	 * (towards the end of the bitstring), or to the left if
+	 * <code>distance</code> is negative. Bits shifted off the end are lost, and
+	 * the bits shifted in are <code>0</code>.
+	 * 
+	 * @param distance
+	 * @return The shifted bitstring
+	 */
+	public Bitstring shift(int distance) {
+		long words[] = words();
+		if(length == 0 || distance == 0) {
+			return clone();
+		}
+		if(distance >= length || distance <= -length) {
+			return new Bitstring(length);
+		}
+
+		long arr[] = new long[words.length];
+		shiftWords(words, arr, distance);
+		arr[arr.length - 1] &= lastWordMask(length);
+
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- shiftWords -->
+	 * 
+	 * Put the words of <code>src</code> shifted <code>distance</code> bits
+	 * towards the end (or the start if negative) of the bitstring in
+	 * <code>dst</code>, which must be the same length as <code>src</code>. Bits
+	 * shifted beyond the last word are lost, but bits shifted into unused bits of
+	 * the last word are not masked out.
+	 * 
+	 * @param src
+	 * @param dst
+	 * @param distance
+	 */
+	private static void shiftWords(long src[], long dst[], int distance) {
+		int n = src.length;
+
+		if(distance >= 0) {
+			int q = bitToArr(distance);
+			int r = bitInArr(distance);
+
+			for(int i = n - 1; i >= q; i--) {
+				long word = src[i - q] << r;
+				if(r != 0 && i - q - 1 >= 0) {
+					word |= src[i - q - 1] >>> (Long.SIZE - r);
+				}
+				dst[i] = word;
+			}
+			for(int i = Math.min(q, n) - 1; i >= 0; i--) {
+				dst[i] = 0L;
+			}
+		}
+		else {
+			int q = bitToArr(-distance);
+			int r = bitInArr(-distance);
+
+			for(int i = 0; i < n - q; i++) {
+				long word = src[i + q] >>> r;
+				if(r != 0 && i + q + 1 < n) {
+					word |= src[i + q + 1] << (Long.SIZE - r);
+				}
+				dst[i] = word;
+			}
+			for(int i = Math.max(n - q, 0); i < n; i++) {
+				dst[i] = 0L;
+			}
+		}
+	}
+
+	/**
+	 * <!-- rotate -->
+	 * 
+	 * Rotate the bits in the bitstring <code>distance</code> places to the right
+	 * (towards the end of the bitstring), or to the left if
+	 * <code>distance</code> is negative. Bits rotated off one end reappear at the
+	 * other.
+	 * 
+	 * @param distance
+	 * @return The rotated bitstring
+	 */
+	public Bitstring rotate(int distance) {
+		long words[] = words();
+		if(length == 0) {
+			return clone();
+		}
+		distance %= length;
+		if(distance < 0) {
+			distance += length;
+		}
+		if(distance == 0) {
+			return clone();
+		}
+
+		long arr[] = new long[words.length];
+		copyBits(words, 0, arr, distance, length - distance);
+		copyBits(words, length - distance, arr, 0, distance);
+
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- reverse -->
+	 * 
+	 * @return The bitstring with the order of its bits reversed
+	 */
+	public Bitstring reverse() {
+		long words[] = words();
+		if(length == 0) {
+			return clone();
+		}
+		return new Bitstring(length, reverseWords(words, length));
+	}
+
+	/**
+	 * <!-- reverse -->
+	 * 
+	 * Reverse the order of the bits in the range [<code>start</code>,
+	 * <code>finish</code>[, leaving the others where they are (an inversion
+	 * mutation).
+	 * 
+	 * @param start
+	 * @param finish
+	 * @return The bitstring with the specified range reversed
+	 */
+	public Bitstring reverse(int start, int finish) {
+		long words[] = words();
+		if(start < 0 || start > length) {
+			throw new IllegalArgumentException("Start index " + start + " is outside the range [0, " + length + "]");
+		}
+		if(finish < 0 || finish > length) {
+			throw new IllegalArgumentException("Finish index " + finish + " is outside the range [0, " + length + "]");
+		}
+		if(finish < start) {
+			throw new IllegalArgumentException("Finish index " + finish + " must be >= start index " + start);
+		}
+		if(finish - start < 2) {
+			return clone();
+		}
+
+		long range[] = new long[nWords(finish - start)];
+		copyBits(words, start, range, 0, finish - start);
+
+		long arr[] = words.clone();
+		copyBits(reverseWords(range, finish - start), 0, arr, start, finish - start);
+
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- reverseWords -->
+	 * 
+	 * @param src
+	 *          Words of a bitstring
+	 * @param length
+	 *          The length of the bitstring in <code>src</code>
+	 * @return The words of the bitstring reversed, computed by reversing the
+	 *         order of the words and the bits within each of them, and then
+	 *         shifting out the unused bits at the end of the last word
+	 */
+	private static long[] reverseWords(long src[], int length) {
+		long arr[] = new long[src.length];
+
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = Long.reverse(src[src.length - 1 - i]);
+		}
+
+		int pad = src.length * Long.SIZE - length;
+		if(pad != 0) {
+			shiftWords(arr, arr, -pad);
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- caStep -->
+	 * 
+	 * Compute the next generation of an elementary (one-dimensional, two-state,
+	 * nearest-neighbour) cellular automaton with this bitstring as its state.
+	 * 
+	 * @param rule
+	 *          The Wolfram rule number, in the range [0, 255]
+	 * @param boundary
+	 *          Whether the state wraps round, or what the cells beyond each end
+	 *          are fixed at
+	 * @return The next generation
+	 */
+	public Bitstring caStep(int rule, Boundary boundary) {
+		return caRun(rule, boundary, 1);
+	}
+
+	/**
+	 * <!-- caRun -->
+	 * 
+	 * Run an elementary cellular automaton with this bitstring as its initial
+	 * state for a number of steps. Each step computes a word of new cells at a
+	 * time from the word of cells and the words of their left and right
+	 * neighbours (the word shifted one place each way, with the bit carried in
+	 * from the next word or the boundary), using the rule as a multiplexer tree
+	 * over the three neighbourhood bits. Two arrays are used alternately, so no
+	 * intermediate bitstrings are created.
+	 * 
+	 * @param rule
+	 *          The Wolfram rule number, in the range [0, 255]
+	 * @param boundary
+	 *          Whether the state wraps round, or what the cells beyond each end
+	 *          are fixed at
+	 * @param steps
+	 *          The number of generations to run for
+	 * @return The state after <code>steps</code> generations
+	 */
+	public Bitstring caRun(int rule, Boundary boundary, int steps) {
+		long words[] = words();
+		if(rule < 0 || rule > 255) {
+			throw new IllegalArgumentException("Elementary cellular automaton rule " + rule
+					+ " is outside the range [0, 255]");
+		}
+		if(steps < 0) {
+			throw new IllegalArgumentException("Cannot run a cellular automaton for a negative number of steps (" + steps
+					+ ")");
+		}
+		if(length == 0 || steps == 0) {
+			return clone();
+		}
+
+		// Rule output for each neighbourhood (left, centre, right) as a mask
+
+		long out[] = new long[8];
+		for(int k = 0; k < 8; k++) {
+			out[k] = (rule & (1 << k)) != 0 ? ~0L : 0L;
+		}
+
+		int nw = words.length;
+		int top = bitInArr(length - 1);
+		long state[] = words.clone();
+		long next[] = new long[nw];
+
+		for(int s = 0; s < steps; s++) {
+			long leftIn;
+			long rightIn;
+			switch(boundary) {
+			case PERIODIC:
+				leftIn = (state[nw - 1] >>> top) & 1L;
+				rightIn = state[0] & 1L;
+				break;
+			case ZERO:
+				leftIn = 0L;
+				rightIn = 0L;
+				break;
+			case ONE:
+				leftIn = 1L;
+				rightIn = 1L;
+				break;
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+
+			for(int i = 0; i < nw; i++) {
+				long c = state[i];
+				long l = (c << 1) | (i > 0 ? state[i - 1] >>> (Long.SIZE - 1) : leftIn);
+				long r = (c >>> 1) | (i + 1 < nw ? state[i + 1] << (Long.SIZE - 1) : rightIn << top);
+
+				long r0 = (r & out[1]) | (~r & out[0]);
+				long r1 = (r & out[3]) | (~r & out[2]);
+				long r2 = (r & out[5]) | (~r & out[4]);
+				long r3 = (r & out[7]) | (~r & out[6]);
+				long c0 = (c & r1) | (~c & r0);
+				long c1 = (c & r3) | (~c & r2);
+				next[i] = (l & c1) | (~l & c0);
+			}
+			next[nw - 1] &= lastWordMask(length);
+
+			long tmp[] = state;
+			state = next;
+			next = tmp;
+		}
+
+		return new Bitstring(length, state);
+	}
+
+	/**
+	 * <!-- match -->
+	 * 
+	 * @param other
+	 * @return The number of bits in this bitstring and <code>other</code> that
+	 *         have the same value
+	 */
+	public int match(Bitstring other) {
+		if(this.length != other.length) return -1;
+		if(length <= Long.SIZE) return length - Long.bitCount(small ^ other.small);
+		if(sparse != null && other.sparse != null) return length - SparseBits.xor(sparse, other.sparse).count1();
+		if(arena != null || other.arena != null) {
+			LongBuffer words = buffer();
+			LongBuffer that = other.buffer();
+			int n = 0;
+
+			for(int i = 0; i < words.limit(); i++) {
+				n += Long.bitCount(words.get(i) ^ that.get(i));
+			}
+			return length - n;
+		}
+		long words[] = words();
+		int n = 0;
+		long that[] = other.words();
+
+		for(int i = 0; i < words.length; i++) {
+			n += Long.bitCount(words[i] ^ that[i]);
+		}
+		return length - n;
+	}
+
+	/**
+	 * <!-- count1 -->
+	 * 
+	 * @return The number of <code>1</code>s in the bitstring
+	 */
+	public int count1() {
+		if(length <= Long.SIZE) return Long.bitCount(small);
+		if(sparse != null) return sparse.count1();
+		if(arena != null) {
+			LongBuffer words = buffer();
+			int n = 0;
+
+			for(int i = 0; i < words.limit(); i++) {
+				n += Long.bitCount(words.get(i));
+			}
+			return n;
+		}
+		long words[] = words();
+		int n = 0;
+
+		for(int i = 0; i < words.length; i++) {
+			n += Long.bitCount(words[i]);
+		}
+
+		return n;
+	}
+
+	/**
+	 * <!-- count0 -->
+	 * 
+	 * @return The number of <code>0</code>s in the bitstring
+	 */
+	public int count0() {
+		return length - count1();
+	}
+
+	/**
+	 * <!-- ones -->
+	 * 
+	 * @return The positions of all the <code>1</code>s in the bitstring, in
+	 *         ascending order
+	 */
+	public int[] ones() {
+		if(sparse != null) return sparse.ones();
+		long words[] = words();
+		int positions[] = new int[count1()];
+		int n = 0;
+
+		for(int i = 0; i < words.length; i++) {
+			long word = words[i];
+			while(word != 0L) {
+				positions[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1L;
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * <!-- zeros -->
+	 * 
+	 * @return The positions of all the <code>0</code>s in the bitstring, in
+	 *         ascending order
+	 */
+	public int[] zeros() {
+		if(sparse != null) return sparse.zeroPositions();
+		long words[] = words();
+		int positions[] = new int[count0()];
+		int n = 0;
+
+		for(int i = 0; i < words.length; i++) {
+			long word = ~words[i];
+			if(i == words.length - 1) {
+				word &= lastWordMask(length);
+			}
+			while(word != 0L) {
+				positions[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1L;
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * <!-- nextOne -->
+	 * 
+	 * @param from
+	 *          Position to start looking from, in the range [0, length]
+	 * @return The position of the first <code>1</code> at or after
+	 *         <code>from</code>, or -1 if there isn't one
+	 */
+	public int nextOne(int from) {
+		if(from < 0 || from > length) {
+			throw new IllegalArgumentException("Position " + from + " is outside the range [0, " + length + "]");
+		}
+		if(from == length) return -1;
+		if(sparse != null) return sparse.nextOne(from);
+		int i = bitToArr(from);
+		if(arena != null) {
+			LongBuffer words = buffer();
+			long word = words.get(i) & (~0L << bitInArr(from));
+
+			while(word == 0L) {
+				if(++i == words.limit()) return -1;
+				word = words.get(i);
+			}
+			return (i << 6) + Long.numberOfTrailingZeros(word);
+		}
+		long words[] = words();
+		long word = words[i] & (~0L << bitInArr(from));
+
+		while(word == 0L) {
+			if(++i == words.length) return -1;
+			word = words[i];
+		}
+		return (i << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * <!-- prevOne -->
+	 * 
+	 * @param from
+	 *          Position to start looking back from, in the range [-1, length[
+	 * @return The position of the last <code>1</code> at or before
+	 *         <code>from</code>, or -1 if there isn't one
+	 */
+	public int prevOne(int from) {
+		if(from < -1 || from >= length) {
+			throw new IllegalArgumentException("Position " + from + " is outside the range [-1, " + length + "[");
+		}
+		if(from == -1) return -1;
+		if(sparse != null) return sparse.prevOne(from);
+		int i = bitToArr(from);
+		if(arena != null) {
+			LongBuffer words = buffer();
+			long word = words.get(i) & (~0L >>> (Long.SIZE - 1 - bitInArr(from)));
+
+			while(word == 0L) {
+				if(--i < 0) return -1;
+				word = words.get(i);
+			}
+			return (i << 6) + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+		}
+		long words[] = words();
+		long word = words[i] & (~0L >>> (Long.SIZE - 1 - bitInArr(from)));
+
+		while(word == 0L) {
+			if(--i < 0) return -1;
+			word = words[i];
+		}
+		return (i << 6) + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+	}
+
+	/**
+	 * <!-- rank -->
+	 * 
+	 * @param pos
+	 *          A position in the range [0, length]
+	 * @return The number of <code>1</code>s in the bitstring before
+	 *         <code>pos</code>
+	 */
+	public int rank(int pos) {
+		if(pos < 0 || pos > length) {
+			throw new IllegalArgumentException("Position " + pos + " is outside the range [0, " + length + "]");
+		}
+		if(sparse != null) return sparse.rank(pos);
+		return rankDirectory().rank(pos);
+	}
+
+	/**
+	 * <!-- select -->
+	 * 
+	 * @param n
+	 * @return The position of the <code>n</code><sup>th</sup> <code>1</code> in
+	 *         the bitstring (counting from 0), or -1 if there are not that many
+	 *         <code>1</code>s
+	 */
+	public int select(int n) {
+		if(sparse != null) return sparse.select(n);
+		return rankDirectory().select(n);
+	}
+
+	/**
+	 * <!-- rankDirectory -->
+	 * 
+	 * @return The rank directory for this bitstring, building it if need be
+	 */
+	private RankDirectory rankDirectory() {
+		if(arena != null) {
+			// The directory reads the arena's words, so it is not to be used once
+			// they have been released
+			arena.check();
+		}
+		RankDirectory dir = rankDirectory;
+		if(dir == null) {
+			dir = new RankDirectory(buffer());
+			rankDirectory = dir;
+		}
+		return dir;
+	}
+
+	/**
+	 * <!-- words -->
+	 * 
+	 * Slices are materialised here, copying their bits into words of their own
+	 * and letting go of the words of the bitstring they were taken from, as are
+	 * ropes and sparse bitstrings, though these keep their tree or positions,
+	 * and inline bitstrings. The words of a bitstring in an arena are copied
+	 * each time, so that they are not kept on the heap; the operations used
+	 * most read them in place through {@link #buffer()} instead.
+	 * 
+	 * @return The words of the bitstring, which must not be modified
+	 */
+	long[] words() {
+		long arr[] = words;
+		if(arr == null && arena != null) {
+			return arena.words(offset, nWords(length));
+		}
+		if(arr == null) {
+			synchronized(this) {
+				arr = words;
+				if(arr == null) {
+					arr = sparse != null ? sparse.toWords() : new long[nWords(length)];
+					if(length <= Long.SIZE) {
+						if(length > 0) {
+							arr[0] = small;
+						}
+					}
+					else if(base != null) {
+						copyBits(base, offset, arr, 0, length);
+					}
+					else if(rope != null) {
+						rope.copyTo(arr, 0);
+					}
+					words = arr;
+					base = null;
+				}
+			}
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- buffer -->
+	 * 
+	 * @return The words of the bitstring as a buffer, whose limit is the number
+	 *         of words: a view of the words in place for a bitstring in an arena,
+	 *         and of {@link #words()} otherwise
+	 */
+	LongBuffer buffer() {
+		return arena != null ? arena.view(offset, nWords(length)) : LongBuffer.wrap(words());
+	}
+
+	/**
+	 * <!-- isReleased -->
+	 * 
+	 * @return <code>true</code> if the words of this bitstring are in an arena
+	 *         that has been released, so that it can no longer be used
+	 */
+	public boolean isReleased() {
+		return arena != null && arena.isReleased();
+	}
+
+	/**
+	 * <!-- rope -->
+	 * 
+	 * @return The bits of this bitstring as a rope, making one that shares its
+	 *         words if need be
+	 */
+	private Rope rope() {
+		Rope tree = rope;
+		if(tree == null) {
+			tree = Rope.fromWords(words(), length);
+			rope = tree;
+		}
+		return tree;
+	}
+
+	/**
+	 * <!-- fromSparse -->
+	 * 
+	 * @param bits
+	 * @return A bitstring with the given bits, held as positions if there are
+	 *         still few enough of them, and as words otherwise
+	 */
+	private static Bitstring fromSparse(SparseBits bits) {
+		return bits.fits() ? new Bitstring(bits) : new Bitstring(bits.length(), bits.toWords());
+	}
+
+	/**
+	 * <!-- inArena -->
+	 * 
+	 * @param length
+	 *          The length of the bitstring, which must be more than 64
+	 * @param arena
+	 * @param address
+	 *          The address of its words in <code>arena</code>
+	 * @return A bitstring using the words in <code>arena</code>
+	 */
+	static Bitstring inArena(int length, Arena arena, int address) {
+		return new Bitstring(length, arena, address);
+	}
+
+	/**
+	 * <!-- fromWords -->
+	 * 
+	 * @param length
+	 *          The length of the bitstring
+	 * @param arr
+	 *          Words to take ownership of, with any bits beyond
+	 *          <code>length</code> set to 0
+	 * @return A bitstring using <code>arr</code> as its words
+	 */
+	static Bitstring fromWords(int length, long arr[]) {
+		return new Bitstring(length, arr);
+	}
+
+	/**
+	 * <!-- size -->
+	 * 
+	 * @return The number of bits in the bitstring
+	 */
+	@Override
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * <!-- isEmpty -->
+	 * 
+	 * @return <code>true</code> if the length is 0
+	 */
+	@Override
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * <!-- all0 -->
+	 * 
+	 * @return <code>true</code> if all bits are <code>0</code>
+	 */
+	public boolean all0() {
+		if(length <= Long.SIZE) return small == 0L;
+		if(sparse != null) return sparse.count1() == 0;
+		if(arena != null) {
+			LongBuffer words = buffer();
+			for(int i = 0; i < words.limit(); i++) {
+				if(words.get(i) != 0L) return false;
+			}
+			return true;
+		}
+		long words[] = words();
+		for(int i = 0; i < words.length; i++) {
+			if(words[i] != 0L) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * <!-- all1 -->
+	 * 
+	 * @return <code>true</code> if all bits are <code>1</code>
+	 */
+	public boolean all1() {
+		if(length <= Long.SIZE) return small == inlineMask(length);
+		if(sparse != null) return sparse.count1() == length;
+		if(arena != null) {
+			LongBuffer words = buffer();
+			for(int i = 0; i < words.limit() - 1; i++) {
+				if(words.get(i) != ~0L) return false;
+			}
+			return words.get(words.limit() - 1) == lastWordMask(length);
+		}
+		long words[] = words();
+		for(int i = 0; i < words.length - 1; i++) {
+			if(words[i] != ~0L) return false;
+		}
+		return length == 0 || words[words.length - 1] == lastWordMask(length);
+	}
+
+	/**
+	 * <!-- asList -->
+	 * 
+	 * @return The bitstring as an <code>ArrayList</code> of <code>Boolean</code>s
+	 */
+	public ArrayList<Boolean> asList() {
+		ArrayList<Boolean> l = new ArrayList<Boolean>(length);
+		for(int i = 0; i < length; i++) {
+			l.add(i, get(i));
+		}
+		return l;
+	}
+
+	/**
+	 * <!-- contains -->
+	 * 
+	 * @param o
+	 * @return <code>true</code> if the bitstring contains a sequence of bits that
+	 *         corresponds to some reasonable interpretation of <code>o</code>
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if(o instanceof Boolean) {
+			return contains((Boolean)o);
+		}
+		else if(o instanceof Bitstring) {
+			return contains((Bitstring)o);
+		}
+		else if(o instanceof CharSequence) {
+			return toString().contains(to10((CharSequence)o));
+		}
+		else if(o instanceof Byte || o instanceof Short) {
+			return contains((Integer)o);
+		}
+		else if(o instanceof Integer) {
+			return toString().contains(Integer.toBinaryString((Integer)o));
+		}
+		else if(o instanceof Long) {
+			return toString().contains(Long.toBinaryString((Long)o));
+		}
+		return false;
+	}
+
+	/**
+	 * <!-- contains -->
+	 * 
+	 * Compares the bits of <code>other</code> a word at a time with those of
+	 * this bitstring starting at each position in turn, without making strings
+	 * of either.
+	 * 
+	 * @param other
+	 * @return <code>true</code> if the bits of <code>other</code> appear, in
+	 *         order, somewhere in this bitstring. An empty bitstring is only
+	 *         contained in an empty bitstring.
+	 */
+	public boolean contains(Bitstring other) {
+		int m = other.length;
+
+		if(m == 0) {
+			return length == 0;
+		}
+		if(m > length) {
+			return false;
+		}
+		long arr[] = words();
+		long sub[] = other.words();
+		int last = sub.length - 1;
+		long mask = lastWordMask(m);
+		for(int i = 0; i + m <= length; i++) {
+			int k = 0;
+			while(k < last && extractWord(arr, i + (k << 6)) == sub[k]) {
+				k++;
+			}
+			if(k == last && ((extractWord(arr, i + (k << 6)) ^ sub[k]) & mask) == 0L) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <!-- contains -->
+	 * 
+	 * @param o
+	 * @return <code>true</code> if the bitstring contains a bit <code>o</code>
+	 */
+	public boolean contains(Boolean o) {
+		if(o) return !all0();
+		else return !all1();
+	}
+
+	/**
+	 * <!-- iterator -->
+	 * 
+	 * @return An iterator over all individual bits in the bitstring
+	 */
+	@Override
+	public Iterator<Boolean> iterator() {
+		return asList().iterator();
+	}
+
+	/**
+	 * <!-- toArray -->
+	 * 
+	 * @return The bitstring as an array of Booleans
+	 */
+	@Override
+	public Object[] toArray() {
+		return asList().toArray();
+	}
+
+	/**
+	 * <!-- toArray -->
+	 * 
+	 * @param a
+	 * @return The bitstring as an array of Booleans
+	 */
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return asList().toArray(a);
+	}
+
+	/**
+	 * <!-- add -->
+	 * 
+	 * This object is immutable, so you cannot add anything to it
+	 * 
+	 * @param e
+	 * @return <code>false</code>
+	 */
+	@Override
+	public boolean add(Boolean e) {
+		return false;
+	}
+
+	/**
+	 * <!-- remove -->
+	 * 
+	 * This object is immutable, so you cannot remove anything from it
+	 * 
+	 * @param o
+	 * @return <code>false</code>
+	 */
+	@Override
+	public boolean remove(Object o) {
+		return false;
+	}
+
+	/**
+	 * <!-- containsAll -->
+	 * 
+	 * @param c
+	 * @return <code>true</code> if the bitstring {@link #contains(Object)} all
+	 *         members of <code>c</code>
+	 */
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object o: c) {
+			if(!contains(o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * <!-- addAll -->
+	 * 
+	 * The bitstring cannot be modified
+	 * 
+	 * @param c
+	 * @return <code>false</code>
+	 */
+	@Override
+	public boolean addAll(Collection<? extends Boolean> c) {
+		return false;
+	}
+
+	/**
+	 * <!-- removeAll -->
+	 * 
+	 * The bitstring cannot be modified
+	 * 
+	 * @param c
+	 * @return <code>false</code>
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return false;
+	}
+
+	/**
+	 * <!-- retainAll -->
+	 * 
+	 * The bitstring cannot be modified
+	 * 
+	 * @param c
+	 * @return <code>false</code>
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return false;
+	}
+
+	/**
+	 * <!-- clear -->
+	 * 
+	 * The bitstring cannot be modified
+	 * 
+	 * @throws RuntimeException
+	 */
+	@Override
+	public void clear() {
+		throw new RuntimeException("Bitstrings are immutable");
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return A <code>String</code> representation of the bitstring
+	 */
+	@Override
+	public String toString() {
+		long words[] = words();
+		if(length == 0) return EMPTY_BITSTRING_STRING;
+		char buff[] = new char[length];
+		for(int i = 0; i < length; i++) {
+			buff[i] = (words[bitToArr(i)] & getBit(i)) != 0L ? '1' : '0';
+		}
+		return new String(buff);
+	}
+
+	/**
+	 * <!-- clone -->
+	 * 
+	 * @return A copy of this bitstring
+	 */
+	@Override
+	public Bitstring clone() {
+		return new Bitstring(this);
+	}
+
+	/**
+	 * <!-- equals -->
+	 * 
+	 * @param oother
+	 * @return <code>true</code> if this bitstring equals the other
+	 */
+	@Override
+	public boolean equals(Object oother) {
+		if(oother == null) {
+			return false;
+		}
+		else if(oother instanceof String) {
+			return toString().equals(oother);
+		}
+		else if(!(oother instanceof Bitstring)) {
+			return false;
+		}
+		Bitstring other = (Bitstring)oother;
+		if(this.length != other.length) {
+			return false;
+		}
+		if(length <= Long.SIZE) {
+			return small == other.small;
+		}
+		if(sparse != null && other.sparse != null) {
+			return sparse.equals(other.sparse);
+		}
+
+		if(arena != null || other.arena != null) {
+			return buffer().equals(other.buffer());
+		}
+
+		return Arrays.equals(this.words(), other.words());
+	}
+
+	/**
+	 * <!-- Builder -->
+	 * 
+	 * A mutable buffer of bits for building a bitstring a bit or a piece at a
+	 * time, without copying the whole bitstring on each change. The buffer grows
+	 * by doubling, so appending is amortised constant time. Building a bitstring
+	 * hands the buffer over to it rather than copying it; the builder then
+	 * copies the buffer before it is next changed, so bitstrings already built
+	 * are never affected.
+	 * 
+	 * @author Gary Polhill
+	 */
+	public static class Builder {
+
+		private static final int INITIAL_WORDS = 4;
+
+		private long words[];
+
+		private int length;
+
+		/**
+		 * Whether <code>words</code> belongs to a bitstring built from this
+		 * builder, and must be copied before being changed
+		 */
+		private boolean shared;
+
+		/**
+		 * <!-- Builder constructor -->
+		 * 
+		 * Create an empty builder
+		 */
+		public Builder() {
+			this.words = new long[INITIAL_WORDS];
+			this.length = 0;
+			this.shared = false;
+		}
+
+		/**
+		 * <!-- Builder constructor -->
+		 * 
+		 * Create a builder starting with the bits of a bitstring, which are only
+		 * copied when first changed
+		 * 
+		 * @param bitstring
+		 */
+		public Builder(Bitstring bitstring) {
+			this.words = bitstring.words();
+			this.length = bitstring.length;
+			this.shared = true;
+		}
+
+		/**
+		 * <!-- size -->
+		 * 
+		 * @return The number of bits in the builder
+		 */
+		public int size() {
+			return length;
+		}
+
+		/**
+		 * <!-- get -->
+		 * 
+		 * @param bit
+		 * @return The value of the <code>bit</code><sup>th</sup> bit
+		 */
+		public boolean get(int bit) {
+			checkBit(bit);
+			return (words[bitToArr(bit)] & getBit(bit)) != 0;
+		}
+
+		/**
+		 * <!-- set -->
+		 * 
+		 * Set a bit to a value
+		 * 
+		 * @param bit
+		 * @param value
+		 * @return This builder
+		 */
+		public Builder set(int bit, boolean value) {
+			checkBit(bit);
+			own(words.length);
+			if(value) {
+				words[bitToArr(bit)] |= getBit(bit);
+			}
+			else {
+				words[bitToArr(bit)] &= butBit(bit);
+			}
+			return this;
+		}
+
+		/**
+		 * <!-- clear -->
+		 * 
+		 * Set a bit to <code>0</code>
+		 * 
+		 * @param bit
+		 * @return This builder
+		 */
+		public Builder clear(int bit) {
+			return set(bit, false);
+		}
+
+		/**
+		 * <!-- toggle -->
+		 * 
+		 * Flip the value of a bit
+		 * 
+		 * @param bit
+		 * @return This builder
+		 */
+		public Builder toggle(int bit) {
+			checkBit(bit);
+			own(words.length);
+			words[bitToArr(bit)] ^= getBit(bit);
+			return this;
+		}
+
+		/**
+		 * <!-- append -->
+		 * 
+		 * Add a bit to the end
+		 * 
+		 * @param value
+		 * @return This builder
+		 */
+		public Builder append(boolean value) {
+			ensureCapacity(length + 1);
+			if(value) {
+				words[bitToArr(length)] |= getBit(length);
+			}
+			length++;
+			return this;
+		}
+
+		/**
+		 * <!-- append -->
+		 * 
+		 * Add the bits of a bitstring to the end
+		 * 
+		 * @param bitstring
+		 * @return This builder
+		 */
+		public Builder append(Bitstring bitstring) {
+			ensureCapacity(length + bitstring.length);
+			copyBits(bitstring.words(), 0, words, length, bitstring.length);
+			length += bitstring.length;
+			return this;
+		}
+
+		/**
+		 * <!-- build -->
+		 * 
+		 * @return A bitstring with the bits currently in the builder. The buffer
+		 *         is handed over without copying, as a slice of itself if it has
+		 *         room to spare, unless it is so much longer than the bits that it
+		 *         would waste memory, in which case it is trimmed. The builder
+		 *         copies the buffer before changing it again.
+		 */
+		public Bitstring build() {
+			if(length <= Long.SIZE) {
+				return new Bitstring(length == 0 ? 0L : words[0], length);
+			}
+			if(words.length != nWords(length) && (long)length * SLICE_FRACTION < (long)words.length * Long.SIZE) {
+				words = Arrays.copyOf(words, nWords(length));
+			}
+			shared = true;
+			return words.length == nWords(length) ? new Bitstring(length, words) : new Bitstring(length, words, 0);
+		}
+
+		/**
+		 * <!-- ensureCapacity -->
+		 * 
+		 * Make sure the buffer can hold <code>bits</code> bits and is not shared
+		 * 
+		 * @param bits
+		 */
+		private void ensureCapacity(int bits) {
+			if(bits < 0) {
+				throw new IllegalArgumentException("Bitstring builder cannot hold more than " + Integer.MAX_VALUE
+						+ " bits");
+			}
+			int n = nWords(bits);
+			own(n <= words.length ? words.length : Math.max(n, Math.max(INITIAL_WORDS, words.length * 2)));
+		}
+
+		/**
+		 * <!-- own -->
+		 * 
+		 * Make sure the buffer is not shared with a bitstring and has
+		 * <code>n</code> words, copying it if either is not the case
+		 * 
+		 * @param n
+		 */
+		private void own(int n) {
+			if(shared || n != words.length) {
+				words = Arrays.copyOf(words, n);
+				shared = false;
+			}
+		}
+
+		private void checkBit(int bit) {
+			if(bit < 0 || bit >= length) {
+				throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+			}
+		}
+
+		/**
+		 * <!-- toString -->
+		 * 
+		 * @return The bits in the builder as a string of 1s and 0s, in the same
+		 *         format as {@link Bitstring#toString()}
+		 */
+		@Override
+		public String toString() {
+			if(length == 0) return EMPTY_BITSTRING_STRING;
+			char buff[] = new char[length];
+			for(int i = 0; i < length; i++) {
+				buff[i] = (words[bitToArr(i)] & getBit(i)) != 0L ? '1' : '0';
+			}
+			return new String(buff);
+		}
+	}
+
+	public static void main(String args[]) {
+		System.out.println("size of long = " + Long.SIZE);
+		for(int i = 0; i < 67; i++) {
+			System.out.println("i = " + i + "; bitToArr(i) = " + bitToArr(i) + "; bitInArr(i) = " + bitInArr(i) + "; getBit(i) = " + Long.toHexString(getBit(i)));
+		}
+		Bitstring a = new Bitstring(43, 0.3);
+		Bitstring b = new Bitstring(43, 0.7);
+		System.out.println("    A = " + a);
+		System.out.println("    B = " + b);
+		System.out.println("A p B = " + a.parity(b));
+		System.out.println("match = " + a.match(b));
+
+		System.out.println("              A = " + a);
+		System.out.println("          rsh A = " + a.rightShift());
+		System.out.println("         gray A = " + a.grayCode());
+		System.out.println("     inv gray A = " + a.inverseGrayCode());
+		System.out.println("inv gray gray A = " + a.grayCode().inverseGrayCode());
+
+		System.out.println("Trying invgray(gray(A)) == A for a large number of random bitstrings");
+
+		for(int i = 1; i <= 1000000; i++) {
+			Bitstring c = new Bitstring(10 + (int)Math.rint(Math.random() * 500), Math.random());
+			Bitstring d = c.grayCode().inverseGrayCode();
+
+			if(!c.equals(d)) {
+				System.out.println("     C" + i + " = " + c);
+				System.out.println(" rsh C" + i + " = " + c.rightShift());
+				System.out.println("gray C" + i + " = " + c.grayCode());
+				System.out.println("     D" + i + " = " + d);
+			}
+			if(i % 100000 == 0) {
+				System.out.println("Now tried " + i + " random bitstrings");
+			}
+		}
+
+		System.out.println("Trying select(rank(p)) for a large number of random bitstrings");
+
+		for(int i = 1; i <= 10000; i++) {
+			Bitstring c = new Bitstring((int)Math.rint(Math.random() * 5000), Math.random() * Math.random());
+			int ones[] = c.ones();
+
+			for(int j = 0; j < ones.length; j++) {
+				if(c.rank(ones[j]) != j || c.select(j) != ones[j]) {
+					System.out.println("rank/select mismatch at one " + j + " (position " + ones[j] + ") of " + c);
+				}
+			}
+			if(c.select(ones.length) != -1 || c.rank(c.size()) != ones.length) {
+				System.out.println("rank/select mismatch at end of " + c);
+			}
+		}
+
+		Bitstring empty = new Bitstring(0);
+		System.out.println("empty clone " + empty.clone());
+		Bitstring string = new Bitstring("10101010101");
+		System.out.println(string);
+		System.out.println(string.subbitstring(0, 0));
+		System.out.println(string.subbitstring(0, 1));
+		System.out.println(string.subbitstring(0, string.size()));
+	}
+}
@@ -0,0 +1,285 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Engine.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Engine -->
+ * 
+ * Runs the work of the extension that is split into independent tasks, on a
+ * fork-join pool whose parallelism can be set with
+ * {@link #setParallelism(int)}. Work too small to be worth splitting is done
+ * in the calling thread.
+ * 
+ * Tasks that need random numbers each get their own stream, derived by
+ * {@link #stream(long, long)} from a seed and the number of the task, rather
+ * than sharing one. The numbers each task draws, and so the results, are then
+ * the same however many threads the tasks are run on and in whatever order,
+ * and the same as running them one after the other.
+ * 
+ * The engine may be used from more than one thread at once. A pool replaced
+ * by {@link #setParallelism(int)} is only shut down once the calls to
+ * {@link #forEach(int, long, IntConsumer)} using it have finished.
+ * 
+ * @author Gary Polhill
+ */
+public final class Engine {
+
+	/**
+	 * Smallest number of words the tasks must process between them for them to
+	 * be run in parallel
+	 */
+	public static final long PARALLEL_THRESHOLD = 1L << 16;
+
+	/**
+	 * Number of pieces per thread that a range of tasks is split into, so that
+	 * threads finishing early can take on more
+	 */
+	public static final int PIECES_PER_THREAD = 4;
+
+	/**
+	 * Odd constant used to spread seeds (2<sup>64</sup> divided by the golden
+	 * ratio)
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private static volatile Runner runner = new Runner(ForkJoinPool.commonPool());
+
+	private Engine() {
+		// Not to be instantiated
+	}
+
+	/**
+	 * <!-- getParallelism -->
+	 * 
+	 * @return The number of threads tasks are run on
+	 */
+	public static int getParallelism() {
+		return runner.pool.getParallelism();
+	}
+
+	/**
+	 * <!-- setParallelism -->
+	 * 
+	 * @param parallelism
+	 *          The number of threads to run tasks on; 1 to run them all in the
+	 *          calling thread
+	 */
+	public static synchronized void setParallelism(int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1, not " + parallelism);
+		}
+		if(parallelism == runner.pool.getParallelism()) {
+			return;
+		}
+		Runner old = runner;
+		runner = new Runner(parallelism == ForkJoinPool.commonPool().getParallelism() ? ForkJoinPool.commonPool()
+				: new ForkJoinPool(parallelism));
+		old.retire();
+	}
+
+	/**
+	 * <!-- forEach -->
+	 * 
+	 * Run tasks numbered from 0 to <code>n - 1</code>, returning when they have
+	 * all finished. Any exception thrown by a task is thrown on by this method.
+	 * 
+	 * @param n
+	 *          Number of tasks
+	 * @param work
+	 *          Number of words the tasks will process between them
+	 * @param task
+	 *          Given the number of each task to run
+	 */
+	public static void forEach(int n, long work, IntConsumer task) {
+		if(n <= 1 || work < PARALLEL_THRESHOLD || getParallelism() <= 1) {
+			for(int i = 0; i < n; i++) {
+				task.accept(i);
+			}
+			return;
+		}
+
+		Runner using = Runner.acquire();
+		try {
+			int threads = using.pool.getParallelism();
+			if(threads <= 1) {
+				for(int i = 0; i < n; i++) {
+					task.accept(i);
+				}
+			}
+			else {
+				using.pool.invoke(new Range(0, n, Math.max(1, n / (threads * PIECES_PER_THREAD)), task));
+			}
+		}
+		catch(RuntimeException e) {
+			// An exception thrown in another thread is rethrown wrapped in a new one
+			// of the same class, with the original's class in its message
+			Throwable cause = e.getCause();
+			throw cause != null && cause.getClass() == e.getClass() ? (RuntimeException)cause : e;
+		}
+		finally {
+			using.release();
+		}
+	}
+
+	/**
+	 * <!-- stream -->
+	 * 
+	 * @param seed
+	 *          Seed shared by a batch of tasks, typically drawn from the random
+	 *          number generator of the model
+	 * @param task
+	 *          The number of the task in the batch
+	 * @return A random number generator for the task, independent of those of
+	 *         the other tasks
+	 */
+	public static SplittableRandom stream(long seed, long task) {
+		return new SplittableRandom(mix64(seed + mix64(task * GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * <!-- mix64 -->
+	 * 
+	 * @param z
+	 * @return <code>z</code> with its bits thoroughly mixed (variant 13 of
+	 *         Stafford's 64-bit finaliser, as used by {@link SplittableRandom})
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * <!-- Runner -->
+	 * 
+	 * A pool with a count of the calls using it, so that it is not shut down
+	 * under them when it is replaced
+	 * 
+	 * @author Gary Polhill
+	 */
+	private static class Runner {
+
+		private final ForkJoinPool pool;
+
+		private final AtomicInteger users = new AtomicInteger();
+
+		private volatile boolean retired = false;
+
+		Runner(ForkJoinPool pool) {
+			this.pool = pool;
+		}
+
+		/**
+		 * <!-- acquire -->
+		 * 
+		 * @return The current runner, counted as in use until
+		 *         {@link #release()} is called. A runner retired after being read
+		 *         but before being counted is given back, and the new one tried.
+		 */
+		static Runner acquire() {
+			for(;;) {
+				Runner current = runner;
+				current.users.incrementAndGet();
+				if(!current.retired) {
+					return current;
+				}
+				current.release();
+			}
+		}
+
+		/**
+		 * <!-- release -->
+		 * 
+		 * Stop using the pool, shutting it down if it has been retired and this
+		 * was the last use
+		 */
+		void release() {
+			if(users.decrementAndGet() == 0 && retired) {
+				shutdown();
+			}
+		}
+
+		/**
+		 * <!-- retire -->
+		 * 
+		 * Called once the runner has been replaced, shutting down its pool now if
+		 * nothing is using it, or else when the last use is released
+		 */
+		void retire() {
+			retired = true;
+			if(users.get() == 0) {
+				shutdown();
+			}
+		}
+
+		private void shutdown() {
+			if(pool != ForkJoinPool.commonPool()) {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * <!-- Range -->
+	 * 
+	 * A range of tasks, split in two until no bigger than the grain size
+	 * 
+	 * @author Gary Polhill
+	 */
+	private static class Range extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+
+		private final int to;
+
+		private final int grain;
+
+		private final IntConsumer task;
+
+		Range(int from, int to, int grain, IntConsumer task) {
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.task = task;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= grain) {
+				for(int i = from; i < to; i++) {
+					task.accept(i);
+				}
+			}
+			else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Range(from, mid, grain, task), new Range(mid, to, grain, task));
+			}
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * GeneticAlgorithm.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- GeneticAlgorithm -->
+ * 
+ * One generation of a genetic algorithm over a population of bitstrings of
+ * the same length: the fittest few are copied unchanged (elitism), and the
+ * rest of the next generation are the children of parents chosen by
+ * selection, crossed over with a given probability and then mutated by
+ * toggling each bit with a given probability.
+ * 
+ * Parents are chosen in the calling thread, and then each pair of them is
+ * crossed over and mutated as a separate task of the {@link Engine}, with its
+ * own random number stream, so the next generation depends only on the random
+ * number generator passed in and not on the parallelism.
+ * 
+ * @author Gary Polhill
+ */
+public class GeneticAlgorithm {
+
+	public enum Selection {
+		TOURNAMENT, ROULETTE, SUS
+	};
+
+	public enum Recombination {
+		NONE, POINT, TWO_POINT, UNIFORM
+	};
+
+	public static final int DEFAULT_TOURNAMENT_SIZE = 2;
+
+	public static final double DEFAULT_CROSSOVER_PROB = 0.7;
+
+	private final Selection selection;
+
+	private final int tournamentSize;
+
+	private final Recombination recombination;
+
+	private final double crossoverProb;
+
+	private final double mutationProb;
+
+	private final int elites;
+
+	/**
+	 * <!-- GeneticAlgorithm constructor -->
+	 * 
+	 * @param selection
+	 *          How parents are chosen
+	 * @param tournamentSize
+	 *          Number of individuals in each tournament, if
+	 *          <code>selection</code> is {@link Selection#TOURNAMENT}
+	 * @param recombination
+	 *          The crossover operator
+	 * @param crossoverProb
+	 *          Probability a pair of parents is crossed over rather than copied
+	 * @param mutationProb
+	 *          Probability each bit of a child is toggled
+	 * @param elites
+	 *          Number of the fittest individuals copied unchanged
+	 */
+	public GeneticAlgorithm(Selection selection, int tournamentSize, Recombination recombination,
+			double crossoverProb, double mutationProb, int elites) {
+		if(tournamentSize < 1) {
+			throw new IllegalArgumentException("Tournament size must be at least 1, not " + tournamentSize);
+		}
+		if(crossoverProb < 0.0 || crossoverProb > 1.0) {
+			throw new IllegalArgumentException("Crossover probability " + crossoverProb + " outside the range [0, 1]");
+		}
+		if(mutationProb < 0.0 || mutationProb > 1.0) {
+			throw new IllegalArgumentException("Mutation probability " + mutationProb + " outside the range [0, 1]");
+		}
+		if(elites < 0) {
+			throw new IllegalArgumentException("Number of elites must not be negative, not " + elites);
+		}
+		this.selection = selection;
+		this.tournamentSize = tournamentSize;
+		this.recombination = recombination;
+		this.crossoverProb = crossoverProb;
+		this.mutationProb = mutationProb;
+		this.elites = elites;
+	}
+
+	/**
+	 * <!-- step -->
+	 * 
+	 * @param population
+	 *          A non-empty array of bitstrings, all of the same length
+	 * @param fitnesses
+	 *          The fitness of each member of <code>population</code>; higher is
+	 *          fitter. Roulette and SUS selection need them all to be
+	 *          non-negative.
+	 * @param rng
+	 *          The random number generator to use
+	 * @return The next generation, the same size as <code>population</code>,
+	 *         with the elites first
+	 */
+	public Bitstring[] step(final Bitstring population[], double fitnesses[], SplittableRandom rng) {
+		if(population.length == 0) {
+			throw new IllegalArgumentException("Cannot evolve an empty population of bitstrings");
+		}
+		if(fitnesses.length != population.length) {
+			throw new IllegalArgumentException("Population has a different size (" + population.length
+					+ ") from the number of fitnesses (" + fitnesses.length + ")");
+		}
+		final int length = population[0].size();
+		for(int i = 1; i < population.length; i++) {
+			if(population[i].size() != length) {
+				throw new IllegalArgumentException("Cannot evolve bitstrings of different lengths (" + length + " and "
+						+ population[i].size() + ")");
+			}
+		}
+
+		int n = population.length;
+		int nElites = Math.min(elites, n);
+		Bitstring next[] = new Bitstring[n];
+
+		if(nElites > 0) {
+			int order[] = fittest(fitnesses);
+			for(int i = 0; i < nElites; i++) {
+				next[i] = population[order[i]];
+			}
+		}
+
+		final int pairs = (n - nElites + 1) / 2;
+		final int parents[] = select(fitnesses, 2 * pairs, rng);
+		final Bitstring children[] = new Bitstring[2 * pairs];
+		final long seed = rng.nextLong();
+
+		Engine.forEach(pairs, (long)pairs * 2 * ((length + Long.SIZE - 1) / Long.SIZE), i -> {
+			SplittableRandom stream = Engine.stream(seed, i);
+			Bitstring pair[] = crossover(population[parents[2 * i]], population[parents[2 * i + 1]], stream);
+			children[2 * i] = mutate(pair[0], stream);
+			children[2 * i + 1] = mutate(pair[1], stream);
+		});
+
+		System.arraycopy(children, 0, next, nElites, n - nElites);
+		return next;
+	}
+
+	/**
+	 * <!-- fittest -->
+	 * 
+	 * @param fitnesses
+	 * @return Indices into <code>fitnesses</code> from the fittest to the least
+	 *         fit, keeping the order of those with equal fitness
+	 */
+	static int[] fittest(final double fitnesses[]) {
+		Integer order[] = new Integer[fitnesses.length];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i, j) -> Double.compare(fitnesses[j], fitnesses[i]));
+		int indices[] = new int[order.length];
+		for(int i = 0; i < order.length; i++) {
+			indices[i] = order[i];
+		}
+		return indices;
+	}
+
+	/**
+	 * <!-- select -->
+	 * 
+	 * @param fitnesses
+	 * @param m
+	 *          Number of parents to choose
+	 * @param rng
+	 * @return Indices of the parents chosen, in random order
+	 */
+	private int[] select(double fitnesses[], int m, SplittableRandom rng) {
+		int parents[] = new int[m];
+
+		switch(selection) {
+		case TOURNAMENT:
+			for(int k = 0; k < m; k++) {
+				int best = rng.nextInt(fitnesses.length);
+				for(int t = 1; t < tournamentSize; t++) {
+					int i = rng.nextInt(fitnesses.length);
+					if(fitnesses[i] > fitnesses[best]) {
+						best = i;
+					}
+				}
+				parents[k] = best;
+			}
+			return parents;
+		case ROULETTE:
+		case SUS:
+			double cumulative[] = cumulative(fitnesses);
+			double total = cumulative[cumulative.length - 1];
+			if(total == 0.0) {
+				for(int k = 0; k < m; k++) {
+					parents[k] = rng.nextInt(fitnesses.length);
+				}
+			}
+			else if(selection == Selection.ROULETTE) {
+				for(int k = 0; k < m; k++) {
+					parents[k] = spin(cumulative, rng.nextDouble() * total);
+				}
+			}
+			else {
+				double step = total / m;
+				double pointer = rng.nextDouble() * step;
+				int i = 0;
+				for(int k = 0; k < m; k++, pointer += step) {
+					while(i < cumulative.length - 1 && cumulative[i] <= pointer) {
+						i++;
+					}
+					parents[k] = i;
+				}
+
+				// SUS chooses parents in order of their position in the population, so
+				// shuffle them before they are paired
+
+				for(int k = m - 1; k > 0; k--) {
+					int j = rng.nextInt(k + 1);
+					int swap = parents[k];
+					parents[k] = parents[j];
+					parents[j] = swap;
+				}
+			}
+			return parents;
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- cumulative -->
+	 * 
+	 * @param fitnesses
+	 * @return The running total of <code>fitnesses</code>
+	 * @throws IllegalArgumentException
+	 *           if any of the fitnesses are negative
+	 */
+	private static double[] cumulative(double fitnesses[]) {
+		double cumulative[] = new double[fitnesses.length];
+		double total = 0.0;
+		for(int i = 0; i < fitnesses.length; i++) {
+			if(fitnesses[i] < 0.0 || Double.isNaN(fitnesses[i])) {
+				throw new IllegalArgumentException("Roulette and SUS selection need non-negative fitnesses, not "
+						+ fitnesses[i]);
+			}
+			total += fitnesses[i];
+			cumulative[i] = total;
+		}
+		return cumulative;
+	}
+
+	/**
+	 * <!-- spin -->
+	 * 
+	 * @param cumulative
+	 * @param x
+	 *          A number in the range [0, total fitness[
+	 * @return The first index whose running total of fitness exceeds
+	 *         <code>x</code>
+	 */
+	private static int spin(double cumulative[], double x) {
+		int lo = 0;
+		int hi = cumulative.length - 1;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(cumulative[mid] > x) {
+				hi = mid;
+			}
+			else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * <!-- crossover -->
+	 * 
+	 * @param a
+	 * @param b
+	 * @param rng
+	 * @return The two children of <code>a</code> and <code>b</code>
+	 */
+	private Bitstring[] crossover(Bitstring a, Bitstring b, SplittableRandom rng) {
+		if(recombination == Recombination.NONE || rng.nextDouble() >= crossoverProb) {
+			return new Bitstring[] { a, b };
+		}
+		int length = a.size();
+
+		switch(recombination) {
+		case POINT:
+			return a.crossover(b, rng.nextInt(length + 1));
+		case TWO_POINT:
+			int p = rng.nextInt(length + 1);
+			int q = rng.nextInt(length + 1);
+			return a.crossover(b, new int[] { Math.min(p, q), Math.max(p, q) });
+		case UNIFORM:
+			return a.crossoverUniform(b, 0.5, rng);
+		default:
+			throw new RuntimeException("PANIC!");
+		}
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return The selection, tournament size, recombination, crossover
+	 *         probability, mutation probability and number of elites
+	 */
+	@Override
+	public String toString() {
+		return selection + " " + tournamentSize + " " + recombination + " " + crossoverProb + " " + mutationProb + " "
+				+ elites;
+	}
+
+	/**
+	 * <!-- mutate -->
+	 * 
+	 * @param child
+	 * @param rng
+	 * @return <code>child</code> with each bit toggled with the mutation
+	 *         probability
+	 */
+	private Bitstring mutate(Bitstring child, SplittableRandom rng) {
+		return mutationProb == 0.0 ? child : child.jitter(mutationProb, rng);
+	}
+}
@@ -0,0 +1,314 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * IslandModel.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- IslandModel -->
+ * 
+ * A genetic algorithm run on several separate populations (islands) of
+ * bitstrings of the same length. Each generation, the islands are stepped by
+ * the same {@link GeneticAlgorithm} in parallel, each with its own random
+ * number stream. Every so many generations, the fittest few of each island
+ * migrate to its neighbours in the topology, replacing their least fit.
+ * 
+ * @author Gary Polhill
+ */
+public class IslandModel {
+
+	public enum Topology {
+		RING, FULL, RANDOM
+	};
+
+	public static final int DEFAULT_INTERVAL = 10;
+
+	public static final int DEFAULT_MIGRANTS = 1;
+
+	private final Bitstring islands[][];
+
+	private final GeneticAlgorithm ga;
+
+	private final Topology topology;
+
+	private final int interval;
+
+	private final int migrants;
+
+	private int generation;
+
+	/**
+	 * <!-- IslandModel constructor -->
+	 * 
+	 * @param islands
+	 *          The initial population of each island; none may be empty, and
+	 *          all the bitstrings must have the same length
+	 * @param ga
+	 *          The genetic algorithm each island is evolved with
+	 * @param topology
+	 *          Which islands migrants go to: the next one round
+	 *          ({@link Topology#RING}), all the others ({@link Topology#FULL}),
+	 *          or one of the others chosen at random ({@link Topology#RANDOM})
+	 * @param interval
+	 *          Number of generations between migrations
+	 * @param migrants
+	 *          Number of individuals each island sends to each of the islands
+	 *          it migrates to
+	 */
+	public IslandModel(Bitstring islands[][], GeneticAlgorithm ga, Topology topology, int interval, int migrants) {
+		this(islands, ga, topology, interval, migrants, 0);
+	}
+
+	/**
+	 * <!-- IslandModel constructor -->
+	 * 
+	 * @param islands
+	 * @param ga
+	 * @param topology
+	 * @param interval
+	 * @param migrants
+	 * @param generation
+	 *          Number of generations the islands have already evolved for
+	 */
+	protected IslandModel(Bitstring islands[][], GeneticAlgorithm ga, Topology topology, int interval, int migrants,
+			int generation) {
+		if(islands.length == 0) {
+			throw new IllegalArgumentException("An island model needs at least one island");
+		}
+		if(interval < 1) {
+			throw new IllegalArgumentException("Interval between migrations must be at least 1, not " + interval);
+		}
+		if(migrants < 0) {
+			throw new IllegalArgumentException("Number of migrants must not be negative, not " + migrants);
+		}
+		this.islands = new Bitstring[islands.length][];
+		for(int i = 0; i < islands.length; i++) {
+			if(islands[i].length == 0) {
+				throw new IllegalArgumentException("Island " + i + " has no bitstrings");
+			}
+			this.islands[i] = islands[i].clone();
+			for(int j = 0; j < islands[i].length; j++) {
+				if(islands[i][j].size() != islands[0][0].size()) {
+					throw new IllegalArgumentException("Cannot evolve bitstrings of different lengths ("
+							+ islands[0][0].size() + " and " + islands[i][j].size() + ")");
+				}
+			}
+		}
+		this.ga = ga;
+		this.topology = topology;
+		this.interval = interval;
+		this.migrants = migrants;
+		this.generation = generation;
+	}
+
+	/**
+	 * <!-- size -->
+	 * 
+	 * @return The number of islands
+	 */
+	public int size() {
+		return islands.length;
+	}
+
+	/**
+	 * <!-- getGeneration -->
+	 * 
+	 * @return The number of generations the islands have evolved for
+	 */
+	public synchronized int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * <!-- island -->
+	 * 
+	 * @param i
+	 * @return The current population of island <code>i</code>
+	 */
+	public synchronized Bitstring[] island(int i) {
+		return islands[i].clone();
+	}
+
+	/**
+	 * <!-- evolve -->
+	 * 
+	 * @param generations
+	 *          Number of generations to evolve the islands for
+	 * @param fitness
+	 *          The fitness of a bitstring (higher is fitter), which will be
+	 *          called from several threads at once
+	 * @param rng
+	 *          The random number generator to use
+	 */
+	public void evolve(int generations, ToDoubleFunction<Bitstring> fitness, SplittableRandom rng) {
+		evolve(generations, fitness, true, rng);
+	}
+
+	/**
+	 * <!-- evolve -->
+	 * 
+	 * Fitness functions are assumed to be worth calling in parallel, however
+	 * short the bitstrings, when <code>concurrent</code> is <code>true</code>.
+	 * 
+	 * @param generations
+	 *          Number of generations to evolve the islands for
+	 * @param fitness
+	 *          The fitness of a bitstring (higher is fitter)
+	 * @param concurrent
+	 *          Whether <code>fitness</code> may be called from several threads
+	 *          at once; if not, it is only called from the calling thread
+	 * @param rng
+	 *          The random number generator to use
+	 */
+	public synchronized void evolve(int generations, ToDoubleFunction<Bitstring> fitness, boolean concurrent,
+			SplittableRandom rng) {
+		final double fitnesses[][] = new double[islands.length][];
+		long work = 0L;
+		for(int i = 0; i < islands.length; i++) {
+			work += (long)islands[i].length * ((islands[i][0].size() + Long.SIZE - 1) / Long.SIZE);
+		}
+
+		for(int g = 0; g < generations; g++) {
+			if(concurrent) {
+				Engine.forEach(islands.length, Engine.PARALLEL_THRESHOLD, i -> fitnesses[i] = evaluate(islands[i], fitness));
+			}
+			else {
+				for(int i = 0; i < islands.length; i++) {
+					fitnesses[i] = evaluate(islands[i], fitness);
+				}
+			}
+
+			if(generation > 0 && generation % interval == 0 && islands.length > 1 && migrants > 0) {
+				migrate(fitnesses, rng);
+			}
+
+			final long seed = rng.nextLong();
+			Engine.forEach(islands.length, work,
+					i -> islands[i] = ga.step(islands[i], fitnesses[i], Engine.stream(seed, i)));
+			generation++;
+		}
+	}
+
+	/**
+	 * <!-- evaluate -->
+	 * 
+	 * @param population
+	 * @param fitness
+	 * @return The fitness of each member of <code>population</code>
+	 */
+	private static double[] evaluate(Bitstring population[], ToDoubleFunction<Bitstring> fitness) {
+		double fitnesses[] = new double[population.length];
+		for(int i = 0; i < population.length; i++) {
+			fitnesses[i] = fitness.applyAsDouble(population[i]);
+		}
+		return fitnesses;
+	}
+
+	/**
+	 * <!-- migrate -->
+	 * 
+	 * The migrants are chosen from every island before any arrive, and on each
+	 * island replace the least fit of the residents, taking their fitness with
+	 * them.
+	 * 
+	 * @param fitnesses
+	 *          The fitness of each member of each island, updated as migrants
+	 *          arrive
+	 * @param rng
+	 */
+	private void migrate(double fitnesses[][], SplittableRandom rng) {
+		int k = islands.length;
+		List<List<Bitstring>> arrivals = new ArrayList<List<Bitstring>>(k);
+		List<List<Double>> arrivalFitnesses = new ArrayList<List<Double>>(k);
+		for(int j = 0; j < k; j++) {
+			arrivals.add(new ArrayList<Bitstring>());
+			arrivalFitnesses.add(new ArrayList<Double>());
+		}
+
+		for(int i = 0; i < k; i++) {
+			int order[] = GeneticAlgorithm.fittest(fitnesses[i]);
+			int n = Math.min(migrants, order.length);
+
+			int destinations[];
+			switch(topology) {
+			case RING:
+				destinations = new int[] { (i + 1) % k };
+				break;
+			case FULL:
+				destinations = new int[k - 1];
+				for(int j = 0; j < k - 1; j++) {
+					destinations[j] = j < i ? j : j + 1;
+				}
+				break;
+			case RANDOM:
+				int j = rng.nextInt(k - 1);
+				destinations = new int[] { j < i ? j : j + 1 };
+				break;
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+
+			for(int dest: destinations) {
+				for(int m = 0; m < n; m++) {
+					arrivals.get(dest).add(islands[i][order[m]]);
+					arrivalFitnesses.get(dest).add(fitnesses[i][order[m]]);
+				}
+			}
+		}
+
+		for(int j = 0; j < k; j++) {
+			int order[] = GeneticAlgorithm.fittest(fitnesses[j]);
+			int n = Math.min(arrivals.get(j).size(), order.length);
+			for(int m = 0; m < n; m++) {
+				int worst = order[order.length - 1 - m];
+				islands[j][worst] = arrivals.get(j).get(m);
+				fitnesses[j][worst] = arrivalFitnesses.get(j).get(m);
+			}
+		}
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return The generation, interval, number of migrants, topology and
+	 *         genetic algorithm, followed by the number of islands, the size of
+	 *         each, and the bitstrings on them
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder buff = new StringBuilder();
+
+		buff.append(generation).append(" ").append(interval).append(" ").append(migrants).append(" ").append(topology);
+		buff.append(" ").append(ga).append(" ").append(islands.length);
+		for(int i = 0; i < islands.length; i++) {
+			buff.append(" ").append(islands[i].length);
+		}
+		for(int i = 0; i < islands.length; i++) {
+			for(int j = 0; j < islands[i].length; j++) {
+				buff.append(" ").append(islands[i][j]);
+			}
+		}
+		return buff.toString();
+	}
+}
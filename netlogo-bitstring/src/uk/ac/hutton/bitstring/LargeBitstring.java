@@ -0,0 +1,556 @@
+package uk.ac.hutton.bitstring;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * LargeBitstring.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- LargeBitstring -->
+ * 
+ * A bitstring too long for {@link Bitstring}, indexed by <code>long</code>,
+ * with its words kept in a file and memory-mapped in segments of up to
+ * 2<sup>{@link #SEGMENT_SHIFT}</sup> words. The file has a header of
+ * {@link #HEADER_BYTES} bytes, holding {@link #MAGIC} and the length, followed
+ * by the words in the same layout as those of a {@link Bitstring}, least
+ * significant byte first.
+ * 
+ * Unlike a {@link Bitstring}, a large bitstring is changed in place by
+ * {@link #set(long, boolean)}, and the changes are written back to its file.
+ * Operations on the whole bitstring stream through it
+ * {@link #CHUNK_WORDS} words at a time, so only the pages of the file being
+ * worked on need be in memory.
+ * 
+ * @author Gary Polhill
+ */
+public class LargeBitstring {
+
+	/**
+	 * First eight bytes of a large bitstring file ("NLBITSTR")
+	 */
+	public static final long MAGIC = 0x4e4c424954535452L;
+
+	public static final int HEADER_BYTES = 2 * Long.BYTES;
+
+	/**
+	 * Each segment maps 2<sup><code>SEGMENT_SHIFT</code></sup> words (1 GiB) of
+	 * the file
+	 */
+	public static final int SEGMENT_SHIFT = 27;
+
+	public static final int CHUNK_WORDS = 1 << 16;
+
+	private enum Op {
+		AND, OR, XOR
+	};
+
+	private final long length;
+
+	private final Path path;
+
+	private final boolean writable;
+
+	private final MappedByteBuffer buffers[];
+
+	/**
+	 * The words of each segment of the file
+	 */
+	private final LongBuffer segments[];
+
+	/**
+	 * <!-- LargeBitstring constructor -->
+	 * 
+	 * Map the words of an existing file
+	 * 
+	 * @param path
+	 * @param length
+	 *          The length of the bitstring in the file
+	 * @param writable
+	 *          Whether to allow {@link #set(long, boolean)}
+	 * @throws IOException
+	 */
+	private LargeBitstring(Path path, long length, boolean writable) throws IOException {
+		this.path = path;
+		this.length = length;
+		this.writable = writable;
+
+		long nWords = nWords(length);
+		int n = (int)((nWords + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT);
+		buffers = new MappedByteBuffer[n];
+		segments = new LongBuffer[n];
+
+		try(FileChannel channel = writable ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(path, StandardOpenOption.READ)) {
+			if(channel.size() < HEADER_BYTES + nWords * Long.BYTES) {
+				throw new IOException("File " + path + " is too short to hold a bitstring of " + length + " bits");
+			}
+			for(int i = 0; i < n; i++) {
+				long first = (long)i << SEGMENT_SHIFT;
+				long words = Math.min(1L << SEGMENT_SHIFT, nWords - first);
+				buffers[i] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+						HEADER_BYTES + first * Long.BYTES, words * Long.BYTES);
+				buffers[i].order(ByteOrder.LITTLE_ENDIAN);
+				segments[i] = buffers[i].asLongBuffer();
+			}
+		}
+	}
+
+	/**
+	 * <!-- LargeBitstring constructor -->
+	 * 
+	 * Create a large bitstring sharing the mapped file of another
+	 * 
+	 * @param bitstring
+	 */
+	protected LargeBitstring(LargeBitstring bitstring) {
+		this.path = bitstring.path;
+		this.length = bitstring.length;
+		this.writable = bitstring.writable;
+		this.buffers = bitstring.buffers;
+		this.segments = bitstring.segments;
+	}
+
+	/**
+	 * <!-- create -->
+	 * 
+	 * Create a file for a large bitstring of <code>0</code>s, replacing any
+	 * existing file. The new file is made under a temporary name in the same
+	 * directory and then moved over <code>path</code>, so large bitstrings
+	 * still mapped from the file it replaces (such as the operands of
+	 * {@link #and(LargeBitstring, Path)} writing to one of their own files) keep
+	 * their bits rather than being truncated.
+	 * 
+	 * @param path
+	 * @param length
+	 * @return The bitstring
+	 * @throws IOException
+	 *           if the file cannot be made, or cannot be moved over an existing
+	 *           file (as on systems that do not allow replacing a mapped file)
+	 */
+	public static LargeBitstring create(Path path, long length) throws IOException {
+		if(length < 0) {
+			throw new IllegalArgumentException("Cannot create a bitstring with negative length " + length);
+		}
+		Path tmp = path.resolveSibling("." + path.getFileName() + "."
+				+ Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+		try {
+			try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				header.putLong(MAGIC).putLong(length).flip();
+				channel.write(header, 0);
+				if(length > 0) {
+					// Extending the file leaves the words as 0s
+					channel.write(ByteBuffer.allocate(1), HEADER_BYTES + nWords(length) * Long.BYTES - 1);
+				}
+			}
+			Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally {
+			Files.deleteIfExists(tmp);
+		}
+		return new LargeBitstring(path, length, true);
+	}
+
+	/**
+	 * <!-- create -->
+	 * 
+	 * Create a file for a large bitstring with the bits of a {@link Bitstring},
+	 * replacing any existing file
+	 * 
+	 * @param path
+	 * @param bitstring
+	 * @return The bitstring
+	 * @throws IOException
+	 */
+	public static LargeBitstring create(Path path, Bitstring bitstring) throws IOException {
+		LargeBitstring large = create(path, bitstring.size());
+		long words[] = bitstring.words();
+		large.putWords(0L, words, words.length);
+		return large;
+	}
+
+	/**
+	 * <!-- open -->
+	 * 
+	 * @param path
+	 *          A file made by {@link #create(Path, long)} or
+	 *          {@link #create(Path, Bitstring)}
+	 * @param writable
+	 *          Whether to allow {@link #set(long, boolean)}
+	 * @return The bitstring in the file
+	 * @throws IOException
+	 */
+	public static LargeBitstring open(Path path, boolean writable) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while(header.hasRemaining()) {
+				if(channel.read(header, header.position()) < 0) {
+					throw new IOException("File " + path + " is not a large bitstring");
+				}
+			}
+		}
+		header.flip();
+		if(header.getLong() != MAGIC) {
+			throw new IOException("File " + path + " is not a large bitstring");
+		}
+		long length = header.getLong();
+		if(length < 0) {
+			throw new IOException("File " + path + " has a negative length");
+		}
+		return new LargeBitstring(path, length, writable);
+	}
+
+	/**
+	 * <!-- nWords -->
+	 * 
+	 * @param length
+	 * @return The number of words needed for a bitstring of <code>length</code>
+	 *         bits
+	 */
+	private static long nWords(long length) {
+		return (length + Long.SIZE - 1) >>> 6;
+	}
+
+	public long length() {
+		return length;
+	}
+
+	public Path path() {
+		return path;
+	}
+
+	public boolean isWritable() {
+		return writable;
+	}
+
+	/**
+	 * <!-- word -->
+	 * 
+	 * @param i
+	 * @return The <code>i</code><sup>th</sup> word
+	 */
+	private long word(long i) {
+		return segments[(int)(i >>> SEGMENT_SHIFT)].get((int)(i & ((1L << SEGMENT_SHIFT) - 1)));
+	}
+
+	/**
+	 * <!-- getWords -->
+	 * 
+	 * @param first
+	 *          The first word to get
+	 * @param arr
+	 *          Array to put the words in
+	 * @param n
+	 *          The number of words to get
+	 */
+	private void getWords(long first, long arr[], int n) {
+		int done = 0;
+
+		while(done < n) {
+			long i = first + done;
+			LongBuffer segment = segments[(int)(i >>> SEGMENT_SHIFT)].duplicate();
+			segment.position((int)(i & ((1L << SEGMENT_SHIFT) - 1)));
+			int k = Math.min(n - done, segment.remaining());
+			segment.get(arr, done, k);
+			done += k;
+		}
+	}
+
+	/**
+	 * <!-- putWords -->
+	 * 
+	 * @param first
+	 *          The first word to put
+	 * @param arr
+	 *          Array of the words to put
+	 * @param n
+	 *          The number of words to put
+	 */
+	private void putWords(long first, long arr[], int n) {
+		int done = 0;
+
+		while(done < n) {
+			long i = first + done;
+			LongBuffer segment = segments[(int)(i >>> SEGMENT_SHIFT)].duplicate();
+			segment.position((int)(i & ((1L << SEGMENT_SHIFT) - 1)));
+			int k = Math.min(n - done, segment.remaining());
+			segment.put(arr, done, k);
+			done += k;
+		}
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param bit
+	 * @return The value of the <code>bit</code><sup>th</sup> bit
+	 */
+	public boolean get(long bit) {
+		if(bit < 0 || bit >= length) {
+			throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+		}
+		return (word(bit >>> 6) & (1L << bit)) != 0;
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * Set a bit in place
+	 * 
+	 * @param bit
+	 * @param value
+	 */
+	public void set(long bit, boolean value) {
+		if(bit < 0 || bit >= length) {
+			throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+		}
+		if(!writable) {
+			throw new IllegalArgumentException("Cannot change large bitstring in file " + path
+					+ " because it was opened read-only");
+		}
+		long i = bit >>> 6;
+		LongBuffer segment = segments[(int)(i >>> SEGMENT_SHIFT)];
+		int j = (int)(i & ((1L << SEGMENT_SHIFT) - 1));
+		segment.put(j, value ? segment.get(j) | (1L << bit) : segment.get(j) & ~(1L << bit));
+	}
+
+	/**
+	 * <!-- count1 -->
+	 * 
+	 * @return The number of <code>1</code>s in the bitstring
+	 */
+	public long count1() {
+		return count1(0L, length);
+	}
+
+	/**
+	 * <!-- count1 -->
+	 * 
+	 * @param from
+	 *          The first position to count from
+	 * @param to
+	 *          The position after the last one to count
+	 * @return The number of <code>1</code>s in positions [<code>from</code>,
+	 *         <code>to</code>[
+	 */
+	public long count1(long from, long to) {
+		if(from < 0 || to > length || from > to) {
+			throw new IllegalArgumentException("Range [" + from + ", " + to + "[ is not within [0, " + length + "]");
+		}
+		if(from == to) return 0L;
+		long first = from >>> 6;
+		long last = (to - 1) >>> 6;
+		long buf[] = new long[(int)Math.min(CHUNK_WORDS, last - first + 1)];
+		long n = 0L;
+
+		for(long w = first; w <= last; w += buf.length) {
+			int k = (int)Math.min(buf.length, last - w + 1);
+			getWords(w, buf, k);
+			if(w == first) {
+				buf[0] &= ~0L << from;
+			}
+			if(w + k - 1 == last) {
+				buf[k - 1] &= ~0L >>> (Long.SIZE - 1 - ((to - 1) & (Long.SIZE - 1)));
+			}
+			for(int j = 0; j < k; j++) {
+				n += Long.bitCount(buf[j]);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * <!-- sub -->
+	 * 
+	 * @param from
+	 *          The first position to copy
+	 * @param to
+	 *          The position after the last one to copy
+	 * @return The bits in positions [<code>from</code>, <code>to</code>[ as a
+	 *         {@link Bitstring}
+	 */
+	public Bitstring sub(long from, long to) {
+		if(from < 0 || to > length || from > to) {
+			throw new IllegalArgumentException("Range [" + from + ", " + to + "[ is not within [0, " + length + "]");
+		}
+		if(to - from > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Range [" + from + ", " + to + "[ is too long for a bitstring");
+		}
+		int n = (int)(to - from);
+		long arr[] = new long[(int)nWords(n)];
+		if(n == 0) {
+			return Bitstring.fromWords(0, arr);
+		}
+		long src[] = new long[(int)(((to - 1) >>> 6) - (from >>> 6) + 1)];
+		getWords(from >>> 6, src, src.length);
+
+		int shift = (int)(from & (Long.SIZE - 1));
+		for(int i = 0; i < arr.length; i++) {
+			arr[i] = src[i] >>> shift;
+			if(shift != 0 && i + 1 < src.length) {
+				arr[i] |= src[i + 1] << (Long.SIZE - shift);
+			}
+		}
+		arr[arr.length - 1] &= ~0L >>> (Long.SIZE - 1 - ((n - 1) & (Long.SIZE - 1)));
+		return Bitstring.fromWords(n, arr);
+	}
+
+	/**
+	 * <!-- and -->
+	 * 
+	 * @param other
+	 * @param out
+	 *          File to write the result to
+	 * @return The bitwise AND of this bitstring with <code>other</code>
+	 * @throws IOException
+	 */
+	public LargeBitstring and(LargeBitstring other, Path out) throws IOException {
+		return combine(Op.AND, other, out);
+	}
+
+	/**
+	 * <!-- or -->
+	 * 
+	 * @param other
+	 * @param out
+	 *          File to write the result to
+	 * @return The bitwise OR of this bitstring with <code>other</code>
+	 * @throws IOException
+	 */
+	public LargeBitstring or(LargeBitstring other, Path out) throws IOException {
+		return combine(Op.OR, other, out);
+	}
+
+	/**
+	 * <!-- xor -->
+	 * 
+	 * @param other
+	 * @param out
+	 *          File to write the result to
+	 * @return The bitwise XOR of this bitstring with <code>other</code>
+	 * @throws IOException
+	 */
+	public LargeBitstring xor(LargeBitstring other, Path out) throws IOException {
+		return combine(Op.XOR, other, out);
+	}
+
+	/**
+	 * <!-- combine -->
+	 * 
+	 * @param op
+	 * @param other
+	 * @param out
+	 * @return The result of <code>op</code> on this and <code>other</code>,
+	 *         computed a chunk at a time
+	 * @throws IOException
+	 */
+	private LargeBitstring combine(Op op, LargeBitstring other, Path out) throws IOException {
+		if(other.length != this.length) {
+			throw new IllegalArgumentException("Cannot " + op + " bitstrings of different lengths (" + this.length
+					+ " and " + other.length + ")");
+		}
+		LargeBitstring result = create(out, length);
+		long nWords = nWords(length);
+		long a[] = new long[(int)Math.min(CHUNK_WORDS, nWords)];
+		long b[] = new long[a.length];
+
+		for(long w = 0; w < nWords; w += a.length) {
+			int k = (int)Math.min(a.length, nWords - w);
+			getWords(w, a, k);
+			other.getWords(w, b, k);
+			switch(op) {
+			case AND:
+				for(int j = 0; j < k; j++) {
+					a[j] &= b[j];
+				}
+				break;
+			case OR:
+				for(int j = 0; j < k; j++) {
+					a[j] |= b[j];
+				}
+				break;
+			case XOR:
+				for(int j = 0; j < k; j++) {
+					a[j] ^= b[j];
+				}
+				break;
+			default:
+				throw new RuntimeException("PANIC!");
+			}
+			result.putWords(w, a, k);
+		}
+		return result;
+	}
+
+	/**
+	 * <!-- force -->
+	 * 
+	 * Make sure any changes are written to the file
+	 */
+	public void force() {
+		if(writable) {
+			for(MappedByteBuffer buffer: buffers) {
+				buffer.force();
+			}
+		}
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return path.toString();
+	}
+
+	/**
+	 * <!-- equals -->
+	 * 
+	 * @param oother
+	 * @return <code>true</code> if the other is a large bitstring mapped from the
+	 *         same file
+	 */
+	@Override
+	public boolean equals(Object oother) {
+		if(!(oother instanceof LargeBitstring)) {
+			return false;
+		}
+		LargeBitstring other = (LargeBitstring)oother;
+		return length == other.length && path.toAbsolutePath().normalize().equals(other.path.toAbsolutePath().normalize());
+	}
+
+	@Override
+	public int hashCode() {
+		return path.toAbsolutePath().normalize().hashCode();
+	}
+}
@@ -0,0 +1,265 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Population.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Population -->
+ * 
+ * An immutable array of bitstrings with operations applied to all of them at
+ * once, in parallel on the {@link Engine} when there is enough work. This,
+ * {@link GeneticAlgorithm} and {@link IslandModel} make up a Java API for
+ * evolving bitstrings that does not need NetLogo. Fitness functions are
+ * called from several threads at once, and are assumed to be worth calling in
+ * parallel however short the bitstrings.
+ * 
+ * @author Gary Polhill
+ */
+public class Population implements Iterable<Bitstring> {
+
+	private final Bitstring members[];
+
+	/**
+	 * <!-- Population constructor -->
+	 * 
+	 * @param members
+	 */
+	public Population(Bitstring members[]) {
+		this.members = members.clone();
+	}
+
+	/**
+	 * <!-- Population constructor -->
+	 * 
+	 * Create a population of random bitstrings
+	 * 
+	 * @param size
+	 *          The number of bitstrings
+	 * @param length
+	 *          The length of each bitstring
+	 * @param probability
+	 *          The probability of setting each bit to 1
+	 * @param rng
+	 *          The random number generator to use
+	 */
+	public Population(int size, final int length, final double probability, SplittableRandom rng) {
+		this.members = new Bitstring[size];
+		final long seed = rng.nextLong();
+		Engine.forEach(size, (long)size * ((length + Long.SIZE - 1) / Long.SIZE),
+				i -> members[i] = new Bitstring(length, probability, Engine.stream(seed, i)));
+	}
+
+	/**
+	 * <!-- size -->
+	 * 
+	 * @return The number of bitstrings in the population
+	 */
+	public int size() {
+		return members.length;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param i
+	 * @return Bitstring number <code>i</code>
+	 */
+	public Bitstring get(int i) {
+		return members[i];
+	}
+
+	/**
+	 * <!-- toArray -->
+	 * 
+	 * @return The bitstrings in the population
+	 */
+	public Bitstring[] toArray() {
+		return members.clone();
+	}
+
+	@Override
+	public Iterator<Bitstring> iterator() {
+		return Arrays.asList(members).iterator();
+	}
+
+	/**
+	 * <!-- work -->
+	 * 
+	 * @return The number of words in the population, counted only as far as
+	 *         needed to tell whether it is worth working on them in parallel
+	 */
+	public long work() {
+		long work = 0L;
+		for(int i = 0; i < members.length && work < Engine.PARALLEL_THRESHOLD; i++) {
+			work += (members[i].size() + Long.SIZE - 1) / Long.SIZE;
+		}
+		return work;
+	}
+
+	/**
+	 * <!-- evaluate -->
+	 * 
+	 * @param fitness
+	 *          The fitness of a bitstring, which will be called from several
+	 *          threads at once
+	 * @return The fitness of each bitstring
+	 */
+	public double[] evaluate(ToDoubleFunction<Bitstring> fitness) {
+		double fitnesses[] = new double[members.length];
+		Engine.forEach(members.length, Engine.PARALLEL_THRESHOLD, i -> fitnesses[i] = fitness.applyAsDouble(members[i]));
+		return fitnesses;
+	}
+
+	/**
+	 * <!-- count1 -->
+	 * 
+	 * @return The number of 1s in each bitstring
+	 */
+	public int[] count1() {
+		int counts[] = new int[members.length];
+		Engine.forEach(members.length, work(), i -> counts[i] = members[i].count1());
+		return counts;
+	}
+
+	/**
+	 * <!-- match -->
+	 * 
+	 * @param target
+	 *          A bitstring of the same length as those in the population
+	 * @return The number of bits of each bitstring that match those of
+	 *         <code>target</code>
+	 */
+	public int[] match(Bitstring target) {
+		for(int i = 0; i < members.length; i++) {
+			if(members[i].size() != target.size()) {
+				throw new IllegalArgumentException("Cannot match bitstrings of different lengths (" + members[i].size()
+						+ " and " + target.size() + ")");
+			}
+		}
+		int matches[] = new int[members.length];
+		Engine.forEach(members.length, work(), i -> matches[i] = members[i].match(target));
+		return matches;
+	}
+
+	/**
+	 * <!-- and -->
+	 * 
+	 * @param mask
+	 * @return The bitwise AND of each bitstring with <code>mask</code>
+	 */
+	public Population and(Bitstring mask) {
+		Bitstring result[] = new Bitstring[members.length];
+		Engine.forEach(members.length, work(), i -> result[i] = members[i].and(mask));
+		return new Population(result);
+	}
+
+	/**
+	 * <!-- or -->
+	 * 
+	 * @param mask
+	 * @return The bitwise OR of each bitstring with <code>mask</code>
+	 */
+	public Population or(Bitstring mask) {
+		Bitstring result[] = new Bitstring[members.length];
+		Engine.forEach(members.length, work(), i -> result[i] = members[i].or(mask));
+		return new Population(result);
+	}
+
+	/**
+	 * <!-- xor -->
+	 * 
+	 * @param mask
+	 * @return The bitwise XOR of each bitstring with <code>mask</code>
+	 */
+	public Population xor(Bitstring mask) {
+		Bitstring result[] = new Bitstring[members.length];
+		Engine.forEach(members.length, work(), i -> result[i] = members[i].xor(mask));
+		return new Population(result);
+	}
+
+	/**
+	 * <!-- jitter -->
+	 * 
+	 * @param prob
+	 * @param rng
+	 *          The random number generator to use, from which each bitstring
+	 *          is given its own stream
+	 * @return The population with each bit of each bitstring toggled with
+	 *         probability <code>prob</code>
+	 */
+	public Population jitter(double prob, SplittableRandom rng) {
+		Bitstring result[] = new Bitstring[members.length];
+		long seed = rng.nextLong();
+		Engine.forEach(members.length, work(), i -> result[i] = members[i].jitter(prob, Engine.stream(seed, i)));
+		return new Population(result);
+	}
+
+	/**
+	 * <!-- statistics -->
+	 * 
+	 * @return Statistics of the population, which must not be empty and must
+	 *         have bitstrings all of the same length
+	 */
+	public PopulationStatistics statistics() {
+		return new PopulationStatistics(members);
+	}
+
+	/**
+	 * <!-- step -->
+	 * 
+	 * @param ga
+	 * @param fitness
+	 *          The fitness of a bitstring, which will be called from several
+	 *          threads at once
+	 * @param rng
+	 *          The random number generator to use
+	 * @return The next generation of the population under <code>ga</code>
+	 */
+	public Population step(GeneticAlgorithm ga, ToDoubleFunction<Bitstring> fitness, SplittableRandom rng) {
+		return new Population(ga.step(members, evaluate(fitness), rng));
+	}
+
+	/**
+	 * <!-- evolve -->
+	 * 
+	 * @param ga
+	 * @param fitness
+	 *          The fitness of a bitstring, which will be called from several
+	 *          threads at once
+	 * @param generations
+	 * @param rng
+	 *          The random number generator to use
+	 * @return The population after <code>generations</code> generations of
+	 *         <code>ga</code>
+	 */
+	public Population evolve(GeneticAlgorithm ga, ToDoubleFunction<Bitstring> fitness, int generations,
+			SplittableRandom rng) {
+		Population population = this;
+		for(int g = 0; g < generations; g++) {
+			population = population.step(ga, fitness, rng);
+		}
+		return population;
+	}
+}
@@ -0,0 +1,144 @@
+package uk.ac.hutton.bitstring;
+
+/**
+ * PopulationStatistics.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- PopulationStatistics -->
+ * 
+ * Statistics over a population of bitstrings of the same length: the number
+ * and frequency of <code>1</code>s at each position (locus), the mean Shannon
+ * entropy of the loci, and the mean pairwise Hamming distance. The counts are
+ * computed with a {@link VerticalCounter}; for large populations, blocks of
+ * words are counted in parallel.
+ * 
+ * @author Gary Polhill
+ */
+public class PopulationStatistics {
+
+	/**
+	 * Number of words in each block of loci counted in parallel
+	 */
+	public static final int WORDS_PER_TASK = 64;
+
+	private final int size;
+
+	private final int counts[];
+
+	/**
+	 * <!-- PopulationStatistics constructor -->
+	 * 
+	 * @param population
+	 *          A non-empty array of bitstrings, all of the same length
+	 */
+	public PopulationStatistics(final Bitstring population[]) {
+		if(population.length == 0) {
+			throw new IllegalArgumentException("Cannot compute statistics of an empty population of bitstrings");
+		}
+		int length = population[0].size();
+		for(int i = 1; i < population.length; i++) {
+			if(population[i].size() != length) {
+				throw new IllegalArgumentException("Cannot compute statistics of bitstrings of different lengths (" + length
+						+ " and " + population[i].size() + ")");
+			}
+		}
+
+		size = population.length;
+		counts = new int[length];
+
+		final int nw = population[0].words().length;
+		int tasks = (nw + WORDS_PER_TASK - 1) / WORDS_PER_TASK;
+		Engine.forEach(tasks, (long)size * nw, t -> {
+			int from = t * WORDS_PER_TASK;
+			int to = Math.min(nw, from + WORDS_PER_TASK);
+			VerticalCounter.unpack(VerticalCounter.count(population, from, to), from, counts);
+		});
+	}
+
+	/**
+	 * <!-- size -->
+	 * 
+	 * @return The number of bitstrings in the population
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * <!-- counts -->
+	 * 
+	 * @return The number of bitstrings with a <code>1</code> at each locus
+	 */
+	public int[] counts() {
+		return counts.clone();
+	}
+
+	/**
+	 * <!-- frequencies -->
+	 * 
+	 * @return The proportion of bitstrings with a <code>1</code> at each locus
+	 */
+	public double[] frequencies() {
+		double freqs[] = new double[counts.length];
+
+		for(int i = 0; i < counts.length; i++) {
+			freqs[i] = (double)counts[i] / (double)size;
+		}
+		return freqs;
+	}
+
+	/**
+	 * <!-- entropy -->
+	 * 
+	 * @return The mean over the loci of the Shannon entropy (in bits) of the
+	 *         values at each locus, which is 0 when the population has converged
+	 *         and 1 when each locus is equally split
+	 */
+	public double entropy() {
+		if(counts.length == 0) return 0.0;
+		double h = 0.0;
+
+		for(int i = 0; i < counts.length; i++) {
+			double p = (double)counts[i] / (double)size;
+			if(p > 0.0 && p < 1.0) {
+				h -= p * Math.log(p) + (1.0 - p) * Math.log(1.0 - p);
+			}
+		}
+		return h / (Math.log(2.0) * counts.length);
+	}
+
+	/**
+	 * <!-- diversity -->
+	 * 
+	 * @return The mean Hamming distance between all pairs of bitstrings in the
+	 *         population. A locus with <i>c</i> <code>1</code>s contributes
+	 *         <i>c</i>(<i>n</i> - <i>c</i>) differing pairs, so this is computed
+	 *         from the counts without comparing any pairs.
+	 */
+	public double diversity() {
+		if(size < 2) return 0.0;
+		double pairs = 0.0;
+
+		for(int i = 0; i < counts.length; i++) {
+			pairs += (double)counts[i] * (double)(size - counts[i]);
+		}
+		return pairs / ((double)size * (double)(size - 1) / 2.0);
+	}
+}
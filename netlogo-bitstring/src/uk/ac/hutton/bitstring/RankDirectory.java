@@ -0,0 +1,173 @@
+package uk.ac.hutton.bitstring;
+
+import java.nio.LongBuffer;
+
+/**
+ * RankDirectory.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- RankDirectory -->
+ * 
+ * A two-level directory of counts of <code>1</code>s over the words of a
+ * bitstring. Superblocks of {@link #WORDS_PER_SUPERBLOCK} words store the
+ * absolute number of <code>1</code>s before them, and each word stores the
+ * number of <code>1</code>s before it within its superblock, so a rank is two
+ * array lookups and a popcount. Every {@link #SELECT_SAMPLE}<sup>th</sup>
+ * <code>1</code> also has the superblock it is in recorded, which narrows the
+ * search needed for a select to a handful of superblocks.
+ * 
+ * @author Gary Polhill
+ */
+class RankDirectory {
+
+	public static final int WORDS_PER_SUPERBLOCK = 8;
+
+	public static final int SELECT_SAMPLE = 512;
+
+	/**
+	 * The words, read in place, so that those of a bitstring in an arena are not
+	 * copied onto the heap
+	 */
+	private final LongBuffer words;
+
+	/**
+	 * Number of words
+	 */
+	private final int nWords;
+
+	/**
+	 * Number of <code>1</code>s before each superblock; the last entry is the
+	 * total
+	 */
+	private final int superblocks[];
+
+	/**
+	 * Number of <code>1</code>s before each word within its superblock
+	 */
+	private final short blocks[];
+
+	/**
+	 * Superblock containing each {@link #SELECT_SAMPLE}<sup>th</sup>
+	 * <code>1</code>
+	 */
+	private final int samples[];
+
+	/**
+	 * <!-- RankDirectory constructor -->
+	 * 
+	 * @param words
+	 *          The words of the bitstring, up to the buffer's limit, which must
+	 *          not change
+	 */
+	RankDirectory(LongBuffer words) {
+		this.words = words;
+		this.nWords = words.limit();
+		int nSuper = (nWords + WORDS_PER_SUPERBLOCK - 1) / WORDS_PER_SUPERBLOCK;
+		superblocks = new int[nSuper + 1];
+		blocks = new short[nWords];
+
+		int total = 0;
+		for(int s = 0; s < nSuper; s++) {
+			superblocks[s] = total;
+			int within = 0;
+			for(int i = s * WORDS_PER_SUPERBLOCK; i < Math.min(nWords, (s + 1) * WORDS_PER_SUPERBLOCK); i++) {
+				blocks[i] = (short)within;
+				within += Long.bitCount(words.get(i));
+			}
+			total += within;
+		}
+		superblocks[nSuper] = total;
+
+		samples = new int[(total + SELECT_SAMPLE - 1) / SELECT_SAMPLE];
+		int j = 0;
+		for(int s = 0; s < nSuper; s++) {
+			while(j < samples.length && j * SELECT_SAMPLE < superblocks[s + 1]) {
+				samples[j++] = s;
+			}
+		}
+	}
+
+	/**
+	 * <!-- ones -->
+	 * 
+	 * @return The total number of <code>1</code>s
+	 */
+	int ones() {
+		return superblocks[superblocks.length - 1];
+	}
+
+	/**
+	 * <!-- rank -->
+	 * 
+	 * @param pos
+	 *          Position in the bitstring, which must be in the range [0, length]
+	 * @return The number of <code>1</code>s before <code>pos</code>
+	 */
+	int rank(int pos) {
+		int i = pos >>> 6;
+		if(i >= nWords) {
+			return ones();
+		}
+		return superblocks[i / WORDS_PER_SUPERBLOCK] + blocks[i]
+				+ Long.bitCount(words.get(i) & ((1L << (pos & (Long.SIZE - 1))) - 1L));
+	}
+
+	/**
+	 * <!-- select -->
+	 * 
+	 * @param n
+	 * @return The position of the <code>n</code><sup>th</sup> <code>1</code>
+	 *         (counting from 0), or -1 if there are not that many
+	 */
+	int select(int n) {
+		if(n < 0 || n >= ones()) {
+			return -1;
+		}
+
+		// Binary search for the last superblock starting with no more than n 1s,
+		// between the superblocks of the samples either side of n
+
+		int lo = samples[n / SELECT_SAMPLE];
+		int hi = n / SELECT_SAMPLE + 1 < samples.length ? samples[n / SELECT_SAMPLE + 1] : superblocks.length - 2;
+		while(lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if(superblocks[mid] <= n) {
+				lo = mid;
+			}
+			else {
+				hi = mid - 1;
+			}
+		}
+
+		int rem = n - superblocks[lo];
+		for(int i = lo * WORDS_PER_SUPERBLOCK; i < nWords; i++) {
+			int c = Long.bitCount(words.get(i));
+			if(rem < c) {
+				long word = words.get(i);
+				for(int k = 0; k < rem; k++) {
+					word &= word - 1L;
+				}
+				return (i << 6) + Long.numberOfTrailingZeros(word);
+			}
+			rem -= c;
+		}
+		throw new RuntimeException("PANIC!");
+	}
+}
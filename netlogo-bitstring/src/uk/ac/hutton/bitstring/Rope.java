@@ -0,0 +1,291 @@
+package uk.ac.hutton.bitstring;
+
+/**
+ * Rope.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Rope -->
+ * 
+ * A persistent, balanced tree of blocks of bits, used by {@link Bitstring} to
+ * represent long bitstrings so that changing a bit, or adding bits at either
+ * end, copies only the path from the root to the block affected, sharing the
+ * rest of the tree with the bitstring it came from. The tree is an AVL tree
+ * ordered by position, with each leaf holding up to {@link #LEAF_BITS} bits in
+ * the word layout used by {@link Bitstring}. A leaf may be a view of a range of
+ * words in a larger array, so that making a rope from the words of a bitstring
+ * does not copy them.
+ * 
+ * @author Gary Polhill
+ */
+class Rope {
+
+	/**
+	 * Maximum number of bits in a leaf (a multiple of 64)
+	 */
+	public static final int LEAF_BITS = 4096;
+
+	private final int length;
+
+	private final int height;
+
+	private final Rope left;
+
+	private final Rope right;
+
+	/**
+	 * Words containing the bits of a leaf; <code>null</code> in a node
+	 */
+	private final long words[];
+
+	/**
+	 * Position in <code>words</code> of the first word of a leaf
+	 */
+	private final int from;
+
+	/**
+	 * <!-- Rope constructor -->
+	 * 
+	 * Create a leaf
+	 * 
+	 * @param words
+	 *          Array containing the bits of the leaf, with any bits after the
+	 *          last in the leaf's last word set to 0
+	 * @param from
+	 *          Position of the first word of the leaf in <code>words</code>
+	 * @param length
+	 *          Number of bits in the leaf
+	 */
+	private Rope(long words[], int from, int length) {
+		this.length = length;
+		this.height = 0;
+		this.left = null;
+		this.right = null;
+		this.words = words;
+		this.from = from;
+	}
+
+	/**
+	 * <!-- Rope constructor -->
+	 * 
+	 * Create a node
+	 * 
+	 * @param left
+	 * @param right
+	 */
+	private Rope(Rope left, Rope right) {
+		this.length = left.length + right.length;
+		this.height = 1 + Math.max(left.height, right.height);
+		this.left = left;
+		this.right = right;
+		this.words = null;
+		this.from = 0;
+	}
+
+	/**
+	 * <!-- fromWords -->
+	 * 
+	 * @param words
+	 *          The words of a bitstring, which must not be modified afterwards
+	 * @param length
+	 *          The length of the bitstring
+	 * @return A balanced rope with leaves sharing <code>words</code>
+	 */
+	static Rope fromWords(long words[], int length) {
+		int leaves = Math.max(1, (length + LEAF_BITS - 1) / LEAF_BITS);
+		return build(words, length, 0, leaves);
+	}
+
+	/**
+	 * <!-- build -->
+	 * 
+	 * @param words
+	 * @param length
+	 * @param first
+	 *          First leaf to include
+	 * @param last
+	 *          First leaf not to include
+	 * @return A balanced rope of the leaves in the range [<code>first</code>,
+	 *         <code>last</code>[
+	 */
+	private static Rope build(long words[], int length, int first, int last) {
+		if(last - first == 1) {
+			return new Rope(words, first * (LEAF_BITS / Long.SIZE), Math.min(LEAF_BITS, length - first * LEAF_BITS));
+		}
+		int mid = (first + last) >>> 1;
+		return new Rope(build(words, length, first, mid), build(words, length, mid, last));
+	}
+
+	/**
+	 * <!-- bit -->
+	 * 
+	 * @param value
+	 * @return A rope of one bit with the given value
+	 */
+	static Rope bit(boolean value) {
+		return new Rope(new long[] { value ? 1L : 0L }, 0, 1);
+	}
+
+	int length() {
+		return length;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param bit
+	 *          Position in the range [0, length[
+	 * @return The value of the bit
+	 */
+	boolean get(int bit) {
+		Rope rope = this;
+		while(rope.words == null) {
+			if(bit < rope.left.length) {
+				rope = rope.left;
+			}
+			else {
+				bit -= rope.left.length;
+				rope = rope.right;
+			}
+		}
+		return (rope.words[rope.from + (bit >>> 6)] & (1L << bit)) != 0L;
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * @param bit
+	 *          Position in the range [0, length[
+	 * @param value
+	 * @return A rope the same as this one but with the bit set to
+	 *         <code>value</code>, sharing all but the path to the leaf with the
+	 *         bit in it
+	 */
+	Rope set(int bit, boolean value) {
+		if(words != null) {
+			if(((words[from + (bit >>> 6)] & (1L << bit)) != 0L) == value) {
+				return this;
+			}
+			long arr[] = new long[(length + Long.SIZE - 1) / Long.SIZE];
+			System.arraycopy(words, from, arr, 0, arr.length);
+			arr[bit >>> 6] ^= 1L << bit;
+			return new Rope(arr, 0, length);
+		}
+		if(bit < left.length) {
+			Rope l = left.set(bit, value);
+			return l == left ? this : new Rope(l, right);
+		}
+		else {
+			Rope r = right.set(bit - left.length, value);
+			return r == right ? this : new Rope(left, r);
+		}
+	}
+
+	/**
+	 * <!-- concat -->
+	 * 
+	 * @param a
+	 * @param b
+	 * @return A rope of the bits of <code>a</code> followed by those of
+	 *         <code>b</code>, in time proportional to the difference in their
+	 *         heights. Adjacent leaves small enough to fit in one are merged.
+	 */
+	static Rope concat(Rope a, Rope b) {
+		if(a.length == 0) {
+			return b;
+		}
+		else if(b.length == 0) {
+			return a;
+		}
+		else if(a.words != null && b.words != null && a.length + b.length <= LEAF_BITS) {
+			long arr[] = new long[(a.length + b.length + Long.SIZE - 1) / Long.SIZE];
+			a.copyTo(arr, 0);
+			b.copyTo(arr, a.length);
+			return new Rope(arr, 0, a.length + b.length);
+		}
+		else if(a.height > b.height + 1) {
+			return balance(a.left, concat(a.right, b));
+		}
+		else if(b.height > a.height + 1) {
+			return balance(concat(a, b.left), b.right);
+		}
+		else {
+			return new Rope(a, b);
+		}
+	}
+
+	/**
+	 * <!-- balance -->
+	 * 
+	 * @param l
+	 * @param r
+	 * @return A node with the bits of <code>l</code> followed by those of
+	 *         <code>r</code>, rotated if need be so that the heights of its
+	 *         children differ by no more than one
+	 */
+	private static Rope balance(Rope l, Rope r) {
+		if(l.height > r.height + 1) {
+			if(l.left.height >= l.right.height) {
+				return new Rope(l.left, new Rope(l.right, r));
+			}
+			return new Rope(new Rope(l.left, l.right.left), new Rope(l.right.right, r));
+		}
+		else if(r.height > l.height + 1) {
+			if(r.right.height >= r.left.height) {
+				return new Rope(new Rope(l, r.left), r.right);
+			}
+			return new Rope(new Rope(l, r.left.left), new Rope(r.left.right, r.right));
+		}
+		return new Rope(l, r);
+	}
+
+	/**
+	 * <!-- copyTo -->
+	 * 
+	 * OR the bits of the rope into an array of words, shifting each leaf into
+	 * place a word at a time
+	 * 
+	 * @param dst
+	 *          Array with 0s where the bits of the rope are to go
+	 * @param pos
+	 *          Position in <code>dst</code> for the first bit
+	 */
+	void copyTo(long dst[], int pos) {
+		if(words == null) {
+			left.copyTo(dst, pos);
+			right.copyTo(dst, pos + left.length);
+			return;
+		}
+		int n = (length + Long.SIZE - 1) / Long.SIZE;
+		int j = pos >>> 6;
+		int shift = pos & (Long.SIZE - 1);
+		if(shift == 0) {
+			System.arraycopy(words, from, dst, j, n);
+		}
+		else {
+			for(int k = 0; k < n; k++) {
+				long word = words[from + k];
+				dst[j + k] |= word << shift;
+				if(j + k + 1 < dst.length) {
+					dst[j + k + 1] |= word >>> (Long.SIZE - shift);
+				}
+			}
+		}
+	}
+}
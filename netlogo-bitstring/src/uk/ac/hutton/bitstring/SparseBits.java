@@ -0,0 +1,480 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+
+/**
+ * SparseBits.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- SparseBits -->
+ * 
+ * The bits of a long bitstring with very few <code>1</code>s, or very few
+ * <code>0</code>s, stored as the sorted positions of those exceptions to the
+ * majority value. {@link Bitstring} uses this in place of words when a
+ * bitstring is at least {@link #MIN_LENGTH} bits long and no more than one bit
+ * in {@link #RATIO} is an exception, so that counting and the bitwise
+ * operations take time proportional to the number of exceptions rather than
+ * to the length.
+ * 
+ * @author Gary Polhill
+ */
+class SparseBits {
+
+	/**
+	 * Shortest bitstring stored as exceptions
+	 */
+	public static final int MIN_LENGTH = 4096;
+
+	/**
+	 * Most bits per exception for a bitstring to be stored as exceptions. At
+	 * 32 bits per exception, this uses no more than a quarter of the memory of
+	 * the words.
+	 */
+	public static final int RATIO = 128;
+
+	private final int length;
+
+	/**
+	 * Positions of the exceptions, in ascending order
+	 */
+	private final int positions[];
+
+	/**
+	 * <code>true</code> if the exceptions are <code>0</code>s, and all the
+	 * other bits <code>1</code>s
+	 */
+	private final boolean zeros;
+
+	/**
+	 * <!-- SparseBits constructor -->
+	 * 
+	 * @param length
+	 * @param positions
+	 *          Positions of the exceptions in ascending order, which must not be
+	 *          modified afterwards
+	 * @param zeros
+	 *          Whether the exceptions are <code>0</code>s
+	 */
+	SparseBits(int length, int positions[], boolean zeros) {
+		this.length = length;
+		this.positions = positions;
+		this.zeros = zeros;
+	}
+
+	/**
+	 * <!-- choose -->
+	 * 
+	 * @param length
+	 * @param words
+	 *          The words of a bitstring of the given <code>length</code>
+	 * @return The exceptions of the bitstring, or <code>null</code> if there are
+	 *         too many for it to be worth storing them. Counting stops as soon
+	 *         as there are too many of both values, so a bitstring that is
+	 *         not sparse usually costs only a few of its words.
+	 */
+	static SparseBits choose(int length, long words[]) {
+		if(length < MIN_LENGTH) {
+			return null;
+		}
+		int limit = length / RATIO;
+		int ones = 0;
+		for(int i = 0; i < words.length; i++) {
+			ones += Long.bitCount(words[i]);
+			if(ones > limit && Math.min((long)(i + 1) << 6, length) - ones > limit) {
+				return null;
+			}
+		}
+		boolean zeros = ones > length - ones;
+		int n = zeros ? length - ones : ones;
+		if((long)n * RATIO > length) {
+			return null;
+		}
+
+		int positions[] = new int[n];
+		int k = 0;
+		long mask = (length & (Long.SIZE - 1)) == 0 ? ~0L : ~0L >>> (Long.SIZE - (length & (Long.SIZE - 1)));
+		for(int i = 0; i < words.length; i++) {
+			long word = zeros ? ~words[i] : words[i];
+			if(i == words.length - 1) {
+				word &= mask;
+			}
+			while(word != 0L) {
+				positions[k++] = (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1L;
+			}
+		}
+		return new SparseBits(length, positions, zeros);
+	}
+
+	/**
+	 * <!-- fits -->
+	 * 
+	 * @return <code>true</code> if there are few enough exceptions for these to
+	 *         be worth storing rather than the words
+	 */
+	boolean fits() {
+		return length >= MIN_LENGTH && (long)positions.length * RATIO <= length;
+	}
+
+	int length() {
+		return length;
+	}
+
+	boolean zeros() {
+		return zeros;
+	}
+
+	/**
+	 * <!-- toWords -->
+	 * 
+	 * @return The bits in the word layout used by {@link Bitstring}
+	 */
+	long[] toWords() {
+		long arr[] = new long[(length + Long.SIZE - 1) / Long.SIZE];
+
+		if(zeros && arr.length > 0) {
+			Arrays.fill(arr, ~0L);
+			if((length & (Long.SIZE - 1)) != 0) {
+				arr[arr.length - 1] = ~0L >>> (Long.SIZE - (length & (Long.SIZE - 1)));
+			}
+		}
+		for(int p: positions) {
+			arr[p >>> 6] ^= 1L << p;
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param bit
+	 * @return The value of the bit
+	 */
+	boolean get(int bit) {
+		return (Arrays.binarySearch(positions, bit) >= 0) != zeros;
+	}
+
+	/**
+	 * <!-- count1 -->
+	 * 
+	 * @return The number of <code>1</code>s
+	 */
+	int count1() {
+		return zeros ? length - positions.length : positions.length;
+	}
+
+	/**
+	 * <!-- not -->
+	 * 
+	 * @return The complement, sharing these positions
+	 */
+	SparseBits not() {
+		return new SparseBits(length, positions, !zeros);
+	}
+
+	/**
+	 * <!-- set -->
+	 * 
+	 * @param bit
+	 * @param value
+	 * @return The bits with <code>bit</code> set to <code>value</code>
+	 */
+	SparseBits set(int bit, boolean value) {
+		int i = Arrays.binarySearch(positions, bit);
+		if((i >= 0) != zeros == value) {
+			return this;
+		}
+		int arr[];
+		if(i >= 0) {
+			arr = new int[positions.length - 1];
+			System.arraycopy(positions, 0, arr, 0, i);
+			System.arraycopy(positions, i + 1, arr, i, arr.length - i);
+		}
+		else {
+			i = -i - 1;
+			arr = new int[positions.length + 1];
+			System.arraycopy(positions, 0, arr, 0, i);
+			arr[i] = bit;
+			System.arraycopy(positions, i, arr, i + 1, positions.length - i);
+		}
+		return new SparseBits(length, arr, zeros);
+	}
+
+	/**
+	 * <!-- and -->
+	 * 
+	 * @param a
+	 * @param b
+	 * @return The bitwise AND of <code>a</code> and <code>b</code>, which must
+	 *         be the same length
+	 */
+	static SparseBits and(SparseBits a, SparseBits b) {
+		if(!a.zeros && !b.zeros) {
+			return new SparseBits(a.length, merge(a.positions, b.positions, false, false, true), false);
+		}
+		else if(!a.zeros) {
+			return new SparseBits(a.length, merge(a.positions, b.positions, true, false, false), false);
+		}
+		else if(!b.zeros) {
+			return new SparseBits(a.length, merge(b.positions, a.positions, true, false, false), false);
+		}
+		return new SparseBits(a.length, merge(a.positions, b.positions, true, true, true), true);
+	}
+
+	/**
+	 * <!-- or -->
+	 * 
+	 * @param a
+	 * @param b
+	 * @return The bitwise OR of <code>a</code> and <code>b</code>, which must be
+	 *         the same length
+	 */
+	static SparseBits or(SparseBits a, SparseBits b) {
+		return and(a.not(), b.not()).not();
+	}
+
+	/**
+	 * <!-- xor -->
+	 * 
+	 * @param a
+	 * @param b
+	 * @return The bitwise XOR of <code>a</code> and <code>b</code>, which must
+	 *         be the same length
+	 */
+	static SparseBits xor(SparseBits a, SparseBits b) {
+		return new SparseBits(a.length, merge(a.positions, b.positions, true, true, false), a.zeros != b.zeros);
+	}
+
+	/**
+	 * <!-- restrict -->
+	 * 
+	 * @param other
+	 *          A bitstring the same length as this
+	 * @param value
+	 * @return These bits with only the exceptions where <code>other</code> has
+	 *         <code>value</code> kept. For <code>1</code>s with
+	 *         <code>value</code> <code>true</code>, this is the AND with
+	 *         <code>other</code>; for <code>0</code>s with <code>value</code>
+	 *         <code>false</code>, the OR.
+	 */
+	SparseBits restrict(Bitstring other, boolean value) {
+		int arr[] = new int[positions.length];
+		int n = 0;
+
+		for(int p: positions) {
+			if(other.get(p) == value) {
+				arr[n++] = p;
+			}
+		}
+		return new SparseBits(length, n == arr.length ? arr : Arrays.copyOf(arr, n), zeros);
+	}
+
+	/**
+	 * <!-- merge -->
+	 * 
+	 * Merge two sorted arrays of positions
+	 * 
+	 * @param p
+	 * @param q
+	 * @param onlyP
+	 *          Whether to keep positions only in <code>p</code>
+	 * @param onlyQ
+	 *          Whether to keep positions only in <code>q</code>
+	 * @param both
+	 *          Whether to keep positions in both
+	 * @return The positions kept, in ascending order
+	 */
+	private static int[] merge(int p[], int q[], boolean onlyP, boolean onlyQ, boolean both) {
+		int arr[] = new int[(onlyP ? p.length : 0) + (onlyQ ? q.length : 0) + (onlyP || onlyQ ? 0 : Math.min(p.length,
+				q.length))];
+		int i = 0, j = 0, n = 0;
+
+		while(i < p.length || j < q.length) {
+			if(j == q.length || (i < p.length && p[i] < q[j])) {
+				if(onlyP) arr[n++] = p[i];
+				i++;
+			}
+			else if(i == p.length || q[j] < p[i]) {
+				if(onlyQ) arr[n++] = q[j];
+				j++;
+			}
+			else {
+				if(both) arr[n++] = p[i];
+				i++;
+				j++;
+			}
+		}
+		return n == arr.length ? arr : Arrays.copyOf(arr, n);
+	}
+
+	/**
+	 * <!-- ones -->
+	 * 
+	 * @return The positions of the <code>1</code>s in ascending order
+	 */
+	int[] ones() {
+		return zeros ? complement() : positions.clone();
+	}
+
+	/**
+	 * <!-- zeros -->
+	 * 
+	 * @return The positions of the <code>0</code>s in ascending order
+	 */
+	int[] zeroPositions() {
+		return zeros ? positions.clone() : complement();
+	}
+
+	/**
+	 * <!-- complement -->
+	 * 
+	 * @return The positions that are not exceptions, in ascending order
+	 */
+	private int[] complement() {
+		int arr[] = new int[length - positions.length];
+		int n = 0;
+		int j = 0;
+
+		for(int i = 0; i < length; i++) {
+			if(j < positions.length && positions[j] == i) {
+				j++;
+			}
+			else {
+				arr[n++] = i;
+			}
+		}
+		return arr;
+	}
+
+	/**
+	 * <!-- lowerBound -->
+	 * 
+	 * @param pos
+	 * @return The number of exceptions before <code>pos</code>
+	 */
+	private int lowerBound(int pos) {
+		int i = Arrays.binarySearch(positions, pos);
+		return i >= 0 ? i : -i - 1;
+	}
+
+	/**
+	 * <!-- nextOne -->
+	 * 
+	 * @param from
+	 *          Position in the range [0, length]
+	 * @return The position of the first <code>1</code> at or after
+	 *         <code>from</code>, or -1 if there isn't one
+	 */
+	int nextOne(int from) {
+		int i = lowerBound(from);
+		if(!zeros) {
+			return i < positions.length ? positions[i] : -1;
+		}
+		while(i < positions.length && positions[i] == from) {
+			i++;
+			from++;
+		}
+		return from < length ? from : -1;
+	}
+
+	/**
+	 * <!-- prevOne -->
+	 * 
+	 * @param from
+	 *          Position in the range [-1, length[
+	 * @return The position of the last <code>1</code> at or before
+	 *         <code>from</code>, or -1 if there isn't one
+	 */
+	int prevOne(int from) {
+		int i = lowerBound(from + 1) - 1;
+		if(!zeros) {
+			return i >= 0 ? positions[i] : -1;
+		}
+		while(i >= 0 && positions[i] == from) {
+			i--;
+			from--;
+		}
+		return from;
+	}
+
+	/**
+	 * <!-- rank -->
+	 * 
+	 * @param pos
+	 *          Position in the range [0, length]
+	 * @return The number of <code>1</code>s before <code>pos</code>
+	 */
+	int rank(int pos) {
+		return zeros ? pos - lowerBound(pos) : lowerBound(pos);
+	}
+
+	/**
+	 * <!-- select -->
+	 * 
+	 * @param n
+	 * @return The position of the <code>n</code><sup>th</sup> <code>1</code>
+	 *         (counting from 0), or -1 if there are not that many
+	 */
+	int select(int n) {
+		if(n < 0 || n >= count1()) {
+			return -1;
+		}
+		if(!zeros) {
+			return positions[n];
+		}
+
+		// The answer is n plus the number of 0s before it, which is the number
+		// of 0s with fewer than n + 1 1s before them
+
+		int lo = 0;
+		int hi = positions.length;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(positions[mid] - mid <= n) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		return n + lo;
+	}
+
+	/**
+	 * <!-- equals -->
+	 * 
+	 * @param oother
+	 * @return <code>true</code> if the other has the same exceptions of the same
+	 *         value
+	 */
+	@Override
+	public boolean equals(Object oother) {
+		if(!(oother instanceof SparseBits)) {
+			return false;
+		}
+		SparseBits other = (SparseBits)oother;
+		return length == other.length && zeros == other.zeros && Arrays.equals(positions, other.positions);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(positions);
+	}
+}
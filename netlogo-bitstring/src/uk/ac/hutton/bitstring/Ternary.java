@@ -0,0 +1,259 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+
+/**
+ * Ternary.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- Ternary -->
+ * 
+ * An immutable ternary pattern over {<code>0</code>, <code>1</code>,
+ * <code>#</code>}, as used in the conditions of learning classifier systems.
+ * A <code>#</code> ("don't care") position matches either value. The pattern
+ * is stored as two arrays of words laid out as in {@link Bitstring}: a care
+ * mask with a <code>1</code> wherever the pattern is <code>0</code> or
+ * <code>1</code>, and the values at those positions (with <code>0</code> in
+ * the don't care positions), so that a bitstring matches when
+ * <code>((input ^ value) &amp; care) == 0</code> for every word.
+ * 
+ * @author Gary Polhill
+ */
+public class Ternary {
+
+	public static final char DONT_CARE = '#';
+
+	private final int length;
+
+	private final long value[];
+
+	private final long care[];
+
+	/**
+	 * <!-- Ternary constructor -->
+	 * 
+	 * @param string
+	 *          A string of characters interpretable as 1 or 0 (see
+	 *          {@link Bitstring#is1(char)} and {@link Bitstring#is0(char)}), or
+	 *          <code>#</code> or <code>?</code> for don't care
+	 */
+	public Ternary(String string) {
+		if(string.equals(Bitstring.EMPTY_BITSTRING_STRING)) string = "";
+		this.length = string.length();
+		this.value = new long[(length + Long.SIZE - 1) / Long.SIZE];
+		this.care = new long[value.length];
+		for(int i = 0; i < length; i++) {
+			char chr = string.charAt(i);
+			if(Bitstring.is1(chr)) {
+				value[i >>> 6] |= 1L << i;
+				care[i >>> 6] |= 1L << i;
+			}
+			else if(Bitstring.is0(chr)) {
+				care[i >>> 6] |= 1L << i;
+			}
+			else if(chr != DONT_CARE && chr != '?') {
+				throw new IllegalArgumentException("Cannot initialise ternary pattern from string \"" + string
+						+ "\" because character at element " + i + " is not interpretable as 1, 0 or don't care");
+			}
+		}
+	}
+
+	/**
+	 * <!-- Ternary constructor -->
+	 * 
+	 * @param value
+	 *          The values of the pattern where they matter
+	 * @param care
+	 *          A bitstring with a <code>1</code> wherever the pattern must match
+	 *          <code>value</code>, and a <code>0</code> where it doesn't care
+	 */
+	public Ternary(Bitstring value, Bitstring care) {
+		if(value.size() != care.size()) {
+			throw new IllegalArgumentException("Cannot create ternary pattern from value and care bitstrings of different "
+					+ "lengths (" + value.size() + " and " + care.size() + ")");
+		}
+		this.length = value.size();
+		this.care = care.words().clone();
+		this.value = value.words().clone();
+		for(int i = 0; i < this.value.length; i++) {
+			this.value[i] &= this.care[i];
+		}
+	}
+
+	/**
+	 * <!-- Ternary constructor -->
+	 * 
+	 * Create a ternary pattern as a copy of this one
+	 * 
+	 * @param ternary
+	 */
+	public Ternary(Ternary ternary) {
+		this.length = ternary.length;
+		this.value = ternary.value;
+		this.care = ternary.care;
+	}
+
+	/**
+	 * <!-- is10Hash -->
+	 * 
+	 * @param string
+	 * @return <code>true</code> if all characters in the <code>string</code> are
+	 *         interpretable as a 1, 0 or don't care
+	 */
+	public static boolean is10Hash(CharSequence string) {
+		for(int i = 0; i < string.length(); i++) {
+			char chr = string.charAt(i);
+			if(!(Bitstring.is1(chr) || Bitstring.is0(chr) || chr == DONT_CARE || chr == '?')) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * <!-- size -->
+	 * 
+	 * @return The number of positions in the pattern
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * <!-- specificity -->
+	 * 
+	 * @return The number of positions in the pattern that are not don't care
+	 */
+	public int specificity() {
+		int n = 0;
+
+		for(int i = 0; i < care.length; i++) {
+			n += Long.bitCount(care[i]);
+		}
+		return n;
+	}
+
+	/**
+	 * <!-- cares -->
+	 * 
+	 * @param bit
+	 * @return <code>true</code> if the pattern is <code>0</code> or
+	 *         <code>1</code> at position <code>bit</code>
+	 */
+	public boolean cares(int bit) {
+		if(bit < 0 || bit >= length) {
+			throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+		}
+		return (care[bit >>> 6] & (1L << bit)) != 0L;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param bit
+	 * @return <code>true</code> if the pattern is <code>1</code> at position
+	 *         <code>bit</code>, <code>false</code> if it is <code>0</code> or
+	 *         don't care
+	 */
+	public boolean get(int bit) {
+		if(bit < 0 || bit >= length) {
+			throw new IllegalArgumentException("Bit " + bit + " is outside the range [0, " + length + "[");
+		}
+		return (value[bit >>> 6] & (1L << bit)) != 0L;
+	}
+
+	/**
+	 * <!-- matches -->
+	 * 
+	 * @param input
+	 * @return <code>true</code> if <code>input</code> has the same value as this
+	 *         pattern at every position the pattern cares about
+	 */
+	public boolean matches(Bitstring input) {
+		if(input.size() != length) {
+			throw new IllegalArgumentException("Cannot match ternary pattern of length " + length
+					+ " with bitstring of length " + input.size());
+		}
+		long words[] = input.words();
+
+		for(int i = 0; i < care.length; i++) {
+			if(((words[i] ^ value[i]) & care[i]) != 0L) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * <!-- value -->
+	 * 
+	 * @return The words of the values, which must not be modified
+	 */
+	long[] value() {
+		return value;
+	}
+
+	/**
+	 * <!-- care -->
+	 * 
+	 * @return The words of the care mask, which must not be modified
+	 */
+	long[] care() {
+		return care;
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return A <code>String</code> representation of the pattern, using
+	 *         <code>#</code> for don't care
+	 */
+	@Override
+	public String toString() {
+		if(length == 0) return Bitstring.EMPTY_BITSTRING_STRING;
+		char buff[] = new char[length];
+		for(int i = 0; i < length; i++) {
+			buff[i] = !cares(i) ? DONT_CARE : (get(i) ? '1' : '0');
+		}
+		return new String(buff);
+	}
+
+	/**
+	 * <!-- equals -->
+	 * 
+	 * @param oother
+	 * @return <code>true</code> if this pattern equals the other
+	 */
+	@Override
+	public boolean equals(Object oother) {
+		if(!(oother instanceof Ternary)) {
+			return false;
+		}
+		Ternary other = (Ternary)oother;
+		return this.length == other.length && Arrays.equals(this.care, other.care)
+				&& Arrays.equals(this.value, other.value);
+	}
+
+	/**
+	 * <!-- hashCode -->
+	 * 
+	 * @return A hash code consistent with {@link #equals(Object)}
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(care) + Arrays.hashCode(value);
+	}
+}
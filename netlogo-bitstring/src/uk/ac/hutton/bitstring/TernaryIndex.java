@@ -0,0 +1,418 @@
+package uk.ac.hutton.bitstring;
+
+import java.util.Arrays;
+
+/**
+ * TernaryIndex.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- TernaryIndex -->
+ * 
+ * An index over an array of {@link Ternary} patterns of the same length for
+ * finding all the patterns that match a bitstring (the match set of a
+ * classifier system). The index is a tree: each branch tests one position,
+ * which most of the patterns under it care about, and has up to three
+ * children, for the patterns wanting 0 there, those wanting 1, and those not
+ * caring. Finding a match set follows the child for the input's value and the
+ * don't-care child, so whole subtrees of patterns ruled out by the input are
+ * never looked at, and the work grows with the number of patterns that
+ * survive the tests on the way down rather than with the number of patterns.
+ * The leaves hold up to {@link #LEAF_SIZE} patterns, which are matched one by
+ * one.
+ * 
+ * The tree is kept in arrays, in depth-first order, with the words of the
+ * patterns in each leaf next to each other, so that searching it reads memory
+ * close to what it has just read.
+ * 
+ * A tree only pays for itself when it rules out most of the patterns: short
+ * patterns, or patterns caring about few positions, as in many classifier
+ * systems, leave so many patterns to be matched under so many branches that
+ * matching every pattern is quicker. Once the tree is built, the expected cost
+ * of searching it for a random input is worked out from the numbers of
+ * branches and patterns it would visit and the number of patterns expected to
+ * match; if that is not well under the cost of matching every pattern, the
+ * tree is thrown away and each match set is found by going through the
+ * patterns' words in order.
+ * 
+ * @author Gary Polhill
+ */
+public class TernaryIndex {
+
+	/**
+	 * Most patterns held in a leaf of the tree
+	 */
+	public static final int LEAF_SIZE = 16;
+
+	/**
+	 * Deepest the tree goes, so that building it cannot overflow the stack;
+	 * patterns still together at this depth are left in one leaf
+	 */
+	public static final int MAX_DEPTH = 256;
+
+	/**
+	 * The cost, in patterns matched, of visiting a branch of the tree
+	 */
+	public static final double BRANCH_COST = 8.0;
+
+	/**
+	 * The cost, in patterns matched, of sorting each match found by searching
+	 * the tree, for each doubling of the number of matches
+	 */
+	public static final double SORT_COST = 1.0;
+
+	/**
+	 * The tree is kept if the expected cost of searching it is less than the
+	 * number of patterns divided by this
+	 */
+	public static final double TREE_ADVANTAGE = 2.5;
+
+	/**
+	 * Number of entries in {@link #nodes} for each node
+	 */
+	private static final int NODE = 4;
+
+	private final Ternary patterns[];
+
+	private final int length;
+
+	/**
+	 * Number of words in each pattern
+	 */
+	private final int nWords;
+
+	/**
+	 * The nodes of the tree, {@link #NODE} entries each, the root first. A
+	 * branch has the position it tests, followed by the indices in this array
+	 * of its children for patterns wanting 0 and 1 there and for those not
+	 * caring, each -1 if there are no such patterns. A leaf has -1, followed by
+	 * the index in {@link #ids} of its first pattern and the number of patterns
+	 * it has. <code>null</code> if the patterns are matched in turn instead.
+	 */
+	private int nodes[];
+
+	private int nNodes = 0;
+
+	/**
+	 * The positions in {@link #patterns} of the patterns in the leaves, leaf by
+	 * leaf; <code>null</code> if there is no tree
+	 */
+	private int ids[];
+
+	/**
+	 * The care and value words of the patterns in {@link #ids}, or in
+	 * {@link #patterns} if there is no tree, interleaved, and with the values
+	 * masked by the cares
+	 */
+	private final long bits[];
+
+	private int nIds = 0;
+
+	/**
+	 * Depth of the tree, which bounds the stack needed to search it
+	 */
+	private int depth = 0;
+
+	/**
+	 * Expected numbers of branches and patterns in leaves visited by searching
+	 * the tree for a random input
+	 */
+	private double branchesVisited = 0.0;
+
+	private double patternsVisited = 0.0;
+
+	/**
+	 * <!-- TernaryIndex constructor -->
+	 * 
+	 * @param patterns
+	 *          A non-empty array of patterns, all of the same length
+	 */
+	public TernaryIndex(Ternary patterns[]) {
+		if(patterns.length == 0) {
+			throw new IllegalArgumentException("Cannot index an empty array of ternary patterns");
+		}
+		this.patterns = patterns.clone();
+		this.length = patterns[0].size();
+		this.nWords = patterns[0].care().length;
+
+		int members[] = new int[patterns.length];
+		double matches = 0.0;
+		for(int p = 0; p < patterns.length; p++) {
+			if(patterns[p].size() != length) {
+				throw new IllegalArgumentException("Cannot index ternary patterns of different lengths (" + length + " and "
+						+ patterns[p].size() + ")");
+			}
+			members[p] = p;
+			matches += Math.scalb(1.0, -patterns[p].specificity());
+		}
+		this.nodes = new int[NODE * (1 + 2 * patterns.length / LEAF_SIZE)];
+		this.ids = new int[patterns.length];
+		this.bits = new long[patterns.length * 2 * nWords];
+		build(members, members.length, new boolean[length], 1, 1.0);
+
+		double cost = patternsVisited + BRANCH_COST * branchesVisited + SORT_COST * matches
+				* (Math.log(1.0 + matches) / Math.log(2.0));
+		if(cost * TREE_ADVANTAGE >= patterns.length) {
+			nodes = null;
+			ids = null;
+			for(int p = 0, j = 0; p < patterns.length; p++) {
+				long care[] = patterns[p].care();
+				long value[] = patterns[p].value();
+				for(int w = 0; w < nWords; w++) {
+					bits[j++] = care[w];
+					bits[j++] = value[w] & care[w];
+				}
+			}
+		}
+	}
+
+	/**
+	 * <!-- build -->
+	 * 
+	 * Add a node for some of the patterns to the tree, and then the nodes under
+	 * it.
+	 * 
+	 * @param members
+	 *          The patterns to put under the node
+	 * @param n
+	 *          Number of elements of <code>members</code> used
+	 * @param used
+	 *          The positions tested by the node's ancestors
+	 * @param level
+	 *          The depth of the node
+	 * @param reach
+	 *          The chance of a random input reaching the node
+	 * @return The index of the node in {@link #nodes}: a leaf if there are few
+	 *         enough patterns, the tree is deep enough, or they do not care
+	 *         about any of the untested positions, and a branch on the untested
+	 *         position most of them care about otherwise
+	 */
+	private int build(int members[], int n, boolean used[], int level, double reach) {
+		depth = Math.max(depth, level);
+		int position = -1;
+
+		if(n > LEAF_SIZE && level < MAX_DEPTH) {
+			int cared[] = new int[length];
+			for(int m = 0; m < n; m++) {
+				long care[] = patterns[members[m]].care();
+				for(int w = 0; w < care.length; w++) {
+					long word = care[w];
+					while(word != 0L) {
+						cared[(w << 6) + Long.numberOfTrailingZeros(word)]++;
+						word &= word - 1L;
+					}
+				}
+			}
+			for(int i = 0; i < length; i++) {
+				if(!used[i] && cared[i] > 0 && (position == -1 || cared[i] > cared[position])) {
+					position = i;
+				}
+			}
+		}
+
+		if(nNodes == nodes.length) {
+			nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+		}
+		int node = nNodes;
+		nNodes += NODE;
+
+		if(position == -1) {
+			patternsVisited += reach * n;
+			nodes[node] = -1;
+			nodes[node + 1] = nIds;
+			nodes[node + 2] = n;
+			for(int m = 0; m < n; m++) {
+				long care[] = patterns[members[m]].care();
+				long value[] = patterns[members[m]].value();
+				int j = 2 * nWords * nIds;
+				for(int w = 0; w < nWords; w++) {
+					bits[j++] = care[w];
+					bits[j++] = value[w] & care[w];
+				}
+				ids[nIds++] = members[m];
+			}
+			return node;
+		}
+
+		int zeros[] = new int[n];
+		int ones[] = new int[n];
+		int anys[] = new int[n];
+		int nZeros = 0, nOnes = 0, nAnys = 0;
+		for(int m = 0; m < n; m++) {
+			Ternary pattern = patterns[members[m]];
+			if(!pattern.cares(position)) {
+				anys[nAnys++] = members[m];
+			}
+			else if(pattern.get(position)) {
+				ones[nOnes++] = members[m];
+			}
+			else {
+				zeros[nZeros++] = members[m];
+			}
+		}
+
+		// The children are built before any of them is stored, as building them
+		// may replace the array of nodes
+
+		branchesVisited += reach;
+		used[position] = true;
+		int zero = nZeros == 0 ? -1 : build(zeros, nZeros, used, level + 1, reach / 2.0);
+		int one = nOnes == 0 ? -1 : build(ones, nOnes, used, level + 1, reach / 2.0);
+		int any = nAnys == 0 ? -1 : build(anys, nAnys, used, level + 1, reach);
+		used[position] = false;
+		nodes[node] = position;
+		nodes[node + 1] = zero;
+		nodes[node + 2] = one;
+		nodes[node + 3] = any;
+		return node;
+	}
+
+	/**
+	 * <!-- size -->
+	 * 
+	 * @return The number of patterns in the index
+	 */
+	public int size() {
+		return patterns.length;
+	}
+
+	/**
+	 * <!-- length -->
+	 * 
+	 * @return The length of the patterns in the index
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * <!-- isTree -->
+	 * 
+	 * @return <code>true</code> if match sets are found by searching a tree, and
+	 *         <code>false</code> if they are found by matching each pattern in
+	 *         turn
+	 */
+	public boolean isTree() {
+		return nodes != null;
+	}
+
+	/**
+	 * <!-- get -->
+	 * 
+	 * @param i
+	 * @return The <code>i</code><sup>th</sup> pattern in the index
+	 */
+	public Ternary get(int i) {
+		return patterns[i];
+	}
+
+	/**
+	 * <!-- matchSet -->
+	 * 
+	 * @param input
+	 * @return The positions in the array the index was built from of all the
+	 *         patterns that match <code>input</code>, in ascending order
+	 */
+	public int[] matchSet(Bitstring input) {
+		if(input.size() != length) {
+			throw new IllegalArgumentException("Cannot match ternary patterns of length " + length
+					+ " with bitstring of length " + input.size());
+		}
+		long words[] = input.words();
+		int matches[] = new int[LEAF_SIZE];
+		int n = 0;
+
+		if(nodes == null) {
+			if(nWords == 1) {
+				long word = words[0];
+				for(int i = 0, j = 0; j < bits.length; i++, j += 2) {
+					if((word & bits[j]) == bits[j + 1]) {
+						if(n == matches.length) {
+							matches = Arrays.copyOf(matches, 2 * n);
+						}
+						matches[n++] = i;
+					}
+				}
+			}
+			else {
+				for(int i = 0, j = 0; j < bits.length; i++, j += 2 * nWords) {
+					int w = 0;
+					while(w < nWords && (words[w] & bits[j + 2 * w]) == bits[j + 2 * w + 1]) {
+						w++;
+					}
+					if(w == nWords) {
+						if(n == matches.length) {
+							matches = Arrays.copyOf(matches, 2 * n);
+						}
+						matches[n++] = i;
+					}
+				}
+			}
+			return n == matches.length ? matches : Arrays.copyOf(matches, n);
+		}
+
+		// Each node pops one entry and pushes at most two, so the stack needs at
+		// most one entry per level, plus one
+
+		int stack[] = new int[depth + 1];
+		int top = 0;
+		stack[top++] = 0;
+		while(top > 0) {
+			int node = stack[--top];
+			int position = nodes[node];
+			if(position >= 0) {
+				int next = nodes[node + ((words[position >>> 6] & (1L << position)) != 0L ? 2 : 1)];
+				if(nodes[node + 3] >= 0) stack[top++] = nodes[node + 3];
+				if(next >= 0) stack[top++] = next;
+				continue;
+			}
+			for(int i = nodes[node + 1], last = i + nodes[node + 2]; i < last; i++) {
+				boolean match = true;
+				for(int w = 0, j = 2 * nWords * i; w < nWords && match; w++, j += 2) {
+					match = (words[w] & bits[j]) == bits[j + 1];
+				}
+				if(match) {
+					if(n == matches.length) {
+						matches = Arrays.copyOf(matches, 2 * n);
+					}
+					matches[n++] = ids[i];
+				}
+			}
+		}
+
+		Arrays.sort(matches, 0, n);
+		return n == matches.length ? matches : Arrays.copyOf(matches, n);
+	}
+
+	/**
+	 * <!-- toString -->
+	 * 
+	 * @return The patterns in the index, separated by spaces
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buff = new StringBuilder();
+
+		for(int i = 0; i < patterns.length; i++) {
+			if(i > 0) buff.append(" ");
+			buff.append(patterns[i].toString());
+		}
+		return buff.toString();
+	}
+}
@@ -0,0 +1,125 @@
+package uk.ac.hutton.bitstring;
+
+/**
+ * VerticalCounter.java, 
+ *
+ * Copyright (C) The James Hutton Institute 2015
+ *
+ * This file is part of netlogo-bitstring
+ *
+ * netlogo-bitstring is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * netlogo-bitstring is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * netlogo-bitstring. If not, see <http://www.gnu.org/licenses/>. 
+ */
+
+/**
+ * <!-- VerticalCounter -->
+ * 
+ * Bit-sliced ("vertical") counting of the number of <code>1</code>s at each
+ * position over a collection of bitstrings. The counts are kept in planes of
+ * words: bit <code>b</code> of word <code>i</code> of plane <code>j</code> is
+ * bit <code>j</code> of the count at position <code>64i + b</code>. Bitstrings
+ * are added two at a time with a carry-save (full) adder into the lowest plane,
+ * the carry rippling up into the higher planes, so that the cost is
+ * proportional to the number of bitstrings times the number of words.
+ * 
+ * @author Gary Polhill
+ */
+class VerticalCounter {
+
+	/**
+	 * <!-- planes -->
+	 * 
+	 * @param n
+	 *          The number of bitstrings to count over
+	 * @return The number of planes needed to hold a count of up to
+	 *         <code>n</code>
+	 */
+	static int planes(int n) {
+		return Integer.SIZE - Integer.numberOfLeadingZeros(n);
+	}
+
+	/**
+	 * <!-- count -->
+	 * 
+	 * @param bitstrings
+	 *          The bitstrings to count over, which must all be the same length
+	 * @param from
+	 *          The first word to count
+	 * @param to
+	 *          The word after the last one to count
+	 * @return The counts for words [<code>from</code>, <code>to</code>[, as
+	 *         {@link #planes(int)} planes of <code>to - from</code> words
+	 */
+	static long[][] count(Bitstring bitstrings[], int from, int to) {
+		int n = bitstrings.length;
+		int nw = to - from;
+		long counters[][] = new long[planes(n)][nw];
+		long ones[] = counters[0];
+
+		int k = 0;
+		for(; k + 1 < n; k += 2) {
+			long a[] = bitstrings[k].words();
+			long b[] = bitstrings[k + 1].words();
+
+			for(int i = 0; i < nw; i++) {
+				long x = a[from + i];
+				long y = b[from + i];
+				long u = ones[i] ^ x;
+				long carry = (ones[i] & x) | (u & y);
+
+				ones[i] = u ^ y;
+				for(int j = 1; carry != 0L; j++) {
+					long c = counters[j][i];
+					counters[j][i] = c ^ carry;
+					carry &= c;
+				}
+			}
+		}
+		if(k < n) {
+			long a[] = bitstrings[k].words();
+
+			for(int i = 0; i < nw; i++) {
+				long carry = a[from + i];
+				for(int j = 0; carry != 0L; j++) {
+					long c = counters[j][i];
+					counters[j][i] = c ^ carry;
+					carry &= c;
+				}
+			}
+		}
+		return counters;
+	}
+
+	/**
+	 * <!-- unpack -->
+	 * 
+	 * Add the counts held in some planes to an array of counts per position.
+	 * 
+	 * @param counters
+	 *          Planes as returned by {@link #count(Bitstring[], int, int)}
+	 * @param from
+	 *          The word the planes start at
+	 * @param counts
+	 *          Array of counts per position to add to
+	 */
+	static void unpack(long counters[][], int from, int counts[]) {
+		for(int j = 0; j < counters.length; j++) {
+			for(int i = 0; i < counters[j].length; i++) {
+				long word = counters[j][i];
+				while(word != 0L) {
+					counts[((from + i) << 6) + Long.numberOfTrailingZeros(word)] += 1 << j;
+					word &= word - 1L;
+				}
+			}
+		}
+	}
+}